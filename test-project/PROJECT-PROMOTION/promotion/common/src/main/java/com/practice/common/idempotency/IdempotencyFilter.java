@@ -0,0 +1,57 @@
+package com.practice.common.idempotency;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Idempotency-Key 요청만 요청/응답 body를 버퍼링해서 IdempotencyInterceptor가 body 해시를 비교하고 응답을 저장할 수 있게 한다
+ * (SSE 등 나머지 요청은 그대로)
+ *
+ * - IdempotencyInterceptor를 등록한 경로 패턴(WebMvcConfig, AntPathMatcher 형식)에 맞는 요청만 처리한다
+ * - multipart 요청(대량 발급 대상 업로드 등)은 요청 body를 메모리에 올리지 않는다 (응답만 버퍼링, body 비교 없이 키로만 처리)
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<String> pathPatterns;
+
+    /**
+     * @param pathPatterns IdempotencyInterceptor를 등록한 경로 패턴
+     */
+    public IdempotencyFilter(String... pathPatterns) {
+        this.pathPatterns = List.of(pathPatterns);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!IdempotencyInterceptor.isIdempotent(request)) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return pathPatterns.stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(isMultipart(request) ? request : new CachedBodyRequestWrapper(request), wrapper);
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private static boolean isMultipart(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase().startsWith("multipart/");
+    }
+}
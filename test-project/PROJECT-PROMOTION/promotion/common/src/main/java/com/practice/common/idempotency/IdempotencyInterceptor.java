@@ -0,0 +1,226 @@
+package com.practice.common.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.ErrorResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key 헤더가 있는 쓰기 요청(POST)은 같은 키로 한 번만 실행하고, 재시도에는 저장해둔 응답을 그대로 돌려준다
+ * (타임아웃 후 재시도가 락/DB 쓰기를 다시 타지 않도록)
+ *
+ * - 키는 유저별로 구분 (idempotency:v2:{userId}:{method} {uri}:{key}, hash), UserIdInterceptor 다음에 등록
+ * - 처음 요청은 요청마다 만든 owner 토큰과 body 해시로 선점(lock-ttl)하고 실행, 2xx 응답이면 ttl 동안 저장, 아니면 선점을 지워서 재시도 가능
+ *   저장/해제는 owner가 같을 때만 하므로(스크립트), lock-ttl이 지나 다른 요청이 다시 선점한 키를 앞의 요청이 덮어쓰거나 지우지 않는다
+ * - 같은 키로 body가 다른 요청이 오면 실행하지 않고 422
+ * - 같은 키가 실행 중이면 기다리지 않고 바로 409와 Retry-After(retry-after)를 돌려준다 (요청 스레드를 붙잡지 않음)
+ * - 요청/응답 body는 IdempotencyFilter가 버퍼링 (필터가 없거나 multipart 요청이면 body 비교 없이 동작)
+ */
+@Slf4j
+public class IdempotencyInterceptor implements HandlerInterceptor {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final String CLAIMED_KEY_ATTRIBUTE = IdempotencyInterceptor.class.getName() + ".claimedKey";
+    private static final String OWNER_ATTRIBUTE = IdempotencyInterceptor.class.getName() + ".owner";
+
+    // 선점 시도: 비어 있으면 owner/body 해시로 선점, 있으면 상태를 돌려줌
+    // 결과: {CLAIMED} | {MISMATCH} (body가 다름) | {PENDING} (실행 중) | {DONE, 저장된 응답}
+    private static final String CLAIM_SCRIPT = """
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                redis.call('HSET', KEYS[1], 'owner', ARGV[1], 'body-hash', ARGV[2])
+                redis.call('PEXPIRE', KEYS[1], ARGV[3])
+                return {'CLAIMED'}
+            end
+            local stored = redis.call('HMGET', KEYS[1], 'body-hash', 'response')
+            if stored[1] ~= ARGV[2] then
+                return {'MISMATCH'}
+            end
+            if stored[2] then
+                return {'DONE', stored[2]}
+            end
+            return {'PENDING'}
+            """;
+
+    // 응답 저장: 아직 내가 선점한 키일 때만 (1: 저장, 0: owner가 다름)
+    private static final String COMPLETE_SCRIPT = """
+            if redis.call('HGET', KEYS[1], 'owner') ~= ARGV[1] then
+                return 0
+            end
+            redis.call('HSET', KEYS[1], 'response', ARGV[2])
+            redis.call('HDEL', KEYS[1], 'owner')
+            redis.call('PEXPIRE', KEYS[1], ARGV[3])
+            return 1
+            """;
+
+    // 선점 해제: 아직 내가 선점한 키일 때만
+    private static final String RELEASE_SCRIPT = """
+            if redis.call('HGET', KEYS[1], 'owner') ~= ARGV[1] then
+                return 0
+            end
+            return redis.call('DEL', KEYS[1])
+            """;
+
+    private final RedissonClient redissonClient;
+    private final ObjectMapper objectMapper;
+    private final Supplier<Long> currentUserId;
+    private final Settings settings;
+
+    public IdempotencyInterceptor(RedissonClient redissonClient, ObjectMapper objectMapper,
+                                  Supplier<Long> currentUserId, Settings settings) {
+        this.redissonClient = redissonClient;
+        this.objectMapper = objectMapper;
+        this.currentUserId = currentUserId;
+        this.settings = settings;
+    }
+
+    // Idempotency-Key를 처리할 요청인지 (필터에서도 사용)
+    public static boolean isIdempotent(HttpServletRequest request) {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        return "POST".equals(request.getMethod()) && key != null && !key.isBlank();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!isIdempotent(request)) {
+            return true;
+        }
+        String key = "idempotency:v2:" + currentUserId.get() + ":" + request.getMethod() + " "
+                + request.getRequestURI() + ":" + request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        String owner = UUID.randomUUID().toString();
+        String bodyHash = bodyHash(request);
+
+        List<Object> result = eval(CLAIM_SCRIPT, key, owner, bodyHash, String.valueOf(settings.lockTtl().toMillis()));
+        switch ((String) result.get(0)) {
+            case "CLAIMED" -> {
+                request.setAttribute(CLAIMED_KEY_ATTRIBUTE, key);
+                request.setAttribute(OWNER_ATTRIBUTE, owner);
+                return true;
+            }
+            case "MISMATCH" -> throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "같은 Idempotency-Key로 다른 내용의 요청을 보낼 수 없습니다.");
+            case "DONE" -> {
+                // 먼저 실행된 요청이 끝났으면 저장된 응답을 돌려줌
+                replay(objectMapper.readValue((String) result.get(1), StoredResponse.class), response);
+                return false;
+            }
+            default -> throw inProgress();
+        }
+    }
+
+    // 먼저 실행된 요청이 끝나면(실패해서 선점이 지워져도) Retry-After 뒤의 재시도가 결과를 받거나 다시 선점
+    private ErrorResponseException inProgress() {
+        ErrorResponseException exception = new ErrorResponseException(HttpStatus.CONFLICT,
+                ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, "같은 Idempotency-Key의 요청을 처리하고 있습니다. 잠시 후 다시 시도해주세요."),
+                null);
+        exception.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, settings.retryAfter().toSeconds())));
+        return exception;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        String key = (String) request.getAttribute(CLAIMED_KEY_ATTRIBUTE);
+        if (key == null) {
+            return;
+        }
+        String owner = (String) request.getAttribute(OWNER_ATTRIBUTE);
+        ContentCachingResponseWrapper wrapper = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (ex != null || wrapper == null || !HttpStatus.valueOf(response.getStatus()).is2xxSuccessful()) {
+            // 실패한 요청은 저장하지 않고 선점만 해제 (재시도하면 다시 실행)
+            release(key, owner);
+            return;
+        }
+
+        try {
+            StoredResponse stored = new StoredResponse(response.getStatus(), response.getContentType(),
+                    new String(wrapper.getContentAsByteArray(), StandardCharsets.UTF_8));
+            Long saved = redissonClient.getScript(StringCodec.INSTANCE).eval(
+                    RScript.Mode.READ_WRITE,
+                    COMPLETE_SCRIPT,
+                    RScript.ReturnType.INTEGER,
+                    List.of(key),
+                    owner, objectMapper.writeValueAsString(stored), String.valueOf(settings.ttl().toMillis()));
+            if (saved == 0) {
+                log.warn("Idempotency claim expired before completion, response not stored: key={}", key);
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            // 응답은 이미 나갔으므로 선점만 해제
+            log.error("Failed to store idempotent response: key={}, error={}", key, e.getMessage());
+            release(key, owner);
+        }
+    }
+
+    private void release(String key, String owner) {
+        try {
+            redissonClient.getScript(StringCodec.INSTANCE).eval(
+                    RScript.Mode.READ_WRITE,
+                    RELEASE_SCRIPT,
+                    RScript.ReturnType.INTEGER,
+                    List.of(key),
+                    owner);
+        } catch (RuntimeException e) {
+            // 해제하지 못하면 lock-ttl 뒤에 재시도 가능
+            log.error("Failed to release idempotency claim: key={}, error={}", key, e.getMessage());
+        }
+    }
+
+    private List<Object> eval(String script, String key, Object... args) {
+        return redissonClient.getScript(StringCodec.INSTANCE).eval(
+                RScript.Mode.READ_WRITE,
+                script,
+                RScript.ReturnType.MULTI,
+                List.of(key),
+                args);
+    }
+
+    private static String bodyHash(HttpServletRequest request) {
+        CachedBodyRequestWrapper wrapper = WebUtils.getNativeRequest(request, CachedBodyRequestWrapper.class);
+        byte[] body = wrapper != null ? wrapper.getBody() : new byte[0];
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void replay(StoredResponse stored, HttpServletResponse response) throws Exception {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.getOutputStream().write(stored.body().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param ttl        성공한 응답을 저장해두는 시간
+     * @param lockTtl    실행 중 선점 유지 시간
+     * @param retryAfter 같은 키가 실행 중일 때 409 응답의 Retry-After (초 단위, 최소 1초)
+     */
+    public record Settings(Duration ttl, Duration lockTtl, Duration retryAfter) {
+    }
+
+    record StoredResponse(int status, String contentType, String body) {
+    }
+}
@@ -0,0 +1,88 @@
+package com.practice.common.redis;
+
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.BaseMasterSlaveServersConfig;
+import org.redisson.config.Config;
+import org.redisson.config.ReadMode;
+import org.springframework.core.env.PropertyResolver;
+
+import java.util.Arrays;
+
+/**
+ * spring.data.redis 설정으로 Redisson 토폴로지를 고른다 (Spring Boot의 Redis 자동 설정과 같은 우선순위)
+ * - sentinel.master가 있으면 Sentinel, cluster.nodes가 있으면 Cluster, 둘 다 없으면 host/port 단일 서버
+ * - 노드 목록은 host:port를 쉼표로 구분
+ * - 커넥션 풀은 redisson.* (Sentinel/Cluster는 노드마다 풀이 생김)
+ * - Sentinel/Cluster에서도 기본은 마스터에서 읽는다 (Redisson 기본값인 SLAVE는 복제 지연 때문에 방금 쓴 값을 못 읽을 수 있음)
+ * - 각 서비스의 RedisConfig가 Settings.from(environment)으로 만들어서 사용
+ */
+public final class RedissonClientFactory {
+
+    private RedissonClientFactory() {
+    }
+
+    public static RedissonClient create(Settings settings) {
+        Config config = new Config();
+        config.setUseScriptCache(settings.useScriptCache());
+        if (!settings.sentinelMaster().isBlank()) {
+            configure(config.useSentinelServers()
+                    .setMasterName(settings.sentinelMaster())
+                    .addSentinelAddress(addresses(settings.sentinelNodes())), settings);
+        } else if (settings.clusterNodes().length > 0) {
+            configure(config.useClusterServers()
+                    .addNodeAddress(addresses(settings.clusterNodes())), settings);
+        } else {
+            config.useSingleServer()
+                    .setAddress("redis://" + settings.host() + ":" + settings.port())
+                    .setConnectionPoolSize(settings.poolSize())
+                    .setConnectionMinimumIdleSize(settings.minIdleSize())
+                    .setTimeout(settings.timeoutMillis())
+                    .setPassword(settings.password().isBlank() ? null : settings.password());
+        }
+        return Redisson.create(config);
+    }
+
+    private static void configure(BaseMasterSlaveServersConfig<?> servers, Settings settings) {
+        servers.setMasterConnectionPoolSize(settings.poolSize());
+        servers.setMasterConnectionMinimumIdleSize(settings.minIdleSize());
+        servers.setSlaveConnectionPoolSize(settings.poolSize());
+        servers.setSlaveConnectionMinimumIdleSize(settings.minIdleSize());
+        servers.setReadMode(settings.readMode());
+        servers.setTimeout(settings.timeoutMillis());
+        if (!settings.password().isBlank()) {
+            servers.setPassword(settings.password());
+        }
+    }
+
+    private static String[] addresses(String[] nodes) {
+        return Arrays.stream(nodes)
+                .map(String::trim)
+                .map(node -> node.contains("://") ? node : "redis://" + node)
+                .toArray(String[]::new);
+    }
+
+    /**
+     * @param useScriptCache Lua 스크립트를 EVALSHA로 보내고 서버에 없을 때(NOSCRIPT)만 본문을 보낼지 (redisson.use-script-cache, 기본 false)
+     */
+    public record Settings(String host, int port, String password,
+                           String sentinelMaster, String[] sentinelNodes, String[] clusterNodes,
+                           int poolSize, int minIdleSize, int timeoutMillis, ReadMode readMode,
+                           boolean useScriptCache) {
+
+        public static Settings from(PropertyResolver properties) {
+            return new Settings(
+                    properties.getProperty("spring.data.redis.host", "localhost"),
+                    properties.getProperty("spring.data.redis.port", Integer.class, 6379),
+                    properties.getProperty("spring.data.redis.password", ""),
+                    properties.getProperty("spring.data.redis.sentinel.master", ""),
+                    properties.getProperty("spring.data.redis.sentinel.nodes", String[].class, new String[0]),
+                    properties.getProperty("spring.data.redis.cluster.nodes", String[].class, new String[0]),
+                    properties.getProperty("redisson.pool-size", Integer.class, 64),
+                    properties.getProperty("redisson.min-idle-size", Integer.class, 24),
+                    properties.getProperty("redisson.timeout-millis", Integer.class, 3000),
+                    properties.getProperty("redisson.read-mode", ReadMode.class, ReadMode.MASTER),
+                    properties.getProperty("redisson.use-script-cache", Boolean.class, false));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.practice.common.idempotency;
+
+import jakarta.servlet.ServletRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyFilterTest {
+
+    private final IdempotencyFilter idempotencyFilter = new IdempotencyFilter("/api/**/orders/**");
+
+    @Test
+    @DisplayName("멱등 필터 - 인터셉터 경로의 Idempotency-Key 요청만 요청/응답 body를 버퍼링")
+    void filter_BuffersOnlyMatchingPaths() throws Exception {
+        MockFilterChain matched = filter(request("/api/v1/orders/1", "application/json"));
+        assertThat(WebUtils.getNativeRequest(matched.getRequest(), CachedBodyRequestWrapper.class)).isNotNull();
+        assertThat(matched.getResponse()).isInstanceOf(ContentCachingResponseWrapper.class);
+
+        MockFilterChain other = filter(request("/api/v1/uploads", "application/json"));
+        assertThat(other.getRequest()).isInstanceOf(MockHttpServletRequest.class);
+        assertThat(other.getResponse()).isInstanceOf(MockHttpServletResponse.class);
+    }
+
+    @Test
+    @DisplayName("멱등 필터 - multipart 요청은 요청 body를 버퍼링하지 않고 응답만 버퍼링")
+    void filter_SkipsMultipartRequestBody() throws Exception {
+        MockFilterChain chain = filter(request("/api/v1/orders/upload", "multipart/form-data; boundary=x"));
+
+        ServletRequest request = chain.getRequest();
+        assertThat(WebUtils.getNativeRequest(request, CachedBodyRequestWrapper.class)).isNull();
+        assertThat(chain.getResponse()).isInstanceOf(ContentCachingResponseWrapper.class);
+    }
+
+    private MockFilterChain filter(MockHttpServletRequest request) throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        idempotencyFilter.doFilter(request, new MockHttpServletResponse(), chain);
+        return chain;
+    }
+
+    private static MockHttpServletRequest request(String uri, String contentType) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.addHeader(IdempotencyInterceptor.IDEMPOTENCY_KEY_HEADER, "key-1");
+        request.setContentType(contentType);
+        request.setContent("{}".getBytes());
+        return request;
+    }
+}
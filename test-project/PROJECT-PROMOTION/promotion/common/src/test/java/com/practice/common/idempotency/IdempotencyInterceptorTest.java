@@ -0,0 +1,139 @@
+package com.practice.common.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.practice.common.support.EmbeddedRedis;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.ErrorResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 선점/저장/해제 스크립트를 실제 Redis(EmbeddedRedis)에서 실행
+ */
+class IdempotencyInterceptorTest {
+
+    private final RedissonClient redissonClient = EmbeddedRedis.redissonClient();
+
+    private IdempotencyInterceptor idempotencyInterceptor;
+
+    private static final Long TEST_USER_ID = 1L;
+    private static final String STORED_KEY = "idempotency:v2:1:POST /api/v1/orders:key-1";
+
+    @BeforeEach
+    void setUp() {
+        redissonClient.getKeys().flushall();
+        idempotencyInterceptor = new IdempotencyInterceptor(redissonClient, new ObjectMapper(), () -> TEST_USER_ID,
+                new IdempotencyInterceptor.Settings(Duration.ofSeconds(300), Duration.ofSeconds(10), Duration.ofSeconds(2)));
+    }
+
+    @Test
+    @DisplayName("멱등 요청 - 처음 요청은 실행하고 2xx 응답을 저장, 재시도는 실행하지 않고 저장된 응답을 돌려줌")
+    void retry_ReplaysStoredResponse() throws Exception {
+        HttpServletRequest first = request("{\"amount\":100}");
+        ContentCachingResponseWrapper response = new ContentCachingResponseWrapper(new MockHttpServletResponse());
+        assertThat(idempotencyInterceptor.preHandle(first, response, null)).isTrue();
+        complete(first, response, "\"order-1\"");
+
+        MockHttpServletResponse replayed = new MockHttpServletResponse();
+        assertThat(idempotencyInterceptor.preHandle(request("{\"amount\":100}"), replayed, null)).isFalse();
+
+        assertThat(replayed.getStatus()).isEqualTo(200);
+        assertThat(replayed.getContentAsString()).isEqualTo("\"order-1\"");
+        assertThat(replayed.getHeader("Idempotent-Replayed")).isEqualTo("true");
+    }
+
+    @Test
+    @DisplayName("멱등 요청 - 실패한 요청은 저장하지 않고 선점만 해제해서 재시도가 다시 실행")
+    void failedRequest_ReleasesClaim() throws Exception {
+        HttpServletRequest first = request("{\"amount\":100}");
+        ContentCachingResponseWrapper response = new ContentCachingResponseWrapper(new MockHttpServletResponse());
+        idempotencyInterceptor.preHandle(first, response, null);
+        idempotencyInterceptor.afterCompletion(first, response, null, new IllegalStateException());
+
+        assertThat(redissonClient.getKeys().countExists(STORED_KEY)).isZero();
+        assertThat(idempotencyInterceptor.preHandle(request("{\"amount\":100}"), new MockHttpServletResponse(), null)).isTrue();
+    }
+
+    @Test
+    @DisplayName("멱등 요청 - 같은 키로 body가 다른 요청은 실행하지 않고 422")
+    void differentPayload_Rejected() throws Exception {
+        HttpServletRequest first = request("{\"amount\":100}");
+        ContentCachingResponseWrapper response = new ContentCachingResponseWrapper(new MockHttpServletResponse());
+        idempotencyInterceptor.preHandle(first, response, null);
+
+        // 실행 중일 때와 저장된 뒤 모두
+        assertThatThrownBy(() -> idempotencyInterceptor.preHandle(request("{\"amount\":200}"), new MockHttpServletResponse(), null))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY));
+        complete(first, response, "\"order-1\"");
+        assertThatThrownBy(() -> idempotencyInterceptor.preHandle(request("{\"amount\":200}"), new MockHttpServletResponse(), null))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY));
+    }
+
+    @Test
+    @DisplayName("멱등 요청 - 같은 키가 실행 중이면 기다리지 않고 바로 409와 Retry-After")
+    void concurrentRequest_RejectedImmediately() throws Exception {
+        idempotencyInterceptor.preHandle(request("{\"amount\":100}"),
+                new ContentCachingResponseWrapper(new MockHttpServletResponse()), null);
+
+        assertThatThrownBy(() -> idempotencyInterceptor.preHandle(request("{\"amount\":100}"), new MockHttpServletResponse(), null))
+                .isInstanceOfSatisfying(ErrorResponseException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+                    assertThat(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+                });
+    }
+
+    @Test
+    @DisplayName("멱등 요청 - lock-ttl이 지나 다른 요청이 다시 선점한 키는 앞의 요청이 지우거나 덮어쓰지 않음")
+    void expiredClaim_NotTouchedByPreviousOwner() throws Exception {
+        HttpServletRequest slow = request("{\"amount\":100}");
+        ContentCachingResponseWrapper slowResponse = new ContentCachingResponseWrapper(new MockHttpServletResponse());
+        idempotencyInterceptor.preHandle(slow, slowResponse, null);
+        redissonClient.getKeys().delete(STORED_KEY); // lock-ttl 만료
+
+        HttpServletRequest retry = request("{\"amount\":100}");
+        ContentCachingResponseWrapper retryResponse = new ContentCachingResponseWrapper(new MockHttpServletResponse());
+        assertThat(idempotencyInterceptor.preHandle(retry, retryResponse, null)).isTrue();
+
+        // 늦게 끝난 앞의 요청은 재시도의 선점을 지우지도, 응답을 덮어쓰지도 못함
+        idempotencyInterceptor.afterCompletion(slow, slowResponse, null, new IllegalStateException());
+        assertThat(redissonClient.getKeys().countExists(STORED_KEY)).isOne();
+        complete(slow, new ContentCachingResponseWrapper(new MockHttpServletResponse()), "\"order-slow\"");
+        complete(retry, retryResponse, "\"order-retry\"");
+
+        MockHttpServletResponse replayed = new MockHttpServletResponse();
+        idempotencyInterceptor.preHandle(request("{\"amount\":100}"), replayed, null);
+        assertThat(replayed.getContentAsString()).isEqualTo("\"order-retry\"");
+    }
+
+    // IdempotencyFilter가 감싼 것과 같은 요청
+    private HttpServletRequest request(String body) throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/orders");
+        request.addHeader(IdempotencyInterceptor.IDEMPOTENCY_KEY_HEADER, "key-1");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return new CachedBodyRequestWrapper(request);
+    }
+
+    private void complete(HttpServletRequest request, ContentCachingResponseWrapper response, String body) throws IOException {
+        response.setStatus(200);
+        response.setContentType("application/json");
+        response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        idempotencyInterceptor.afterCompletion(request, response, null, null);
+    }
+}
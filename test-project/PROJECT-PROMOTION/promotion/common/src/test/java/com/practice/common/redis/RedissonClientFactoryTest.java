@@ -0,0 +1,42 @@
+package com.practice.common.redis;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.redisson.config.ReadMode;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedissonClientFactoryTest {
+
+    @Test
+    @DisplayName("Redis 설정 - 값이 없으면 단일 서버 localhost:6379, 마스터 읽기, 스크립트 캐시 사용 안 함")
+    void settings_Defaults() {
+        RedissonClientFactory.Settings settings = RedissonClientFactory.Settings.from(new MockEnvironment());
+
+        assertThat(settings.host()).isEqualTo("localhost");
+        assertThat(settings.port()).isEqualTo(6379);
+        assertThat(settings.sentinelMaster()).isBlank();
+        assertThat(settings.clusterNodes()).isEmpty();
+        assertThat(settings.poolSize()).isEqualTo(64);
+        assertThat(settings.readMode()).isEqualTo(ReadMode.MASTER);
+        assertThat(settings.useScriptCache()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Redis 설정 - 노드 목록은 쉼표로 구분하고 서비스별 설정(redisson.*)을 읽음")
+    void settings_FromProperties() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.data.redis.cluster.nodes", "redis-1:6379,redis-2:6379")
+                .withProperty("redisson.pool-size", "128")
+                .withProperty("redisson.read-mode", "SLAVE")
+                .withProperty("redisson.use-script-cache", "true");
+
+        RedissonClientFactory.Settings settings = RedissonClientFactory.Settings.from(environment);
+
+        assertThat(settings.clusterNodes()).containsExactly("redis-1:6379", "redis-2:6379");
+        assertThat(settings.poolSize()).isEqualTo(128);
+        assertThat(settings.readMode()).isEqualTo(ReadMode.SLAVE);
+        assertThat(settings.useScriptCache()).isTrue();
+    }
+}
@@ -0,0 +1,69 @@
+package com.practice.common.support;
+
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+
+/**
+ * Lua 스크립트처럼 mock으로 검증할 수 없는 부분을 테스트하기 위한 embedded Redis
+ * 테스트 JVM에서 처음 사용할 때 빈 포트로 한 번만 띄우고 JVM 종료 시 내린다 (테스트마다 flushall로 비워서 사용)
+ */
+public final class EmbeddedRedis {
+
+    private static RedissonClient redissonClient;
+
+    private EmbeddedRedis() {
+    }
+
+    public static synchronized RedissonClient redissonClient() {
+        if (redissonClient == null) {
+            int port = freePort();
+            RedisServer redisServer = start(port);
+
+            Config config = new Config();
+            config.setUseScriptCache(true);
+            config.useSingleServer().setAddress("redis://localhost:" + port);
+            redissonClient = Redisson.create(config);
+
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                redissonClient.shutdown();
+                stop(redisServer);
+            }));
+        }
+        return redissonClient;
+    }
+
+    private static RedisServer start(int port) {
+        try {
+            RedisServer redisServer = RedisServer.newRedisServer()
+                    .port(port)
+                    .setting("save \"\"")
+                    .setting("appendonly no")
+                    .build();
+            redisServer.start();
+            return redisServer;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void stop(RedisServer redisServer) {
+        try {
+            redisServer.stop();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
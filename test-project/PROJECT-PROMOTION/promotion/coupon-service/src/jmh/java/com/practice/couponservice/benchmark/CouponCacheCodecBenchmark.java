@@ -0,0 +1,99 @@
+package com.practice.couponservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.practice.couponservice.codec.*;
+import com.practice.couponservice.dto.v1.CouponDto;
+import com.practice.couponservice.entity.Coupon;
+import com.practice.couponservice.entity.CouponPolicy;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 캐시 값 포맷별 encode/decode 지연시간(ns) 비교 (JSON vs BINARY)
+ * 포맷별 payload 크기는 setup 시점에 출력한다
+ *
+ * 실행: ./gradlew :coupon-service:jmh -Pjmh.includes=CouponCacheCodecBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CouponCacheCodecBenchmark {
+
+    @Param({"JSON", "BINARY"})
+    private CacheFormat format;
+
+    private CacheCodec<CouponPolicy> policyCodec;
+    private CacheCodec<CouponDto.Response> stateCodec;
+    private CouponPolicy policy;
+    private CouponDto.Response state;
+    private byte[] encodedPolicy;
+    private byte[] encodedState;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 서비스와 같은 방식(Jackson2ObjectMapperBuilder)으로 생성
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        policyCodec = new FormatDetectingCacheCodec<>(format,
+                new JsonCacheCodec<>(objectMapper, CouponPolicy.class), new CouponPolicyBinaryCodec());
+        stateCodec = new FormatDetectingCacheCodec<>(format,
+                new JsonCacheCodec<>(objectMapper, CouponDto.Response.class), new CouponStateBinaryCodec());
+
+        LocalDateTime now = LocalDateTime.now();
+        policy = CouponPolicy.builder()
+                .id(12345L)
+                .name("신규 가입 10% 할인 쿠폰")
+                .description("첫 주문 시 사용 가능한 쿠폰입니다.")
+                .discountType(CouponPolicy.DiscountType.PERCENTAGE)
+                .discountValue(10)
+                .minimumOrderAmount(10000)
+                .maximumDiscountAmount(5000)
+                .totalQuantity(100000)
+                .startTime(now.minusDays(1))
+                .endTime(now.plusDays(30))
+                .createdAt(now.minusDays(2))
+                .updatedAt(now.minusDays(2))
+                .build();
+        state = CouponDto.Response.builder()
+                .id(987654321L)
+                .userId(1234567L)
+                .couponCode("A1B2C3D4E5F6")
+                .discountType(CouponPolicy.DiscountType.PERCENTAGE)
+                .discountValue(10)
+                .minimumOrderAmount(10000)
+                .maximumDiscountAmount(5000)
+                .validFrom(now.minusDays(1))
+                .validUntil(now.plusDays(30))
+                .status(Coupon.Status.USED)
+                .orderId(55555L)
+                .usedAt(now)
+                .build();
+
+        encodedPolicy = policyCodec.encode(policy);
+        encodedState = stateCodec.encode(state);
+        System.out.printf("%n[%s] payload size: policy=%d bytes, state=%d bytes%n",
+                format, encodedPolicy.length, encodedState.length);
+    }
+
+    @Benchmark
+    public byte[] encodePolicy() {
+        return policyCodec.encode(policy);
+    }
+
+    @Benchmark
+    public CouponPolicy decodePolicy() {
+        return policyCodec.decode(encodedPolicy);
+    }
+
+    @Benchmark
+    public byte[] encodeState() {
+        return stateCodec.encode(state);
+    }
+
+    @Benchmark
+    public CouponDto.Response decodeState() {
+        return stateCodec.decode(encodedState);
+    }
+}
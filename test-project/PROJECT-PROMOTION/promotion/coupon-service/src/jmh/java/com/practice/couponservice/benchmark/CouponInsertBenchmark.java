@@ -0,0 +1,94 @@
+package com.practice.couponservice.benchmark;
+
+import com.practice.couponservice.entity.Coupon;
+import com.practice.couponservice.entity.CouponPolicy;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * IDENTITY vs pooled 시퀀스 ID의 쿠폰 insert 처리량(inserts/sec) 비교
+ * 서비스와 같은 H2 인메모리 DB에 배치 컨슈머처럼 트랜잭션 하나에 BATCH_SIZE건씩 저장한다
+ *
+ * 실행: ./gradlew :coupon-service:jmh -Pjmh.includes=CouponInsertBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(CouponInsertBenchmark.BATCH_SIZE)
+public class CouponInsertBenchmark {
+
+    static final int BATCH_SIZE = 100;
+
+    private SessionFactory sessionFactory;
+    private Long policyId;
+    private final AtomicLong userIdSequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:coupondb-bench;DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.JAKARTA_JDBC_USER, "sa")
+                .setProperty(AvailableSettings.JAKARTA_JDBC_PASSWORD, "")
+                .setProperty(AvailableSettings.POOL_SIZE, "32")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                // application.yml과 같은 배치 설정
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, String.valueOf(BATCH_SIZE))
+                .setProperty(AvailableSettings.ORDER_INSERTS, "true")
+                .addAnnotatedClass(CouponPolicy.class)
+                .addAnnotatedClass(Coupon.class)
+                .addAnnotatedClass(IdentityCoupon.class)
+                .buildSessionFactory();
+
+        policyId = sessionFactory.fromTransaction(session -> {
+            CouponPolicy policy = CouponPolicy.builder()
+                    .name("benchmark")
+                    .discountType(CouponPolicy.DiscountType.FIXED_AMOUNT)
+                    .discountValue(1000)
+                    .minimumOrderAmount(0)
+                    .maximumDiscountAmount(1000)
+                    .totalQuantity(Integer.MAX_VALUE)
+                    .startTime(LocalDateTime.now().minusDays(1))
+                    .endTime(LocalDateTime.now().plusDays(1))
+                    .build();
+            session.persist(policy);
+            return policy.getId();
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    // 변경 전: 건마다 insert 후 생성된 키를 받아와야 해서 배치가 꺼진다
+    @Benchmark
+    public void identity() {
+        sessionFactory.inTransaction(session -> {
+            CouponPolicy policy = session.getReference(CouponPolicy.class, policyId);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                session.persist(new IdentityCoupon(policy, userIdSequence.incrementAndGet(), "BENCHMARK"));
+            }
+        });
+    }
+
+    // 변경 후: ID는 시퀀스에서 50개 단위로 미리 받고 insert는 커밋 시점에 배치로 전송
+    @Benchmark
+    public void pooledSequence() {
+        sessionFactory.inTransaction(session -> {
+            CouponPolicy policy = session.getReference(CouponPolicy.class, policyId);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                session.persist(Coupon.builder()
+                        .couponPolicy(policy)
+                        .userId(userIdSequence.incrementAndGet())
+                        .couponCode("BENCHMARK")
+                        .build());
+            }
+        });
+    }
+}
@@ -0,0 +1,118 @@
+package com.practice.couponservice.benchmark;
+
+import com.practice.couponservice.entity.CouponPolicy;
+import com.practice.couponservice.exception.CouponIssueException;
+import com.practice.couponservice.service.CouponRedisKeys;
+import com.practice.couponservice.service.v2.CouponIssuedCache;
+import com.practice.couponservice.service.v2.CouponQuantityService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.redisson.Redisson;
+import org.redisson.api.RAtomicLong;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 분산락 모드 vs Lua 스크립트 모드 발급 처리량(requests/sec) 비교
+ * DB 저장은 제외하고 Redis 구간만 측정한다
+ * LEASE 모드의 중복 요청 거절은 Redis 발급 기록 스크립트(leaseDuplicateRemote) vs 로컬 캐시(leaseDuplicateLocal)
+ *
+ * 실행: ./gradlew :coupon-service:jmh -Predis.address=redis://localhost:6380
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CouponIssueBenchmark {
+
+    private static final long POLICY_ID = 9_000_000L;
+    private static final long LOCK_WAIT_TIME = 3;
+    private static final long LOCK_LEASE_TIME = 5;
+    private static final long DUPLICATE_USER_ID = -1L;
+
+    private RedissonClient redissonClient;
+    private CouponQuantityService couponQuantityService;
+    private CouponIssuedCache couponIssuedCache;
+    private CouponPolicy couponPolicy;
+    private final AtomicLong userIdSequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Config config = new Config();
+        config.useSingleServer()
+                .setAddress(System.getProperty("redis.address", "redis://localhost:6379"));
+        redissonClient = Redisson.create(config);
+        couponQuantityService = new CouponQuantityService(redissonClient);
+
+        couponPolicy = CouponPolicy.builder()
+                .id(POLICY_ID)
+                .startTime(LocalDateTime.now().minusDays(1))
+                .endTime(LocalDateTime.now().plusDays(1))
+                .build();
+
+        redissonClient.getKeys().delete(CouponRedisKeys.issuedUsers(POLICY_ID));
+        redissonClient.getAtomicLong(CouponRedisKeys.quantity(POLICY_ID)).set(Long.MAX_VALUE / 2);
+        redissonClient.getBucket(CouponRedisKeys.policy(POLICY_ID)).set("{}");
+
+        couponIssuedCache = new CouponIssuedCache(couponQuantityService, new SimpleMeterRegistry(), 100_000, 60);
+        couponIssuedCache.recordIssued(couponPolicy, DUPLICATE_USER_ID);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        redissonClient.getKeys().delete(
+                CouponRedisKeys.issuedUsers(POLICY_ID),
+                CouponRedisKeys.issuedUserBits(POLICY_ID),
+                CouponRedisKeys.quantity(POLICY_ID),
+                CouponRedisKeys.policy(POLICY_ID));
+        redissonClient.shutdown();
+    }
+
+    // CouponRedisService 분산락 모드와 같은 순서: 락 획득 -> 정책 조회 -> 수량 차감 -> 락 해제
+    @Benchmark
+    public long lock() throws InterruptedException {
+        RLock lock = redissonClient.getLock(CouponRedisKeys.lock(POLICY_ID));
+        if (!lock.tryLock(LOCK_WAIT_TIME, LOCK_LEASE_TIME, TimeUnit.SECONDS)) {
+            return -1;
+        }
+        try {
+            redissonClient.getBucket(CouponRedisKeys.policy(POLICY_ID)).get();
+            RAtomicLong atomicQuantity = redissonClient.getAtomicLong(CouponRedisKeys.quantity(POLICY_ID));
+            return atomicQuantity.decrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 스크립트 모드: 기간/중복/수량 체크 및 차감을 한 번의 호출로 처리
+    @Benchmark
+    public long script() {
+        return couponQuantityService.issue(couponPolicy, userIdSequence.incrementAndGet());
+    }
+
+    // LEASE 모드 중복 요청: 매번 발급 기록 스크립트로 확인
+    @Benchmark
+    public int leaseDuplicateRemote() {
+        try {
+            couponQuantityService.recordIssued(couponPolicy, DUPLICATE_USER_ID);
+            return 0;
+        } catch (CouponIssueException e) {
+            return 1;
+        }
+    }
+
+    // LEASE 모드 중복 요청: 이 인스턴스에서 확인한 유저는 로컬 캐시에서 거절
+    @Benchmark
+    public int leaseDuplicateLocal() {
+        try {
+            couponIssuedCache.recordIssued(couponPolicy, DUPLICATE_USER_ID);
+            return 0;
+        } catch (CouponIssueException e) {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.practice.couponservice.benchmark;
+
+import com.practice.couponservice.aop.CouponMetered;
+import com.practice.couponservice.aop.CouponMetricsAspect;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @CouponMetered 메서드 호출 한 번에 추가되는 메트릭 오버헤드(ns)
+ * - none: 프록시 없이 직접 호출
+ * - legacy: 호출마다 meter를 builder로 조회 (LegacyCouponMetricsAspect)
+ * - cached: meter를 메서드별로 캐싱하고 histogram 발행 (CouponMetricsAspect)
+ * 서비스와 같은 PrometheusMeterRegistry 사용
+ *
+ * 실행: ./gradlew :coupon-service:jmh -Pjmh.includes=CouponMetricsAspectBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CouponMetricsAspectBenchmark {
+
+    public static class Operations {
+        @CouponMetered(version = "v2")
+        public long issueCoupon(long userId) {
+            return userId + 1;
+        }
+    }
+
+    @Param({"none", "legacy", "cached"})
+    private String aspect;
+
+    private Operations operations;
+    private long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        if (aspect.equals("none")) {
+            operations = new Operations();
+            return;
+        }
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Operations());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect.equals("legacy") ? new LegacyCouponMetricsAspect(registry) : new CouponMetricsAspect(registry));
+        operations = factory.getProxy();
+    }
+
+    @Benchmark
+    public long issueCoupon() {
+        return operations.issueCoupon(userId++);
+    }
+}
@@ -0,0 +1,59 @@
+package com.practice.couponservice.benchmark;
+
+import com.practice.couponservice.dto.v1.CouponDto;
+import com.practice.couponservice.entity.Coupon;
+import com.practice.couponservice.entity.CouponPolicy;
+import com.practice.couponservice.service.v2.CouponWalletIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 최적 쿠폰 계산 지연시간(us) 비교
+ * - index: 캐싱된 인덱스로 계산 (정렬된 상한 덕분에 중간에 멈춤)
+ * - fullScan: 클라이언트처럼 매번 전체 쿠폰을 계산하고 정렬
+ *
+ * 실행: ./gradlew :coupon-service:jmh -Pjmh.includes=CouponWalletIndexBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CouponWalletIndexBenchmark {
+
+    @Param({"100", "500"})
+    private int coupons;
+
+    private List<CouponDto.WalletItem> items;
+    private CouponWalletIndex.Index index;
+    private LocalDateTime now;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        now = LocalDateTime.now();
+        items = new ArrayList<>();
+        for (int i = 0; i < coupons; i++) {
+            boolean percentage = random.nextBoolean();
+            items.add(new CouponDto.WalletItem((long) i, "CODE" + i, Coupon.Status.AVAILABLE,
+                    percentage ? CouponPolicy.DiscountType.PERCENTAGE : CouponPolicy.DiscountType.FIXED_AMOUNT,
+                    percentage ? 1 + random.nextInt(30) : 500 * (1 + random.nextInt(20)),
+                    1000 * random.nextInt(50), 500 * (1 + random.nextInt(20)),
+                    now.minusDays(1), now.plusDays(1 + random.nextInt(30)), now.minusDays(1)));
+        }
+        index = CouponWalletIndex.Index.of(items);
+    }
+
+    @Benchmark
+    public List<CouponDto.BestCoupon> index() {
+        return index.best(30000, now, 10);
+    }
+
+    @Benchmark
+    public List<CouponDto.BestCoupon> fullScan() {
+        return CouponWalletIndex.Index.of(items).best(30000, now, items.size());
+    }
+}
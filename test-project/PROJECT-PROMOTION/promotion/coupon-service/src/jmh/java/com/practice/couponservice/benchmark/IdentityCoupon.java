@@ -0,0 +1,39 @@
+package com.practice.couponservice.benchmark;
+
+import com.practice.couponservice.entity.Coupon;
+import com.practice.couponservice.entity.CouponPolicy;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// 비교용: 시퀀스로 바꾸기 전의 Coupon 매핑 (IDENTITY)
+@Entity
+@Table(name = "identity_coupon")
+public class IdentityCoupon {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long userId;
+    private String couponCode;
+
+    @Enumerated(EnumType.STRING)
+    private Coupon.Status status;
+
+    private LocalDateTime createdAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "coupon_policy_id")
+    private CouponPolicy couponPolicy;
+
+    protected IdentityCoupon() {
+    }
+
+    public IdentityCoupon(CouponPolicy couponPolicy, Long userId, String couponCode) {
+        this.couponPolicy = couponPolicy;
+        this.userId = userId;
+        this.couponCode = couponCode;
+        this.status = Coupon.Status.AVAILABLE;
+    }
+}
@@ -0,0 +1,53 @@
+package com.practice.couponservice.benchmark;
+
+import com.practice.couponservice.aop.CouponMetered;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+
+/**
+ * 비교용 (CouponMetricsAspectBenchmark)
+ * meter 캐싱 이전의 CouponMetricsAspect: 호출마다 builder로 registry를 조회하고 어노테이션을 reflection으로 읽는다
+ */
+@Aspect
+public class LegacyCouponMetricsAspect {
+    private final MeterRegistry registry;
+
+    public LegacyCouponMetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("@annotation(com.practice.couponservice.aop.CouponMetered)")
+    public Object measureCouponOperation(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start();
+        String version = ((MethodSignature) joinPoint.getSignature()).getMethod()
+                .getAnnotation(CouponMetered.class).version();
+        String operation = joinPoint.getSignature().getName();
+
+        try {
+            Object result = joinPoint.proceed();
+            Counter.builder("coupon.operation.success")
+                    .tag("version", version)
+                    .tag("operation", operation)
+                    .register(registry)
+                    .increment();
+            sample.stop(Timer.builder("coupon.operation.duration")
+                    .tag("version", version)
+                    .tag("operation", operation)
+                    .register(registry));
+            return result;
+        } catch (Exception e) {
+            Counter.builder("coupon.operation.failure")
+                    .tag("version", version)
+                    .tag("operation", operation)
+                    .tag("error", e.getClass().getSimpleName())
+                    .register(registry)
+                    .increment();
+            throw e;
+        }
+    }
+}
@@ -10,54 +10,95 @@ import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.stereotype.Component;
 
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @CouponMetered 메서드의 성공/실패 횟수와 처리 시간
+ * 메서드별 meter는 첫 호출에서 한 번만 만들고 캐싱한다 (호출마다 builder/registry 조회, 어노테이션 reflection 없음)
+ *
+ * - coupon.operation.duration은 percentile histogram으로 발행 (coupon_alerts.yml SlowResponseTime의 histogram_quantile용)
+ *   SLO 버킷은 management.metrics.distribution.slo.coupon.operation.duration 으로 설정
+ * - 실패 카운터는 예외 타입별로 캐싱
+ */
 @Aspect
 @Component
 @RequiredArgsConstructor
 public class CouponMetricsAspect {
+
+    // histogram 버킷 범위 (이 범위 밖의 버킷은 발행하지 않음)
+    private static final Duration MIN_EXPECTED_DURATION = Duration.ofMillis(1);
+    private static final Duration MAX_EXPECTED_DURATION = Duration.ofSeconds(10);
+
     private final MeterRegistry registry;
+    private final Map<Method, OperationMeters> meters = new ConcurrentHashMap<>();
 
     @Around("@annotation(CouponMetered)")
     public Object measureCouponOperation(ProceedingJoinPoint joinPoint) throws Throwable {
-        Timer.Sample sample = Timer.start();
-        String version = extractVersion(joinPoint);
-        String operation = extractOperation(joinPoint);
+        OperationMeters operationMeters = meters.computeIfAbsent(
+                ((MethodSignature) joinPoint.getSignature()).getMethod(), this::createMeters);
+        long start = registry.config().clock().monotonicTime();
 
         try {
             Object result = joinPoint.proceed();
 
             // 쿠폰 발급 성공 메트릭
-            Counter.builder("coupon.operation.success")
-                    .tag("version", version)
-                    .tag("operation", operation)
-                    .register(registry)
-                    .increment();
-
-            sample.stop(Timer.builder("coupon.operation.duration")
-                    .tag("version", version)
-                    .tag("operation", operation)
-                    .register(registry));
+            operationMeters.success.increment();
+            operationMeters.successDuration.record(registry.config().clock().monotonicTime() - start, TimeUnit.NANOSECONDS);
 
             return result;
         } catch (Exception e) {
             // 쿠폰 발급 실패 메트릭
-            Counter.builder("coupon.operation.failure")
-                    .tag("version", version)
-                    .tag("operation", operation)
-                    .tag("error", e.getClass().getSimpleName())
-                    .register(registry)
-                    .increment();
+            operationMeters.failure(e.getClass()).increment();
+            operationMeters.failureDuration.record(registry.config().clock().monotonicTime() - start, TimeUnit.NANOSECONDS);
             throw e;
         }
     }
 
-    private String extractVersion(ProceedingJoinPoint joinPoint) {
-        CouponMetered annotation = ((MethodSignature) joinPoint.getSignature())
-                .getMethod()
-                .getAnnotation(CouponMetered.class);
-        return annotation.version();
+    private OperationMeters createMeters(Method method) {
+        return new OperationMeters(method.getAnnotation(CouponMetered.class).version(), method.getName());
     }
 
-    private String extractOperation(ProceedingJoinPoint joinPoint) {
-        return joinPoint.getSignature().getName();
+    // 메서드 하나의 (outcome별) meter
+    private final class OperationMeters {
+        private final String version;
+        private final String operation;
+        private final Counter success;
+        private final Timer successDuration;
+        private final Timer failureDuration;
+        private final Map<Class<?>, Counter> failures = new ConcurrentHashMap<>();
+
+        private OperationMeters(String version, String operation) {
+            this.version = version;
+            this.operation = operation;
+            this.success = Counter.builder("coupon.operation.success")
+                    .tag("version", version)
+                    .tag("operation", operation)
+                    .register(registry);
+            this.successDuration = timer("success");
+            this.failureDuration = timer("failure");
+        }
+
+        private Timer timer(String outcome) {
+            return Timer.builder("coupon.operation.duration")
+                    .tag("version", version)
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(MIN_EXPECTED_DURATION)
+                    .maximumExpectedValue(MAX_EXPECTED_DURATION)
+                    .register(registry);
+        }
+
+        private Counter failure(Class<?> errorType) {
+            return failures.computeIfAbsent(errorType, type -> Counter.builder("coupon.operation.failure")
+                    .tag("version", version)
+                    .tag("operation", operation)
+                    .tag("error", type.getSimpleName())
+                    .register(registry));
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,43 @@
+package com.practice.couponservice.codec;
+
+/**
+ * 버전이 붙은 바이너리 포맷: [MAGIC][version][필드...]
+ * - MAGIC(0xC0)은 UTF-8 문자열의 첫 바이트로 나올 수 없으므로 JSON 값과 구분된다
+ * - 필드 구성이 바뀌면 CURRENT_VERSION을 올리고 decode(version, reader)에 이전 버전 분기를 남겨둔다
+ *   (이미 저장된 이전 버전 값도 그대로 읽힘)
+ */
+public abstract class BinaryCacheCodec<T> implements CacheCodec<T> {
+
+    static final byte MAGIC = (byte) 0xC0;
+
+    @Override
+    public byte[] encode(T value) {
+        BinaryWriter writer = new BinaryWriter();
+        writer.writeByte(MAGIC);
+        writer.writeByte(currentVersion());
+        encode(value, writer);
+        return writer.toByteArray();
+    }
+
+    @Override
+    public T decode(byte[] bytes) {
+        if (!isBinary(bytes) || bytes.length < 2) {
+            throw new IllegalArgumentException("바이너리 캐시 포맷이 아닙니다.");
+        }
+        return decode(bytes[1], new BinaryReader(bytes, 2));
+    }
+
+    static boolean isBinary(byte[] bytes) {
+        return bytes.length > 0 && bytes[0] == MAGIC;
+    }
+
+    protected abstract int currentVersion();
+
+    protected abstract void encode(T value, BinaryWriter writer);
+
+    protected abstract T decode(int version, BinaryReader reader);
+
+    protected IllegalArgumentException unsupportedVersion(int version) {
+        return new IllegalArgumentException("지원하지 않는 캐시 포맷 버전입니다: " + version);
+    }
+}
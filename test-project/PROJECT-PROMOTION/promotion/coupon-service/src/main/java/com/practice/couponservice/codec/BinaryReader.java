@@ -0,0 +1,67 @@
+package com.practice.couponservice.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// BinaryWriter로 기록한 값 읽기
+public class BinaryReader {
+
+    private final byte[] buffer;
+    private int position;
+
+    BinaryReader(byte[] buffer, int position) {
+        this.buffer = buffer;
+        this.position = position;
+    }
+
+    public Long readLong() {
+        long raw = readVarLong();
+        return raw == 0 ? null : unZigZag(raw - 1);
+    }
+
+    public Integer readInt() {
+        Long value = readLong();
+        return value == null ? null : value.intValue();
+    }
+
+    public String readString() {
+        int length = (int) readVarLong();
+        if (length == 0) {
+            return null;
+        }
+        String value = new String(buffer, position, length - 1, StandardCharsets.UTF_8);
+        position += length - 1;
+        return value;
+    }
+
+    public <E extends Enum<E>> E readEnum(E[] values) {
+        int ordinal = (int) readVarLong();
+        return ordinal == 0 ? null : values[ordinal - 1];
+    }
+
+    public LocalDateTime readDateTime() {
+        long raw = readVarLong();
+        if (raw == 0) {
+            return null;
+        }
+        int nano = (int) readVarLong();
+        return LocalDateTime.ofEpochSecond(unZigZag(raw - 1), nano, ZoneOffset.UTC);
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("잘못된 캐시 데이터입니다.");
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
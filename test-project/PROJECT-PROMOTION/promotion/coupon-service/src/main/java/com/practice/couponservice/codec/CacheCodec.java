@@ -0,0 +1,12 @@
+package com.practice.couponservice.codec;
+
+/**
+ * Redis 캐시 값 직렬화 (RBucket<byte[]>에 저장)
+ * @param <T> 캐시에 저장하는 타입
+ */
+public interface CacheCodec<T> {
+
+    byte[] encode(T value);
+
+    T decode(byte[] bytes);
+}
@@ -0,0 +1,7 @@
+package com.practice.couponservice.codec;
+
+// coupon.cache.codec.* 설정값, 새로 쓰는 값의 포맷 (읽을 때는 포맷을 자동으로 판별)
+public enum CacheFormat {
+    JSON,   // Jackson JSON (UTF-8)
+    BINARY, // 버전이 붙은 바이너리 포맷 (BinaryCacheCodec)
+}
@@ -0,0 +1,56 @@
+package com.practice.couponservice.codec;
+
+import com.practice.couponservice.entity.CouponPolicy;
+
+// coupon:{id}:policy 값 (CouponPolicy)
+public class CouponPolicyBinaryCodec extends BinaryCacheCodec<CouponPolicy> {
+
+    private static final int VERSION_1 = 1;
+    private static final int VERSION_2 = 2; // issuedQuantity 추가
+
+    @Override
+    protected int currentVersion() {
+        return VERSION_2;
+    }
+
+    @Override
+    protected void encode(CouponPolicy value, BinaryWriter writer) {
+        writer.writeLong(value.getId());
+        writer.writeString(value.getName());
+        writer.writeString(value.getDescription());
+        writer.writeEnum(value.getDiscountType());
+        writer.writeInt(value.getDiscountValue());
+        writer.writeInt(value.getMinimumOrderAmount());
+        writer.writeInt(value.getMaximumDiscountAmount());
+        writer.writeInt(value.getTotalQuantity());
+        writer.writeDateTime(value.getStartTime());
+        writer.writeDateTime(value.getEndTime());
+        writer.writeDateTime(value.getCreatedAt());
+        writer.writeDateTime(value.getUpdatedAt());
+        writer.writeInt(value.getIssuedQuantity());
+    }
+
+    @Override
+    protected CouponPolicy decode(int version, BinaryReader reader) {
+        if (version != VERSION_1 && version != VERSION_2) {
+            throw unsupportedVersion(version);
+        }
+        CouponPolicy.CouponPolicyBuilder builder = CouponPolicy.builder()
+                .id(reader.readLong())
+                .name(reader.readString())
+                .description(reader.readString())
+                .discountType(reader.readEnum(CouponPolicy.DiscountType.values()))
+                .discountValue(reader.readInt())
+                .minimumOrderAmount(reader.readInt())
+                .maximumDiscountAmount(reader.readInt())
+                .totalQuantity(reader.readInt())
+                .startTime(reader.readDateTime())
+                .endTime(reader.readDateTime())
+                .createdAt(reader.readDateTime())
+                .updatedAt(reader.readDateTime());
+        if (version >= VERSION_2) {
+            builder.issuedQuantity(reader.readInt());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.practice.couponservice.codec;
+
+import com.practice.couponservice.dto.v1.CouponDto;
+import com.practice.couponservice.entity.Coupon;
+import com.practice.couponservice.entity.CouponPolicy;
+
+// coupon:state:{id} 값 (CouponDto.Response)
+public class CouponStateBinaryCodec extends BinaryCacheCodec<CouponDto.Response> {
+
+    private static final int VERSION_1 = 1;
+
+    @Override
+    protected int currentVersion() {
+        return VERSION_1;
+    }
+
+    @Override
+    protected void encode(CouponDto.Response value, BinaryWriter writer) {
+        writer.writeLong(value.getId());
+        writer.writeLong(value.getUserId());
+        writer.writeString(value.getCouponCode());
+        writer.writeEnum(value.getDiscountType());
+        writer.writeInt(value.getDiscountValue());
+        writer.writeInt(value.getMinimumOrderAmount());
+        writer.writeInt(value.getMaximumDiscountAmount());
+        writer.writeDateTime(value.getValidFrom());
+        writer.writeDateTime(value.getValidUntil());
+        writer.writeEnum(value.getStatus());
+        writer.writeLong(value.getOrderId());
+        writer.writeDateTime(value.getUsedAt());
+    }
+
+    @Override
+    protected CouponDto.Response decode(int version, BinaryReader reader) {
+        if (version != VERSION_1) {
+            throw unsupportedVersion(version);
+        }
+        return CouponDto.Response.builder()
+                .id(reader.readLong())
+                .userId(reader.readLong())
+                .couponCode(reader.readString())
+                .discountType(reader.readEnum(CouponPolicy.DiscountType.values()))
+                .discountValue(reader.readInt())
+                .minimumOrderAmount(reader.readInt())
+                .maximumDiscountAmount(reader.readInt())
+                .validFrom(reader.readDateTime())
+                .validUntil(reader.readDateTime())
+                .status(reader.readEnum(Coupon.Status.values()))
+                .orderId(reader.readLong())
+                .usedAt(reader.readDateTime())
+                .build();
+    }
+}
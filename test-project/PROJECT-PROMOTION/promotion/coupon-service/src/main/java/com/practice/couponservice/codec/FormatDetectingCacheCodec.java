@@ -0,0 +1,56 @@
+package com.practice.couponservice.codec;
+
+import io.netty.buffer.Unpooled;
+import lombok.RequiredArgsConstructor;
+import org.redisson.codec.Kryo5Codec;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 쓰기는 설정된 포맷으로, 읽기는 첫 바이트로 포맷을 판별해서 처리
+ * 포맷을 바꿔도 Redis에 남아있는 이전 포맷 값을 그대로 읽을 수 있다
+ *
+ * - 0xC0(BinaryCacheCodec.MAGIC): 바이너리
+ * - 0x03: 이 코덱 도입 전의 값, Redisson 기본 코덱(Kryo5Codec)으로 저장한 JSON 문자열
+ *   (Kryo는 클래스 ID + 2를 먼저 쓰고 String의 ID는 1, UTF-8 JSON의 첫 바이트로는 나올 수 없음)
+ * - 그 외: JSON
+ */
+@RequiredArgsConstructor
+public class FormatDetectingCacheCodec<T> implements CacheCodec<T> {
+
+    private static final byte KRYO_STRING = 0x03;
+    private static final Kryo5Codec LEGACY_CODEC = new Kryo5Codec();
+
+    private final CacheFormat writeFormat;
+    private final JsonCacheCodec<T> jsonCodec;
+    private final BinaryCacheCodec<T> binaryCodec;
+
+    @Override
+    public byte[] encode(T value) {
+        return writeFormat == CacheFormat.BINARY ? binaryCodec.encode(value) : jsonCodec.encode(value);
+    }
+
+    @Override
+    public T decode(byte[] bytes) {
+        if (BinaryCacheCodec.isBinary(bytes)) {
+            return binaryCodec.decode(bytes);
+        }
+        if (bytes.length > 0 && bytes[0] == KRYO_STRING) {
+            return jsonCodec.decode(decodeLegacy(bytes));
+        }
+        return jsonCodec.decode(bytes);
+    }
+
+    private byte[] decodeLegacy(byte[] bytes) {
+        try {
+            Object value = LEGACY_CODEC.getValueDecoder().decode(Unpooled.wrappedBuffer(bytes), null);
+            if (!(value instanceof String json)) {
+                throw new IllegalArgumentException("이전 캐시 포맷의 값이 문자열이 아닙니다: " + value.getClass().getName());
+            }
+            return json.getBytes(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("이전 포맷(Kryo) 캐시 데이터를 변환하는 중 오류가 발생했습니다.", e);
+        }
+    }
+}
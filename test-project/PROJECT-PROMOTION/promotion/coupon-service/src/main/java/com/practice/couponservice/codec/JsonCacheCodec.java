@@ -0,0 +1,31 @@
+package com.practice.couponservice.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+
+@RequiredArgsConstructor
+public class JsonCacheCodec<T> implements CacheCodec<T> {
+
+    private final ObjectMapper objectMapper;
+    private final Class<T> type;
+
+    @Override
+    public byte[] encode(T value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new IllegalStateException("캐시 데이터를 JSON으로 변환하는 중 오류가 발생했습니다.", e);
+        }
+    }
+
+    @Override
+    public T decode(byte[] bytes) {
+        try {
+            return objectMapper.readValue(bytes, type);
+        } catch (IOException e) {
+            throw new IllegalStateException("캐시 데이터를 JSON에서 변환하는 중 오류가 발생했습니다.", e);
+        }
+    }
+}
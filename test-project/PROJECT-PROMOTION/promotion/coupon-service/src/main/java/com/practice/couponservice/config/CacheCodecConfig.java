@@ -0,0 +1,34 @@
+package com.practice.couponservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.practice.couponservice.codec.*;
+import com.practice.couponservice.dto.v1.CouponDto;
+import com.practice.couponservice.entity.CouponPolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// 키 prefix별 캐시 값 포맷 (coupon.cache.codec.*)
+@Configuration
+public class CacheCodecConfig {
+
+    // coupon:state:{id}
+    @Bean
+    public CacheCodec<CouponDto.Response> couponStateCodec(
+            ObjectMapper objectMapper,
+            @Value("${coupon.cache.codec.state:JSON}") CacheFormat format) {
+        return new FormatDetectingCacheCodec<>(format,
+                new JsonCacheCodec<>(objectMapper, CouponDto.Response.class),
+                new CouponStateBinaryCodec());
+    }
+
+    // coupon:{id}:policy
+    @Bean
+    public CacheCodec<CouponPolicy> couponPolicyCodec(
+            ObjectMapper objectMapper,
+            @Value("${coupon.cache.codec.policy:BINARY}") CacheFormat format) {
+        return new FormatDetectingCacheCodec<>(format,
+                new JsonCacheCodec<>(objectMapper, CouponPolicy.class),
+                new CouponPolicyBinaryCodec());
+    }
+}
@@ -6,10 +6,12 @@ import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
@@ -21,6 +23,15 @@ public class KafkaConfig {
 
     private static final String BOOTSTRAP_SERVERS = "localhost:9092";
     private static final String GROUP_ID = "coupon-service";
+    private static final int MAX_POLL_RECORDS = 100;
+
+    // true면 poll 한 번에 받은 메시지(최대 MAX_POLL_RECORDS)를 한 번에 처리 (CouponBatchConsumer)
+    @Value("${coupon.consumer.batch-enabled:false}")
+    private boolean batchEnabled;
+
+    // true면 메시지를 키별 worker 스레드에서 처리하고 연속으로 완료된 오프셋까지만 커밋 (CouponParallelConsumer)
+    @Value("${coupon.consumer.parallel-enabled:false}")
+    private boolean parallelEnabled;
 
     @Bean
     public ProducerFactory<String, CouponDto.IssueMessage> couponProducerFactory() {
@@ -34,6 +45,11 @@ public class KafkaConfig {
         config.put(ProducerConfig.ACKS_CONFIG, "all");
         config.put(ProducerConfig.RETRIES_CONFIG, 3);
         config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 1);
+
+        // 배치 전송 및 압축 (outbox relay가 한 번에 많이 보낼 때 효과가 큼)
+        config.put(ProducerConfig.LINGER_MS_CONFIG, 10);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, 64 * 1024);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
         return new DefaultKafkaProducerFactory<>(config);
     }
 
@@ -53,7 +69,7 @@ public class KafkaConfig {
         // 안정성을 위한 추가 설정
         config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
-        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 100);
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, MAX_POLL_RECORDS);
 
         JsonDeserializer<CouponDto.IssueMessage> jsonDeserializer = new JsonDeserializer<>(CouponDto.IssueMessage.class);
         jsonDeserializer.addTrustedPackages("*");
@@ -74,6 +90,18 @@ public class KafkaConfig {
         factory.setConsumerFactory(couponConsumerFactory());
         // 동시성 설정
         factory.setConcurrency(3);
+        if (batchEnabled && parallelEnabled) {
+            throw new IllegalStateException("coupon.consumer.batch-enabled와 parallel-enabled는 함께 사용할 수 없습니다.");
+        }
+        if (parallelEnabled) {
+            // worker 스레드에서 ack, 순서가 어긋난 ack는 앞쪽 오프셋이 모두 ack될 때까지 커밋을 미룸
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+            factory.getContainerProperties().setAsyncAcks(true);
+            return factory;
+        }
+        // 배치 모드면 List로 받고, 배치 처리가 끝난 뒤 한 번에 오프셋 커밋
+        factory.setBatchListener(batchEnabled);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
         return factory;
     }
 
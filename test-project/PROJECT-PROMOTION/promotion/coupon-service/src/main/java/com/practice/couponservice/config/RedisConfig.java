@@ -1,27 +1,20 @@
 package com.practice.couponservice.config;
 
+import com.practice.common.redis.RedissonClientFactory;
 import org.redisson.api.RedissonClient;
-import org.redisson.Redisson;
-import org.redisson.config.Config;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
+/**
+ * Redisson 클라이언트 (토폴로지/커넥션 풀은 common 모듈의 RedissonClientFactory, 설정은 spring.data.redis.*, redisson.*)
+ * Lua 스크립트는 EVALSHA로 전송하고, 서버에 없으면(NOSCRIPT) 그때만 본문을 보낸다 (redisson.use-script-cache=true)
+ */
 @Configuration
 public class RedisConfig {
 
-    @Value("${spring.data.redis.host}")
-    private String host;
-
-    @Value("${spring.data.redis.port}")
-    private String port;
-
     @Bean
-    public RedissonClient redisson() {
-        Config config = new Config();
-        config.useSingleServer()
-                .setAddress("redis://" + host + ":" + port);
-        return Redisson.create(config);
+    public RedissonClient redisson(Environment environment) {
+        return RedissonClientFactory.create(RedissonClientFactory.Settings.from(environment));
     }
-
-}
\ No newline at end of file
+}
@@ -35,6 +35,15 @@ public class CouponController {
         return ResponseEntity.ok(CouponDto.Response.from(couponService.cancelCoupon(couponId)));
     }
 
+    // 쿠폰함 (커서 기반), 다음 페이지는 응답의 nextCursor를 cursor로 전달
+    @GetMapping("/wallet")
+    public ResponseEntity<CouponDto.WalletResponse> getWallet(
+            @RequestParam(required = false) Coupon.Status status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(couponService.getWallet(status, cursor, size));
+    }
+
     @GetMapping
     public ResponseEntity<List<CouponDto.Response>> getCoupons(
             @RequestParam(required = false) Coupon.Status status,
@@ -0,0 +1,45 @@
+package com.practice.couponservice.controller.v2;
+
+import com.practice.couponservice.dto.v1.CouponCampaignDto;
+import com.practice.couponservice.service.v2.CouponCampaignService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// 캠페인 대량 발급, 작업은 CouponCampaignRunner가 비동기로 실행하고 진행 상황은 GET으로 조회
+@RestController
+@RequestMapping("/api/v2/coupon-campaigns")
+@RequiredArgsConstructor
+public class CouponCampaignController {
+
+    private final CouponCampaignService couponCampaignService;
+
+    // 유저 ID 목록 파일 업로드 (한 줄에 하나)
+    @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<CouponCampaignDto.Progress> createUploadJob(
+            @RequestParam Long couponPolicyId,
+            @RequestParam MultipartFile file) throws IOException {
+        try (InputStream userIds = file.getInputStream()) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(CouponCampaignDto.Progress.from(couponCampaignService.createUploadJob(couponPolicyId, userIds)));
+        }
+    }
+
+    // 다른 정책의 쿠폰을 가진 유저 대상
+    @PostMapping("/query")
+    public ResponseEntity<CouponCampaignDto.Progress> createQueryJob(@RequestBody CouponCampaignDto.QueryRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(CouponCampaignDto.Progress.from(couponCampaignService.createQueryJob(request)));
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<CouponCampaignDto.Progress> getProgress(@PathVariable Long jobId) {
+        return ResponseEntity.ok(couponCampaignService.getProgress(jobId));
+    }
+}
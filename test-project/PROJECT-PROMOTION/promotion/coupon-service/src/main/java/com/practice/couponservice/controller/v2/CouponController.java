@@ -19,6 +19,12 @@ public class CouponController {
         return ResponseEntity.ok(couponService.issueCoupon(request));
     }
 
+    // 여러 정책을 한 번에 발급 (정책별 결과)
+    @PostMapping("/issue/batch")
+    public ResponseEntity<CouponDto.BatchIssueResponse> issueCoupons(@RequestBody CouponDto.BatchIssueRequest request) {
+        return ResponseEntity.ok(couponService.issueCoupons(request));
+    }
+
     @PostMapping("/{couponId}/use")
     public ResponseEntity<CouponDto.Response> useCoupon(
             @PathVariable Long couponId,
@@ -30,4 +36,12 @@ public class CouponController {
     public ResponseEntity<CouponDto.Response> cancelCoupon(@PathVariable Long couponId) {
         return ResponseEntity.ok(couponService.cancelCoupon(couponId));
     }
+
+    // 주문 금액에 적용 가능한 쿠폰 (할인 금액 내림차순)
+    @GetMapping("/best")
+    public ResponseEntity<CouponDto.BestCouponResponse> getBestCoupons(
+            @RequestParam long orderAmount,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(couponService.getBestCoupons(orderAmount, limit));
+    }
 }
\ No newline at end of file
@@ -2,21 +2,46 @@ package com.practice.couponservice.controller.v3;
 
 
 import com.practice.couponservice.dto.v3.CouponDto;
+import com.practice.couponservice.config.UserIdInterceptor;
+import com.practice.couponservice.service.v3.CouponIssueResultService;
 import com.practice.couponservice.service.v3.CouponService;
+import com.practice.couponservice.service.v3.CouponWaitingRoom;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController("couponControllerV3")
 @RequiredArgsConstructor
 @RequestMapping("/api/v3/coupons")
 public class CouponController {
     private final CouponService couponService;
+    private final CouponIssueResultService couponIssueResultService;
+    private final CouponWaitingRoom couponWaitingRoom;
+
+    // 대기열 입장, 받은 토큰이 ADMITTED가 되면 /issue 요청에 waitingToken으로 전달
+    @PostMapping("/waiting-room/{couponPolicyId}")
+    public ResponseEntity<CouponDto.WaitingTicket> enterWaitingRoom(@PathVariable Long couponPolicyId) {
+        return ResponseEntity.ok(couponWaitingRoom.enter(couponPolicyId, UserIdInterceptor.getCurrentUserId()));
+    }
+
+    // 대기 순번과 예상 대기 시간 조회
+    @GetMapping("/waiting-room/{couponPolicyId}")
+    public ResponseEntity<CouponDto.WaitingTicket> getWaitingTicket(@PathVariable Long couponPolicyId) {
+        return ResponseEntity.ok(couponWaitingRoom.getTicket(couponPolicyId, UserIdInterceptor.getCurrentUserId()));
+    }
 
     @PostMapping("/issue")
-    public ResponseEntity<Void> issueCoupon(@RequestBody CouponDto.IssueRequest request) {
-        couponService.requestCouponIssue(request);
-        return ResponseEntity.accepted().build();
+    public ResponseEntity<CouponDto.IssueAccepted> issueCoupon(@RequestBody CouponDto.IssueRequest request) {
+        String requestId = couponService.requestCouponIssue(request);
+        return ResponseEntity.accepted().body(new CouponDto.IssueAccepted(requestId));
+    }
+
+    // 발급 결과 구독 (SSE), 처리가 끝나면 issued 또는 failed 이벤트 하나를 받고 종료
+    @GetMapping(value = "/issue/{requestId}/result", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeIssueResult(@PathVariable String requestId) {
+        return couponIssueResultService.subscribe(requestId, UserIdInterceptor.getCurrentUserId());
     }
 
     @PostMapping("/{couponId}/use")
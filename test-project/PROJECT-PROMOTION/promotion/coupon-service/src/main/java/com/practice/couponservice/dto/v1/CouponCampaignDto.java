@@ -0,0 +1,62 @@
+package com.practice.couponservice.dto.v1;
+
+import com.practice.couponservice.entity.CouponIssueJob;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+public class CouponCampaignDto {
+
+    @Getter
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class QueryRequest { // sourcePolicyId 쿠폰을 가진 유저에게 couponPolicyId 쿠폰 발급
+        private Long couponPolicyId;
+        private Long sourcePolicyId;
+    }
+
+    @Getter
+    @Builder
+    public static class Progress {
+        private Long jobId;
+        private Long couponPolicyId;
+        private CouponIssueJob.Source source;
+        private CouponIssueJob.Status status;
+        private Long totalTargets; // QUERY는 null
+        private long processedCount;
+        private long issuedCount;
+        private long skippedCount;
+        private double issuedPerSecond; // 시작부터 마지막 chunk까지의 평균
+        private LocalDateTime startedAt;
+        private LocalDateTime updatedAt;
+        private LocalDateTime finishedAt;
+
+        public static Progress from(CouponIssueJob job) {
+            LocalDateTime updatedAt = job.getFinishedAt() != null ? job.getFinishedAt() : job.getHeartbeatAt();
+            double issuedPerSecond = 0;
+            if (job.getStartedAt() != null && updatedAt != null) {
+                long millis = Math.max(1, Duration.between(job.getStartedAt(), updatedAt).toMillis());
+                issuedPerSecond = job.getIssuedCount() * 1000.0 / millis;
+            }
+            return Progress.builder()
+                    .jobId(job.getId())
+                    .couponPolicyId(job.getCouponPolicyId())
+                    .source(job.getSource())
+                    .status(job.getStatus())
+                    .totalTargets(job.getTotalTargets())
+                    .processedCount(job.getProcessedCount())
+                    .issuedCount(job.getIssuedCount())
+                    .skippedCount(job.getSkippedCount())
+                    .issuedPerSecond(issuedPerSecond)
+                    .startedAt(job.getStartedAt())
+                    .updatedAt(updatedAt)
+                    .finishedAt(job.getFinishedAt())
+                    .build();
+        }
+    }
+}
@@ -7,7 +7,10 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
 
 public class CouponDto {
 
@@ -19,6 +22,29 @@ public class CouponDto {
         private Long couponPolicyId;
     }
 
+    @Getter
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BatchIssueRequest { // 여러 정책 한 번에 발급 요청
+        private List<Long> couponPolicyIds;
+    }
+
+    @Getter
+    @Builder
+    public static class BatchIssueResult {
+        private Long couponPolicyId;
+        private boolean issued;
+        private Response coupon; // 발급 실패면 null
+        private String failureReason; // 발급 성공이면 null
+    }
+
+    @Getter
+    @Builder
+    public static class BatchIssueResponse {
+        private List<BatchIssueResult> results; // 요청한 정책 순서대로 (중복 제거)
+    }
+
     @Getter
     @Builder
     @NoArgsConstructor
@@ -39,6 +65,8 @@ public class CouponDto {
 
     @Getter
     @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
     public static class Response {
         private Long id;
         private Long userId;
@@ -71,4 +99,91 @@ public class CouponDto {
                     .build();
         }
     }
+
+    // 쿠폰함 한 줄 (정책과 join한 DTO projection, 엔티티를 거치지 않음)
+    @Getter
+    @AllArgsConstructor
+    public static class WalletItem {
+        private Long id;
+        private String couponCode;
+        private Coupon.Status status;
+        private CouponPolicy.DiscountType discountType;
+        private int discountValue;
+        private int minimumOrderAmount;
+        private int maximumDiscountAmount;
+        private LocalDateTime validFrom;
+        private LocalDateTime validUntil;
+        private LocalDateTime createdAt;
+    }
+
+    @Getter
+    @Builder
+    public static class WalletResponse {
+        private List<WalletItem> coupons;
+        private String nextCursor; // 다음 페이지가 없으면 null
+    }
+
+    // 주문 금액에 적용 가능한 쿠폰 한 개와 계산된 할인 금액
+    @Getter
+    @Builder
+    public static class BestCoupon {
+        private Long couponId;
+        private String couponCode;
+        private CouponPolicy.DiscountType discountType;
+        private int discountValue;
+        private int minimumOrderAmount;
+        private int maximumDiscountAmount;
+        private LocalDateTime validUntil;
+        private long discountAmount;
+
+        public static BestCoupon of(WalletItem item, long discountAmount) {
+            return BestCoupon.builder()
+                    .couponId(item.getId())
+                    .couponCode(item.getCouponCode())
+                    .discountType(item.getDiscountType())
+                    .discountValue(item.getDiscountValue())
+                    .minimumOrderAmount(item.getMinimumOrderAmount())
+                    .maximumDiscountAmount(item.getMaximumDiscountAmount())
+                    .validUntil(item.getValidUntil())
+                    .discountAmount(discountAmount)
+                    .build();
+        }
+    }
+
+    @Getter
+    @Builder
+    public static class BestCouponResponse {
+        private long orderAmount;
+        private List<BestCoupon> coupons; // 할인 금액 내림차순
+    }
+
+    /**
+     * 쿠폰함 커서 (마지막으로 받은 쿠폰의 createdAt, id)
+     * 클라이언트에는 Base64 문자열로 전달하고 다음 요청에서 그대로 돌려받는다
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class WalletCursor {
+        private LocalDateTime createdAt;
+        private Long id;
+
+        public static WalletCursor from(WalletItem item) {
+            return new WalletCursor(item.getCreatedAt(), item.getId());
+        }
+
+        public String encode() {
+            String raw = createdAt + "," + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static WalletCursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                String[] parts = raw.split(",", 2);
+                return new WalletCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("잘못된 커서입니다.");
+            }
+        }
+    }
 }
@@ -71,7 +71,7 @@ public class CouponPolicyDto {
         private Integer minimumOrderAmount;
         private Integer maximumDiscountAmount;
         private Integer totalQuantity;
-        private Integer issuedQuantity; //
+        private Integer issuedQuantity; // v1 발급 수량 (v2, v3는 Redis에서 관리)
         private LocalDateTime startTime;
         private LocalDateTime endTime;
         private LocalDateTime createdAt;
@@ -88,6 +88,7 @@ public class CouponPolicyDto {
                     .minimumOrderAmount(couponPolicy.getMinimumOrderAmount())
                     .maximumDiscountAmount(couponPolicy.getMaximumDiscountAmount())
                     .totalQuantity(couponPolicy.getTotalQuantity())
+                    .issuedQuantity(couponPolicy.getIssuedQuantity())
                     .startTime(couponPolicy.getStartTime())
                     .endTime(couponPolicy.getEndTime())
                     .createdAt(couponPolicy.getCreatedAt())
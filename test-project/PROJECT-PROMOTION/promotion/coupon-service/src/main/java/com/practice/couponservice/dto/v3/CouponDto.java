@@ -18,6 +18,31 @@ public class CouponDto {
     public static class IssueMessage {
         private Long policyId;
         private Long userId;
+        private String requestId; // 발급 결과 조회용 (CouponIssueResultService)
+    }
+
+    // 발급 요청 접수 응답, requestId로 결과를 구독한다
+    @Getter
+    @AllArgsConstructor
+    public static class IssueAccepted {
+        private String requestId;
+    }
+
+    @Getter
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class IssueResult {
+        private String requestId;
+        private Long userId;
+        private Status status;
+        private Long couponId; // ISSUED
+        private String reason; // FAILED
+
+        public enum Status {
+            ISSUED,
+            FAILED,
+        }
     }
 
     @Getter
@@ -26,6 +51,26 @@ public class CouponDto {
     @AllArgsConstructor
     public static class IssueRequest {
         private Long couponPolicyId;
+        private String waitingToken; // 대기열 입장 허가 토큰 (coupon.waiting-room.enabled)
+    }
+
+    // 대기열 토큰과 순번, position이 0이면 입장 허가 상태 (WAITING: 1부터)
+    @Getter
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class WaitingTicket {
+        private Long couponPolicyId;
+        private String token;
+        private Status status;
+        private long position;
+        private long etaSeconds; // admit-rate-per-second 기준 예상 대기 시간
+
+        public enum Status {
+            WAITING,
+            ADMITTED,
+            NONE, // 대기열에 없음 (허가를 사용했거나 만료)
+        }
     }
 
     @Getter
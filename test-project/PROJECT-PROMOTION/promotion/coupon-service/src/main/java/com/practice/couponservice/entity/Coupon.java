@@ -11,12 +11,25 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        // 쿠폰함 keyset 페이지네이션 (user_id, status로 거르고 created_at, id 역순으로 이어서 조회)
+        @Index(name = "idx_coupon_user_status_created", columnList = "user_id, status, created_at, id"),
+        // 정책별 만료 처리 (coupon_policy_id, status로 AVAILABLE 쿠폰만 조회)
+        @Index(name = "idx_coupon_policy_status", columnList = "coupon_policy_id, status"),
+        // 정책별 발급 유저 조회 (대량 발급의 중복 체크, 대상 조회)
+        @Index(name = "idx_coupon_policy_user", columnList = "coupon_policy_id, user_id")
+}, uniqueConstraints = {
+        // v3 발급 요청 ID, outbox가 같은 요청을 다시 전달해도 쿠폰이 한 번만 만들어지도록 (v1/v2/대량 발급은 null)
+        @UniqueConstraint(name = "uk_coupon_request_id", columnNames = "request_id")
+})
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Coupon {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // pooled 시퀀스: 50개 단위로 ID를 미리 할당받아 insert를 JDBC 배치로 묶을 수 있음 (IDENTITY는 배치 불가)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "coupon_seq")
+    @SequenceGenerator(name = "coupon_seq", sequenceName = "coupon_seq", allocationSize = 50)
     private Long id;
 
     private Long userId;
@@ -25,10 +38,15 @@ public class Coupon {
     @Enumerated(EnumType.STRING)
     private Status status;
 
+    private String requestId; // nullable, v3 발급 요청 ID
     private Long orderId; // nullable
     private LocalDateTime usedAt; // nullable
     private LocalDateTime createdAt;
 
+    // 상태가 바뀔 때마다 1 증가 (use/cancel/updateStatus UPDATE와 엔티티 메서드), 상태 캐시가 이전 상태로 덮어쓰지 않도록 비교하는 용도
+    @Column(nullable = false)
+    private long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "coupon_policy_id")
     private CouponPolicy couponPolicy;
@@ -41,16 +59,36 @@ public class Coupon {
     }
 
     @Builder
-    public Coupon(Long id, CouponPolicy couponPolicy, Long userId, String couponCode){
+    public Coupon(Long id, CouponPolicy couponPolicy, Long userId, String couponCode, String requestId){
         this.id = id;
         this.couponPolicy = couponPolicy;
         this.userId = userId;
         this.couponCode = couponCode;
+        this.requestId = requestId;
         this.status = Status.AVAILABLE;
     }
 
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
     // 쿠폰 사용
     public void use(Long orderId){
+        use(orderId, LocalDateTime.now());
+    }
+
+    public void use(Long orderId, LocalDateTime usedAt){
+        validateUse();
+
+        this.status = Status.USED;
+        this.orderId = orderId;
+        this.usedAt = usedAt;
+        this.version++;
+    }
+
+    // 사용할 수 있는 쿠폰인지 확인 (CouponRepository.use 조건부 UPDATE 전에 호출)
+    public void validateUse(){
         if(status == Status.USED){
             throw new CouponAlreadyUsedException("이미 사용된 쿠폰입니다.");
         }
@@ -58,20 +96,22 @@ public class Coupon {
         if(isExpired()){
             throw new CouponExpiredException("만료된 쿠폰입니다.");
         }
-
-        this.status = Status.USED;
-        this.orderId = orderId;
-        this.usedAt = LocalDateTime.now();
     }
 
     // 쿠폰 취소됨
     public void cancel() {
-        if (status != Status.USED) {
-            throw new IllegalStateException("사용되지 않은 쿠폰입니다.");
-        }
+        validateCancel();
         this.status = Status.CANCELLED;
         this.orderId = null;
         this.usedAt = null;
+        this.version++;
+    }
+
+    // 취소할 수 있는 쿠폰인지 확인 (CouponRepository.cancel 조건부 UPDATE 전에 호출)
+    public void validateCancel() {
+        if (status != Status.USED) {
+            throw new IllegalStateException("사용되지 않은 쿠폰입니다.");
+        }
     }
 
     // 쿠폰 만료됨
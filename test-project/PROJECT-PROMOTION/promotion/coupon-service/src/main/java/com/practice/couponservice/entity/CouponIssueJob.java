@@ -0,0 +1,161 @@
+package com.practice.couponservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 캠페인 대량 발급 작업 (정책 하나를 여러 유저에게 발급)
+ * 대상 유저를 cursor 순서대로 chunk 단위로 처리하고, chunk의 쿠폰 insert와 진행 상황 갱신을 한 트랜잭션으로 커밋한다
+ * 실행 중인 인스턴스가 죽으면 heartbeatAt이 오래된 작업을 다른 인스턴스가 가져가서 cursor 이후부터 이어서 처리
+ * 업로드 중(UPLOADING)에도 heartbeatAt을 갱신하고, 오래된 업로드는 이어갈 수 없으므로 FAILED로 끝낸다
+ * 정책의 발급 시작 시각 전에는 PENDING으로 남아 실행되지 않는다
+ */
+@Entity
+@Table(name = "coupon_issue_jobs", indexes = {
+        @Index(name = "idx_coupon_issue_job_status", columnList = "status, heartbeat_at")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class CouponIssueJob {
+
+    @Id
+    // Coupon과 같은 pooled 시퀀스 (IDENTITY는 persist 시점에 insert가 나가서 쓰기 지연/배치가 안 됨)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "coupon_issue_job_seq")
+    @SequenceGenerator(name = "coupon_issue_job_seq", sequenceName = "coupon_issue_job_seq", allocationSize = 50)
+    private Long id;
+
+    @Version
+    private Long version; // 소유권을 잃은 인스턴스의 chunk 커밋 방지
+
+    @Column(nullable = false)
+    private Long couponPolicyId;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Source source;
+
+    private Long sourcePolicyId; // source=QUERY, 이 정책의 쿠폰을 가진 유저가 대상
+
+    private Long totalTargets; // source=UPLOAD, QUERY는 알 수 없음
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    @Column(name = "target_cursor", nullable = false)
+    private long cursor; // 마지막으로 처리한 대상 (UPLOAD: seq, QUERY: userId)
+
+    private long processedCount; // 처리한 대상 수 (발급 + 건너뜀)
+    private long issuedCount;
+    private long skippedCount; // 이미 쿠폰을 가진 유저, 중복 대상
+    private long reservedQuantity; // Redis에서 가져온 수량 (issuedCount 이상, 남은 수량은 종료 시 반납)
+
+    private String owner; // 실행 중인 인스턴스
+    private LocalDateTime heartbeatAt; // UPLOADING: 마지막 대상 저장, RUNNING: 마지막 chunk
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private LocalDateTime createdAt;
+
+    public enum Source {
+        UPLOAD, // 업로드한 유저 ID 목록
+        QUERY,  // 다른 정책의 쿠폰을 가진 유저
+    }
+
+    public enum Status {
+        UPLOADING, // source=UPLOAD, 대상 저장 중 (끝나야 PENDING이 되어 실행 대상이 됨)
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        SOLD_OUT, // 수량이 소진되어 남은 대상은 발급하지 못함
+        FAILED, // 업로드가 stale-millis 동안 진행되지 않아 중단됨 (저장한 대상은 지움)
+    }
+
+    @Builder
+    public CouponIssueJob(Long couponPolicyId, Source source, Long sourcePolicyId, Long totalTargets) {
+        this.couponPolicyId = couponPolicyId;
+        this.source = source;
+        this.sourcePolicyId = sourcePolicyId;
+        this.totalTargets = totalTargets;
+        this.status = source == Source.UPLOAD ? Status.UPLOADING : Status.PENDING;
+        this.heartbeatAt = source == Source.UPLOAD ? LocalDateTime.now() : null;
+        this.cursor = -1;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    // 업로드가 끝나면 대상 수 기록, 이후부터 실행 대상
+    public void uploaded(long totalTargets) {
+        this.totalTargets = totalTargets;
+        this.status = Status.PENDING;
+    }
+
+    // 아직 발급하지 않은 예약 수량
+    public long availableQuantity() {
+        return reservedQuantity - issuedCount;
+    }
+
+    public boolean isOwnedBy(String instanceId) {
+        return status == Status.RUNNING && instanceId.equals(owner);
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.SOLD_OUT || status == Status.FAILED;
+    }
+
+    // 업로드가 오래 진행되지 않음 (업로드하던 인스턴스가 죽었거나 연결이 끊김)
+    public boolean isStaleUpload(LocalDateTime staleBefore) {
+        LocalDateTime lastUpload = heartbeatAt != null ? heartbeatAt : createdAt; // heartbeat 도입 전에 만든 작업
+        return status == Status.UPLOADING && lastUpload.isBefore(staleBefore);
+    }
+
+    // 업로드 중단, 이후 업로드하던 인스턴스의 uploaded 저장은 @Version으로 실패
+    public void fail() {
+        this.status = Status.FAILED;
+        this.finishedAt = LocalDateTime.now();
+    }
+
+    // 작업 시작 (또는 죽은 인스턴스로부터 인계)
+    public void claim(String instanceId) {
+        LocalDateTime now = LocalDateTime.now();
+        this.status = Status.RUNNING;
+        this.owner = instanceId;
+        this.heartbeatAt = now;
+        if (startedAt == null) {
+            startedAt = now;
+        }
+    }
+
+    public void reserve(long quantity) {
+        this.reservedQuantity += quantity;
+        this.heartbeatAt = LocalDateTime.now();
+    }
+
+    // chunk 처리 결과 반영
+    public void advance(long cursor, long issued, long skipped) {
+        this.cursor = cursor;
+        this.issuedCount += issued;
+        this.skippedCount += skipped;
+        this.processedCount += issued + skipped;
+        this.heartbeatAt = LocalDateTime.now();
+    }
+
+    /**
+     * 작업 종료, 남은 예약 수량을 반환 (호출한 쪽에서 Redis로 반납)
+     */
+    public long finish(Status status) {
+        long leftover = availableQuantity();
+        this.status = status;
+        this.reservedQuantity = issuedCount;
+        this.owner = null;
+        this.finishedAt = LocalDateTime.now();
+        return leftover;
+    }
+}
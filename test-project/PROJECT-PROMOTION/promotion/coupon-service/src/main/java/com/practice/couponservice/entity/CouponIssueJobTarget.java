@@ -0,0 +1,39 @@
+package com.practice.couponservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 업로드한 대량 발급 대상 (source=UPLOAD)
+ * seq는 업로드 순서 (0부터), 작업의 cursor가 가리키는 값
+ * 저장은 CouponCampaignService에서 JdbcTemplate 배치로 한다
+ */
+@Entity
+@Table(name = "coupon_issue_job_targets")
+@IdClass(CouponIssueJobTarget.Key.class)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class CouponIssueJobTarget {
+
+    @Id
+    private Long jobId;
+
+    @Id
+    private Long seq;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Getter
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long jobId;
+        private Long seq;
+    }
+}
@@ -8,7 +8,10 @@ import java.time.LocalDateTime;
 
 
 @Entity
-@Table(name = "coupon-policies")
+@Table(name = "coupon-policies", indexes = {
+        @Index(name = "idx_coupon_policy_end_time", columnList = "end_time"), // 만료 처리 대상 정책 조회
+        @Index(name = "idx_coupon_policy_start_time", columnList = "start_time") // 발급 시작 전 예열 대상 정책 조회
+})
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
@@ -41,6 +44,10 @@ public class CouponPolicy {
     @Column(nullable = false)
     private Integer totalQuantity; // 갯수
 
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer issuedQuantity = 0; // 발급된 갯수 (v1, 조건부 UPDATE로만 증가)
+
     @Column(nullable = false)
     private LocalDateTime startTime;
 
@@ -4,4 +4,8 @@ public class CouponIssueException extends RuntimeException {
     public CouponIssueException(String message) {
         super(message);
     }
+
+    protected CouponIssueException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
@@ -0,0 +1,8 @@
+package com.practice.couponservice.exception;
+
+// 수량 소진, 요청이 몰릴 때 대부분이 이 예외로 끝나므로 stack trace를 만들지 않는다
+public class CouponSoldOutException extends CouponIssueException {
+    public CouponSoldOutException() {
+        super("쿠폰이 모두 소진되었습니다.", false);
+    }
+}
@@ -0,0 +1,25 @@
+package com.practice.couponservice.repository;
+
+import com.practice.couponservice.entity.CouponIssueJob;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface CouponIssueJobRepository extends JpaRepository<CouponIssueJob, Long> {
+
+    // 발급 시작 시각이 지난 정책의 시작 전 작업이거나, 실행 중인데 heartbeat가 끊긴 작업 (idx_coupon_issue_job_status)
+    @Query("SELECT j.id FROM CouponIssueJob j WHERE (j.status = com.practice.couponservice.entity.CouponIssueJob.Status.PENDING " +
+            "AND EXISTS (SELECT p.id FROM CouponPolicy p WHERE p.id = j.couponPolicyId AND p.startTime <= :now)) " +
+            "OR (j.status = com.practice.couponservice.entity.CouponIssueJob.Status.RUNNING AND j.heartbeatAt < :staleBefore) " +
+            "ORDER BY j.id")
+    List<Long> findClaimableIds(@Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore, Limit limit);
+
+    // 업로드 중인데 heartbeat가 끊긴 작업 (heartbeat 도입 전에 만든 작업은 생성 시각 기준)
+    @Query("SELECT j.id FROM CouponIssueJob j WHERE j.status = com.practice.couponservice.entity.CouponIssueJob.Status.UPLOADING " +
+            "AND COALESCE(j.heartbeatAt, j.createdAt) < :staleBefore ORDER BY j.id")
+    List<Long> findStaleUploadIds(@Param("staleBefore") LocalDateTime staleBefore, Limit limit);
+}
@@ -0,0 +1,13 @@
+package com.practice.couponservice.repository;
+
+import com.practice.couponservice.entity.CouponIssueJobTarget;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface CouponIssueJobTargetRepository extends JpaRepository<CouponIssueJobTarget, CouponIssueJobTarget.Key> {
+
+    // cursor(seq) 이후의 대상을 순서대로 (PK: job_id, seq)
+    List<CouponIssueJobTarget> findByJobIdAndSeqGreaterThanOrderBySeq(Long jobId, Long seq, Limit limit);
+}
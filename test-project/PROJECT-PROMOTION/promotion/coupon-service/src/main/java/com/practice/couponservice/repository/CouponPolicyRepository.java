@@ -1,11 +1,16 @@
 package com.practice.couponservice.repository;
 
+import com.practice.couponservice.entity.Coupon;
 import com.practice.couponservice.entity.CouponPolicy;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface CouponPolicyRepository extends JpaRepository<CouponPolicy, Long> {
@@ -14,4 +19,20 @@ public interface CouponPolicyRepository extends JpaRepository<CouponPolicy, Long
     @Query("SELECT cp FROM CouponPolicy cp WHERE cp.id = :id")
     Optional<CouponPolicy> findByIdWithLock(Long id);
 
+    // 남은 수량이 있을 때만 발급 수량 1 증가, 반영된 row 수 반환 (0이면 소진)
+    @Modifying
+    @Query("UPDATE CouponPolicy cp SET cp.issuedQuantity = cp.issuedQuantity + 1 " +
+            "WHERE cp.id = :id AND cp.issuedQuantity < cp.totalQuantity")
+    int increaseIssuedQuantity(@Param("id") Long id);
+
+    // 종료된 정책 중 아직 status 쿠폰이 남아있는 정책 (idx_coupon_policy_end_time, idx_coupon_policy_status)
+    @Query("SELECT cp.id FROM CouponPolicy cp WHERE cp.endTime < :now " +
+            "AND EXISTS (SELECT 1 FROM Coupon c WHERE c.couponPolicy = cp AND c.status = :status) " +
+            "ORDER BY cp.endTime")
+    List<Long> findEndedPolicyIdsWithCouponStatus(@Param("now") LocalDateTime now,
+                                                  @Param("status") Coupon.Status status);
+
+    // 곧 발급이 시작되는 정책 (idx_coupon_policy_start_time)
+    List<CouponPolicy> findByStartTimeBetween(LocalDateTime from, LocalDateTime to);
+
 }
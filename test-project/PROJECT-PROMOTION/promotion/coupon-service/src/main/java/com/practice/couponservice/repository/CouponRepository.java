@@ -1,14 +1,19 @@
 package com.practice.couponservice.repository;
 
+import com.practice.couponservice.dto.v1.CouponDto;
 import com.practice.couponservice.entity.Coupon;
-import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface CouponRepository extends JpaRepository<Coupon, Long> {
@@ -21,7 +26,85 @@ public interface CouponRepository extends JpaRepository<Coupon, Long> {
     // 특정 유저가 최근에 발급받은 쿠폰 리스트 조회
     Page<Coupon> findByUserIdAndStatusOrderByCreatedAtDesc(Long userId, Coupon.Status status, Pageable pageable);
 
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT c FROM Coupon c WHERE c.id = :id")
-    Optional<Coupon> findByIdWithLock(Long id);
+    // 쿠폰함 첫 페이지 (idx_coupon_user_status_created 사용)
+    @Query("""
+            SELECT new com.practice.couponservice.dto.v1.CouponDto$WalletItem(
+                c.id, c.couponCode, c.status, p.discountType, p.discountValue,
+                p.minimumOrderAmount, p.maximumDiscountAmount, p.startTime, p.endTime, c.createdAt)
+            FROM Coupon c JOIN c.couponPolicy p
+            WHERE c.userId = :userId AND c.status = :status
+            ORDER BY c.createdAt DESC, c.id DESC
+            """)
+    List<CouponDto.WalletItem> findWallet(@Param("userId") Long userId,
+                                          @Param("status") Coupon.Status status,
+                                          Limit limit);
+
+    // 쿠폰함 다음 페이지, 커서(createdAt, id) 이후부터 이어서 조회하므로 페이지 깊이와 관계없이 비용이 같다
+    @Query("""
+            SELECT new com.practice.couponservice.dto.v1.CouponDto$WalletItem(
+                c.id, c.couponCode, c.status, p.discountType, p.discountValue,
+                p.minimumOrderAmount, p.maximumDiscountAmount, p.startTime, p.endTime, c.createdAt)
+            FROM Coupon c JOIN c.couponPolicy p
+            WHERE c.userId = :userId AND c.status = :status
+              AND (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id))
+            ORDER BY c.createdAt DESC, c.id DESC
+            """)
+    List<CouponDto.WalletItem> findWalletAfter(@Param("userId") Long userId,
+                                               @Param("status") Coupon.Status status,
+                                               @Param("createdAt") LocalDateTime createdAt,
+                                               @Param("id") Long id,
+                                               Limit limit);
+
+    // 만료 처리 대상 쿠폰 ID를 chunk 단위로 조회 (idx_coupon_policy_status)
+    @Query("SELECT c.id FROM Coupon c WHERE c.couponPolicy.id = :policyId AND c.status = :status")
+    List<Long> findIdsByCouponPolicyIdAndStatus(@Param("policyId") Long policyId,
+                                                @Param("status") Coupon.Status status,
+                                                Limit limit);
+
+    // from 상태인 쿠폰만 to 상태로 변경, 호출마다 별도 트랜잭션으로 커밋
+    @Transactional
+    @Modifying
+    @Query("UPDATE Coupon c SET c.status = :to, c.version = c.version + 1 WHERE c.id IN :ids AND c.status = :from")
+    int updateStatus(@Param("ids") List<Long> ids,
+                     @Param("from") Coupon.Status from,
+                     @Param("to") Coupon.Status to);
+
+    // 이미 이 정책의 쿠폰을 가진 유저 (idx_coupon_policy_user)
+    @Query("SELECT c.userId FROM Coupon c WHERE c.couponPolicy.id = :policyId AND c.userId IN :userIds")
+    List<Long> findUserIdsByCouponPolicyIdAndUserIdIn(@Param("policyId") Long policyId,
+                                                     @Param("userIds") Collection<Long> userIds);
+
+    // 정책의 쿠폰을 가진 유저를 userId 순서로 이어서 조회 (idx_coupon_policy_user)
+    @Query("SELECT DISTINCT c.userId FROM Coupon c WHERE c.couponPolicy.id = :policyId AND c.userId > :afterUserId " +
+            "ORDER BY c.userId")
+    List<Long> findUserIdsByCouponPolicyIdAfter(@Param("policyId") Long policyId,
+                                                @Param("afterUserId") Long afterUserId,
+                                                Limit limit);
+
+    // 이미 처리한 v3 발급 요청의 쿠폰 (uk_coupon_request_id)
+    Optional<Coupon> findByRequestId(String requestId);
+
+    List<Coupon> findByRequestIdIn(Collection<String> requestIds);
+
+    // 락 없이 정책과 함께 조회 (사용/취소 검증과 응답에 정책이 필요, use/cancel 이후 영속성 컨텍스트가 비워져도 접근 가능)
+    @Query("SELECT c FROM Coupon c JOIN FETCH c.couponPolicy WHERE c.id = :id")
+    Optional<Coupon> findByIdWithPolicy(@Param("id") Long id);
+
+    // 조회한 시점의 상태(expected)가 그대로일 때만 사용 처리, 0이면 다른 요청이 먼저 상태를 바꿈
+    // 트랜잭션의 마지막 문장으로 실행해서 행 락은 이 UPDATE부터 커밋까지만 잡는다
+    // 영속성 컨텍스트를 비워서 조회한 엔티티가 커밋 때 다시 UPDATE되지 않게 한다
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Coupon c SET c.status = com.practice.couponservice.entity.Coupon.Status.USED, " +
+            "c.orderId = :orderId, c.usedAt = :usedAt, c.version = c.version + 1 WHERE c.id = :id AND c.status = :expected")
+    int use(@Param("id") Long id,
+            @Param("expected") Coupon.Status expected,
+            @Param("orderId") Long orderId,
+            @Param("usedAt") LocalDateTime usedAt);
+
+    // 사용된 쿠폰만 취소 처리 (use와 같은 방식)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Coupon c SET c.status = com.practice.couponservice.entity.Coupon.Status.CANCELLED, " +
+            "c.orderId = null, c.usedAt = null, c.version = c.version + 1 " +
+            "WHERE c.id = :id AND c.status = com.practice.couponservice.entity.Coupon.Status.USED")
+    int cancel(@Param("id") Long id);
 }
@@ -0,0 +1,88 @@
+package com.practice.couponservice.service;
+
+/**
+ * 쿠폰 정책 단위 Redis 키
+ * policyId를 hash tag({})로 감싸서 한 정책의 키가 Redis Cluster에서 같은 slot(같은 shard)에 저장되게 한다
+ * (Lua 스크립트처럼 여러 키를 한 번에 다루는 명령은 모든 키가 같은 slot이어야 함)
+ *
+ * - coupon:{policyId}:quantity, coupon:{policyId}:issued, coupon:{policyId}:policy ...
+ * - 수량을 stripe로 나눈 경우 stripe마다 hash tag를 달리해서({policyId:stripe}) 여러 shard로 분산한다
+ *   stripe 하나의 수량 키와 발급 유저 set은 같은 slot에 있으므로 발급 스크립트는 그대로 동작
+ */
+public final class CouponRedisKeys {
+
+    private CouponRedisKeys() {
+    }
+
+    public static String quantity(Long policyId) {
+        return policyKey(policyId, "quantity");
+    }
+
+    public static String quantity(Long policyId, int stripe) {
+        return stripeKey(policyId, stripe, "quantity");
+    }
+
+    public static String issuedUsers(Long policyId) {
+        return policyKey(policyId, "issued");
+    }
+
+    public static String issuedUsers(Long policyId, int stripe) {
+        return stripeKey(policyId, stripe, "issued");
+    }
+
+    public static String issuedUserBits(Long policyId) {
+        return policyKey(policyId, "issued-bits");
+    }
+
+    public static String issuedUserBits(Long policyId, int stripe) {
+        return stripeKey(policyId, stripe, "issued-bits");
+    }
+
+    public static String stripes(Long policyId) {
+        return policyKey(policyId, "stripes");
+    }
+
+    public static String lock(Long policyId) {
+        return policyKey(policyId, "lock");
+    }
+
+    public static String policy(Long policyId) {
+        return policyKey(policyId, "policy");
+    }
+
+    public static String lease(Long policyId) {
+        return policyKey(policyId, "lease");
+    }
+
+    public static String soldOut(Long policyId) {
+        return policyKey(policyId, "sold-out");
+    }
+
+    public static String waitingQueue(Long policyId) {
+        return policyKey(policyId, "queue");
+    }
+
+    public static String waitingTokens(Long policyId) {
+        return policyKey(policyId, "waiting-tokens");
+    }
+
+    public static String waitingSequence(Long policyId) {
+        return policyKey(policyId, "queue-seq");
+    }
+
+    public static String admitted(Long policyId) {
+        return policyKey(policyId, "admitted");
+    }
+
+    public static String lastAdmittedAt(Long policyId) {
+        return policyKey(policyId, "admitted-at");
+    }
+
+    private static String policyKey(Long policyId, String name) {
+        return "coupon:{" + policyId + "}:" + name;
+    }
+
+    private static String stripeKey(Long policyId, int stripe, String name) {
+        return "coupon:{" + policyId + ":" + stripe + "}:" + name;
+    }
+}
@@ -9,13 +9,16 @@ import com.practice.couponservice.exception.CouponIssueException;
 import com.practice.couponservice.exception.CouponNotFoundException;
 import com.practice.couponservice.repository.CouponPolicyRepository;
 import com.practice.couponservice.repository.CouponRepository;
+import com.practice.couponservice.service.v2.CouponWalletIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -37,21 +40,24 @@ import java.util.UUID;
  * 분산 환경에서 여러 서버가 동시에 쿠폰을 발급할 경우
  * DB 레벨의 락만으로는 정확한 수량 제어가 어려움
  *
+ * -> 1, 2는 issuedQuantity 조건부 UPDATE로 개선 (락 조회와 COUNT 쿼리 없이 UPDATE 한 번으로 수량 확보)
  */
 @Service
 @RequiredArgsConstructor
 public class CouponService {
 
+    private static final int MAX_WALLET_SIZE = 100;
 
     private final CouponRepository couponRepository;
     private final CouponPolicyRepository couponPolicyRepository;
+    private final CouponWalletIndex couponWalletIndex; // v2 최적 쿠폰 인덱스
 
 
     @Transactional
     @CouponMetered(version = "v1")
     public Coupon issueCoupon(CouponDto.IssueRequest request) {
 
-        CouponPolicy couponPolicy = couponPolicyRepository.findByIdWithLock(request.getCouponPolicyId())
+        CouponPolicy couponPolicy = couponPolicyRepository.findById(request.getCouponPolicyId())
                 .orElseThrow(() -> new CouponIssueException("쿠폰 정책을 찾을 수 없습니다."));
 
         // 현재 쿠폰 발급 일자에 해당하는지 체크
@@ -60,9 +66,8 @@ public class CouponService {
             throw new CouponIssueException("쿠폰 발급 기간이 아닙니다.");
         }
 
-        // 갯수가 소진됐는지 체크
-        long issuedCouponCount = couponRepository.countByCouponPolicyId(couponPolicy.getId());
-        if(issuedCouponCount >= couponPolicy.getTotalQuantity()){
+        // 남은 수량이 있을 때만 issuedQuantity 증가 (issuedQuantity < totalQuantity 조건은 DB가 원자적으로 체크)
+        if(couponPolicyRepository.increaseIssuedQuantity(couponPolicy.getId()) == 0){
             throw new CouponIssueException("쿠폰이 모두 소진되었습니다.");
         }
 
@@ -72,6 +77,7 @@ public class CouponService {
                 .couponCode(generateCouponCode())
                 .build();
 
+        couponWalletIndex.invalidate(coupon.getUserId());
         return couponRepository.save(coupon);
     }
 
@@ -84,6 +90,7 @@ public class CouponService {
                 .orElseThrow(() -> new CouponNotFoundException("쿠폰을 찾을 수 없거나 접근 권한이 없습니다."));
 
         coupon.use(orderId);
+        couponWalletIndex.invalidate(currentUserId);
         return coupon;
     }
 
@@ -95,9 +102,41 @@ public class CouponService {
                 .orElseThrow(() -> new CouponNotFoundException("쿠폰을 찾을 수 없거나 접근 권한이 없습니다."));
 
         coupon.cancel();
+        couponWalletIndex.invalidate(currentUserId);
         return coupon;
     }
 
+    /**
+     * 쿠폰함 조회 (keyset 페이지네이션)
+     * 한 건 더 조회해서 다음 페이지가 있을 때만 nextCursor를 내려준다
+     * @param status 쿠폰 상태, 없으면 AVAILABLE
+     * @param cursor 이전 응답의 nextCursor, 첫 페이지면 null
+     * @param size 페이지 크기 (최대 MAX_WALLET_SIZE)
+     */
+    @Transactional(readOnly = true)
+    public CouponDto.WalletResponse getWallet(Coupon.Status status, String cursor, Integer size) {
+        Long currentUserId = UserIdInterceptor.getCurrentUserId();
+        Coupon.Status walletStatus = status != null ? status : Coupon.Status.AVAILABLE;
+        int pageSize = Math.min(size != null && size > 0 ? size : 10, MAX_WALLET_SIZE);
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<CouponDto.WalletItem> items;
+        if (cursor == null) {
+            items = couponRepository.findWallet(currentUserId, walletStatus, limit);
+        } else {
+            CouponDto.WalletCursor walletCursor = CouponDto.WalletCursor.decode(cursor);
+            items = couponRepository.findWalletAfter(currentUserId, walletStatus,
+                    walletCursor.getCreatedAt(), walletCursor.getId(), limit);
+        }
+
+        boolean hasNext = items.size() > pageSize;
+        List<CouponDto.WalletItem> page = hasNext ? items.subList(0, pageSize) : items;
+        return CouponDto.WalletResponse.builder()
+                .coupons(page)
+                .nextCursor(hasNext ? CouponDto.WalletCursor.from(page.get(pageSize - 1)).encode() : null)
+                .build();
+    }
+
     @Transactional(readOnly = true)
     public Page<Coupon> getCoupons(CouponDto.ListRequest request){
         Long currentUserId = UserIdInterceptor.getCurrentUserId();
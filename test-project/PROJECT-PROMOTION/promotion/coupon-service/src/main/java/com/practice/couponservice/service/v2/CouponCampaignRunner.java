@@ -0,0 +1,185 @@
+package com.practice.couponservice.service.v2;
+
+import com.practice.couponservice.entity.CouponIssueJob;
+import com.practice.couponservice.repository.CouponIssueJobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 캠페인 대량 발급 작업 실행 (인스턴스당 한 번에 작업 하나)
+ *
+ * - poll-interval-millis마다 시작 전이거나 heartbeat가 stale-millis 동안 끊긴 작업을 가져와서 전용 스레드에서 실행
+ *   (시작 전 작업은 정책의 발급 시작 시각이 지난 것만, heartbeat가 끊긴 업로드 중 작업은 FAILED로 끝냄)
+ * - 수량은 coupon:{policyId}:quantity에서 block-size 단위로 가져와(lease) 작업에 기록해 두고 chunk마다 차감
+ *   (lease 직후 기록 전에 죽으면 최대 block-size만큼 덜 발급될 수 있지만 초과 발급은 없음)
+ * - 발급 기록(CouponQuantityService) 추가와 일반 발급 API로 이미 받은 유저 제외는 chunk 안에서 처리 (CouponCampaignService.processChunk)
+ * - 끝나면 남은 예약 수량은 Redis로 반납
+ * - 처리량은 coupon.campaign.issued(counter), chunk 처리 시간은 coupon.campaign.chunk.duration(timer)
+ *   (유저별 최적 쿠폰 인덱스는 대상이 많아 무효화하지 않고 TTL로 반영)
+ */
+@Slf4j
+@Component
+public class CouponCampaignRunner {
+
+    private final CouponCampaignService couponCampaignService;
+    private final CouponIssueJobRepository couponIssueJobRepository;
+    private final CouponQuantityService couponQuantityService;
+    private final Counter issuedCounter;
+    private final Timer chunkTimer;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean stopping;
+
+    @Value("${coupon.campaign.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${coupon.campaign.block-size:10000}")
+    private long blockSize;
+
+    @Value("${coupon.campaign.stale-millis:60000}")
+    private long staleMillis;
+
+    public CouponCampaignRunner(CouponCampaignService couponCampaignService,
+                                CouponIssueJobRepository couponIssueJobRepository,
+                                CouponQuantityService couponQuantityService,
+                                MeterRegistry registry) {
+        this.couponCampaignService = couponCampaignService;
+        this.couponIssueJobRepository = couponIssueJobRepository;
+        this.couponQuantityService = couponQuantityService;
+        this.issuedCounter = Counter.builder("coupon.campaign.issued")
+                .description("대량 발급 작업으로 발급된 쿠폰 수")
+                .register(registry);
+        this.chunkTimer = Timer.builder("coupon.campaign.chunk.duration")
+                .description("대량 발급 chunk 하나의 처리 시간")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${coupon.campaign.poll-interval-millis:5000}")
+    public void poll() {
+        if (stopping || !running.compareAndSet(false, true)) {
+            return; // 이 인스턴스에서 이미 실행 중
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime staleBefore = now.minus(Duration.ofMillis(staleMillis));
+            failStaleUploads(staleBefore);
+
+            CouponIssueJob job = null;
+            for (Long jobId : couponIssueJobRepository.findClaimableIds(now, staleBefore, Limit.of(10))) {
+                job = tryClaim(jobId, staleBefore);
+                if (job != null) {
+                    break;
+                }
+            }
+            if (job == null) {
+                running.set(false);
+                return;
+            }
+
+            CouponIssueJob claimed = job;
+            executor.execute(() -> {
+                try {
+                    run(claimed);
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopping = true; // 진행 중인 chunk까지만 처리, 남은 작업은 stale-millis 이후 다른 인스턴스가 이어서 처리
+        executor.shutdown();
+    }
+
+    private void failStaleUploads(LocalDateTime staleBefore) {
+        try {
+            couponCampaignService.failStaleUploads(staleBefore);
+        } catch (OptimisticLockingFailureException e) {
+            // 그 사이 업로드가 끝났거나 다른 인스턴스가 먼저 처리함, 다음 poll에서 다시 확인
+        }
+    }
+
+    private CouponIssueJob tryClaim(Long jobId, LocalDateTime staleBefore) {
+        try {
+            return couponCampaignService.claim(jobId, instanceId, staleBefore);
+        } catch (OptimisticLockingFailureException e) {
+            return null; // 다른 인스턴스가 먼저 가져감
+        }
+    }
+
+    void run(CouponIssueJob job) {
+        Long jobId = job.getId();
+        Long policyId = job.getCouponPolicyId();
+        log.info("Coupon issue job started: jobId={}, policyId={}, cursor={}", jobId, policyId, job.getCursor());
+
+        boolean soldOut = false;
+        try {
+            while (!stopping) {
+                // 다음 chunk를 처리할 만큼 예약 수량 확보
+                if (job.availableQuantity() < chunkSize && !soldOut) {
+                    long leased = couponQuantityService.lease(policyId, Math.max(blockSize, chunkSize - job.availableQuantity()));
+                    if (leased > 0) {
+                        job = reserve(jobId, policyId, leased);
+                    } else {
+                        soldOut = true;
+                    }
+                }
+
+                CouponCampaignService.ChunkResult result = chunkTimer.record(() ->
+                        couponCampaignService.processChunk(jobId, instanceId));
+                job = result.getJob();
+                issuedCounter.increment(result.getIssuedUserIds().size());
+
+                if (result.isDone()) {
+                    finish(jobId, policyId, CouponIssueJob.Status.COMPLETED);
+                    return;
+                }
+                if (result.isQuotaExhausted() && soldOut) {
+                    finish(jobId, policyId, CouponIssueJob.Status.SOLD_OUT);
+                    return;
+                }
+            }
+        } catch (OptimisticLockingFailureException | IllegalStateException e) {
+            log.warn("Coupon issue job taken over by another instance: jobId={}, error={}", jobId, e.getMessage());
+        } catch (RuntimeException e) {
+            // RUNNING으로 남겨두면 stale-millis 이후 이어서 처리됨
+            log.error("Coupon issue job failed: jobId={}, error={}", jobId, e.getMessage(), e);
+        }
+    }
+
+    private CouponIssueJob reserve(Long jobId, Long policyId, long leased) {
+        try {
+            return couponCampaignService.reserve(jobId, instanceId, leased);
+        } catch (RuntimeException e) {
+            couponQuantityService.giveBack(policyId, leased);
+            throw e;
+        }
+    }
+
+    private void finish(Long jobId, Long policyId, CouponIssueJob.Status status) {
+        long leftover = couponCampaignService.finish(jobId, instanceId, status);
+        couponQuantityService.giveBack(policyId, leftover);
+    }
+}
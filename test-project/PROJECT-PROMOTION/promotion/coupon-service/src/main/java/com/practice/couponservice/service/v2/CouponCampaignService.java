@@ -0,0 +1,351 @@
+package com.practice.couponservice.service.v2;
+
+import com.practice.couponservice.dto.v1.CouponCampaignDto;
+import com.practice.couponservice.entity.Coupon;
+import com.practice.couponservice.entity.CouponIssueJob;
+import com.practice.couponservice.entity.CouponIssueJobTarget;
+import com.practice.couponservice.entity.CouponPolicy;
+import com.practice.couponservice.repository.CouponIssueJobRepository;
+import com.practice.couponservice.repository.CouponIssueJobTargetRepository;
+import com.practice.couponservice.repository.CouponPolicyRepository;
+import com.practice.couponservice.repository.CouponRepository;
+import jakarta.persistence.EntityManager;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * 캠페인 대량 발급 작업의 생성/조회와 트랜잭션 단위 처리 (실행은 CouponCampaignRunner)
+ *
+ * - 업로드한 유저 ID는 coupon_issue_job_targets에 JdbcTemplate 배치로 저장 (파일 전체를 메모리에 올리지 않음)
+ *   배치마다 따로 커밋해서 큰 파일도 트랜잭션 하나가 길게 열려있지 않고, 작업은 업로드가 끝날 때까지 UPLOADING이라 실행되지 않는다
+ *   배치마다 heartbeat를 갱신하고, 업로드하던 인스턴스가 죽어 heartbeat가 끊긴 작업은 failStaleUploads에서 FAILED로 끝낸다
+ * - 정책의 발급 시작 시각 전에는 작업을 가져가지 않는다 (시작 시각이 지나면 실행)
+ * - chunk 하나의 쿠폰 insert와 작업의 cursor/발급 수 갱신은 한 트랜잭션으로 커밋되므로,
+ *   중간에 죽어도 cursor 이후부터 이어서 처리하면 같은 대상에게 두 번 발급되지 않는다
+ * - 추가로 이미 이 정책의 쿠폰을 가진 유저는 건너뛴다 (일반 발급으로 받은 유저, 목록의 중복)
+ *   DB에 아직 없어도 Redis 발급 기록이 있는 유저(일반 발급 API로 받아 저장 중인 유저)는 insert 전에 markIssued로 걸러낸다
+ *   chunk가 롤백되면 남긴 발급 기록은 되돌리고, 기록 후 커밋 전에 죽으면 그 유저는 다시 처리할 때 건너뛰므로 덜 발급될 수 있지만 중복 발급은 없다
+ * - 작업 엔티티의 @Version과 owner 체크로 소유권을 잃은 인스턴스의 chunk는 롤백된다
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CouponCampaignService {
+
+    private static final String INSERT_TARGET_SQL = "INSERT INTO coupon_issue_job_targets (job_id, seq, user_id) VALUES (?, ?, ?)";
+    private static final String DELETE_TARGETS_SQL = "DELETE FROM coupon_issue_job_targets WHERE job_id = ?";
+    private static final String UPLOAD_HEARTBEAT_SQL = "UPDATE coupon_issue_jobs SET heartbeat_at = ? WHERE id = ? AND status = 'UPLOADING'";
+    private static final int UPLOAD_BATCH_SIZE = 5000;
+
+    private final CouponIssueJobRepository couponIssueJobRepository;
+    private final CouponIssueJobTargetRepository couponIssueJobTargetRepository;
+    private final CouponRepository couponRepository;
+    private final CouponPolicyRepository couponPolicyRepository;
+    private final CouponQuantityService couponQuantityService;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @Value("${coupon.campaign.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * 업로드한 유저 ID 목록(한 줄에 하나)으로 작업 생성
+     * 트랜잭션 없이 작업 생성, UPLOAD_BATCH_SIZE개 단위 대상 저장(heartbeat 갱신 포함), 업로드 완료를 각각 커밋한다
+     * 중간에 실패하면 저장한 대상과 작업을 지운다
+     * heartbeat가 끊겨 이미 FAILED로 끝난 작업이면 IllegalStateException
+     * @param couponPolicyId 발급할 쿠폰 정책 ID
+     * @param userIds 유저 ID 목록 스트림
+     */
+    public CouponIssueJob createUploadJob(Long couponPolicyId, InputStream userIds) throws IOException {
+        validatePolicy(couponPolicyId);
+        CouponIssueJob job = couponIssueJobRepository.saveAndFlush(CouponIssueJob.builder()
+                .couponPolicyId(couponPolicyId)
+                .source(CouponIssueJob.Source.UPLOAD)
+                .build());
+
+        long seq = 0;
+        try {
+            List<Object[]> batch = new ArrayList<>(UPLOAD_BATCH_SIZE);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(userIds, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    batch.add(new Object[]{job.getId(), seq++, parseUserId(line)});
+                    if (batch.size() == UPLOAD_BATCH_SIZE) {
+                        saveTargets(job.getId(), batch);
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                saveTargets(job.getId(), batch);
+            }
+        } catch (IOException | RuntimeException e) {
+            jdbcTemplate.update(DELETE_TARGETS_SQL, job.getId());
+            couponIssueJobRepository.deleteById(job.getId());
+            throw e;
+        }
+
+        job.uploaded(seq);
+        try {
+            job = couponIssueJobRepository.save(job);
+        } catch (OptimisticLockingFailureException e) {
+            throw uploadFailed(); // 마지막 배치 이후 failStaleUploads에서 FAILED로 끝남
+        }
+        log.info("Coupon issue job created: jobId={}, policyId={}, targets={}", job.getId(), couponPolicyId, seq);
+        return job;
+    }
+
+    /**
+     * 다른 정책의 쿠폰을 가진 유저를 대상으로 작업 생성
+     */
+    @Transactional
+    public CouponIssueJob createQueryJob(CouponCampaignDto.QueryRequest request) {
+        validatePolicy(request.getCouponPolicyId());
+        if (!couponPolicyRepository.existsById(request.getSourcePolicyId())) {
+            throw new IllegalArgumentException("대상 쿠폰 정책을 찾을 수 없습니다.");
+        }
+        return couponIssueJobRepository.save(CouponIssueJob.builder()
+                .couponPolicyId(request.getCouponPolicyId())
+                .source(CouponIssueJob.Source.QUERY)
+                .sourcePolicyId(request.getSourcePolicyId())
+                .build());
+    }
+
+    /**
+     * heartbeat가 staleBefore 이전인 업로드 작업을 FAILED로 끝내고 저장한 대상을 지움 (업로드 스트림은 이어서 받을 수 없음)
+     * @return FAILED로 끝낸 작업 수
+     */
+    @Transactional
+    public int failStaleUploads(LocalDateTime staleBefore) {
+        int failed = 0;
+        for (Long jobId : couponIssueJobRepository.findStaleUploadIds(staleBefore, Limit.of(10))) {
+            CouponIssueJob job = findJob(jobId);
+            if (!job.isStaleUpload(staleBefore)) {
+                continue;
+            }
+            job.fail();
+            jdbcTemplate.update(DELETE_TARGETS_SQL, jobId);
+            failed++;
+            log.warn("Coupon issue job upload timed out: jobId={}, policyId={}", jobId, job.getCouponPolicyId());
+        }
+        return failed;
+    }
+
+    @Transactional(readOnly = true)
+    public CouponCampaignDto.Progress getProgress(Long jobId) {
+        return CouponCampaignDto.Progress.from(findJob(jobId));
+    }
+
+    /**
+     * 작업을 가져옴 (정책의 발급 시작 시각이 지난 시작 전 작업이거나 heartbeat가 staleBefore 이전인 경우만)
+     * @return 가져온 작업, 발급 시작 전이거나 다른 인스턴스가 실행 중이거나 끝난 작업이면 null
+     */
+    @Transactional
+    public CouponIssueJob claim(Long jobId, String instanceId, LocalDateTime staleBefore) {
+        CouponIssueJob job = findJob(jobId);
+        boolean claimable = (job.getStatus() == CouponIssueJob.Status.PENDING && isStarted(job))
+                || (job.getStatus() == CouponIssueJob.Status.RUNNING && job.getHeartbeatAt().isBefore(staleBefore));
+        if (!claimable) {
+            return null;
+        }
+        job.claim(instanceId);
+        return job;
+    }
+
+    // Redis에서 가져온 수량을 작업에 기록
+    @Transactional
+    public CouponIssueJob reserve(Long jobId, String instanceId, long quantity) {
+        CouponIssueJob job = findOwnedJob(jobId, instanceId);
+        job.reserve(quantity);
+        return job;
+    }
+
+    /**
+     * cursor 이후의 대상 chunk-size개를 처리 (예약 수량만큼만 발급)
+     * 발급할 유저를 먼저 Redis 발급 기록에 남기고(이미 기록이 있는 유저는 건너뜀), 쿠폰 insert는 chunk 전체를 JDBC 배치 하나로 전송한다
+     */
+    @Transactional
+    public ChunkResult processChunk(Long jobId, String instanceId) {
+        CouponIssueJob job = findOwnedJob(jobId, instanceId);
+        List<long[]> targets = nextTargets(job); // {cursor, userId}
+        if (targets.isEmpty()) {
+            return new ChunkResult(job, List.of(), 0, false, true);
+        }
+
+        Set<Long> existing = new HashSet<>(couponRepository.findUserIdsByCouponPolicyIdAndUserIdIn(
+                job.getCouponPolicyId(), targets.stream().map(target -> target[1]).distinct().toList()));
+        CouponPolicy couponPolicy = couponPolicyRepository.getReferenceById(job.getCouponPolicyId());
+
+        long available = job.availableQuantity();
+        long cursor = job.getCursor();
+        long skipped = 0;
+        boolean quotaExhausted = false;
+        List<Long> userIds = new ArrayList<>();
+        for (long[] target : targets) {
+            Long userId = target[1];
+            if (existing.contains(userId)) {
+                skipped++;
+            } else if (userIds.size() < available) {
+                existing.add(userId); // 목록 안의 중복
+                userIds.add(userId);
+            } else {
+                quotaExhausted = true;
+                break;
+            }
+            cursor = target[0];
+        }
+
+        // 일반 발급 API로 이미 받은 유저는 건너뜀 (건너뛴 대상으로 집계)
+        Set<Long> alreadyIssued = couponQuantityService.markIssued(couponPolicy, userIds);
+        List<Coupon> coupons = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            if (alreadyIssued.contains(userId)) {
+                skipped++;
+                continue;
+            }
+            coupons.add(Coupon.builder()
+                    .couponPolicy(couponPolicy)
+                    .userId(userId)
+                    .couponCode(generateCouponCode())
+                    .build());
+        }
+        List<Long> issuedUserIds = coupons.stream().map(Coupon::getUserId).toList();
+        forgetIssuedOnRollback(couponPolicy.getId(), issuedUserIds);
+
+        entityManager.unwrap(Session.class).setJdbcBatchSize(Math.max(1, coupons.size()));
+        couponRepository.saveAll(coupons);
+        job.advance(cursor, coupons.size(), skipped);
+
+        return new ChunkResult(job, issuedUserIds, skipped, quotaExhausted, false);
+    }
+
+    /**
+     * 작업 종료
+     * @return 남은 예약 수량 (호출한 쪽에서 커밋 이후 Redis로 반납)
+     */
+    @Transactional
+    public long finish(Long jobId, String instanceId, CouponIssueJob.Status status) {
+        CouponIssueJob job = findOwnedJob(jobId, instanceId);
+        long leftover = job.finish(status);
+        log.info("Coupon issue job finished: jobId={}, status={}, issued={}, skipped={}",
+                jobId, status, job.getIssuedCount(), job.getSkippedCount());
+        return leftover;
+    }
+
+    // chunk가 커밋되지 않으면 processChunk에서 남긴 발급 기록을 되돌림
+    private void forgetIssuedOnRollback(Long policyId, List<Long> userIds) {
+        if (userIds.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    return;
+                }
+                try {
+                    userIds.forEach(userId -> couponQuantityService.forgetIssued(policyId, userId));
+                } catch (RuntimeException e) {
+                    log.error("Failed to forget campaign users after rollback: policyId={}, count={}, error={}",
+                            policyId, userIds.size(), e.getMessage());
+                }
+            }
+        });
+    }
+
+    private void saveTargets(Long jobId, List<Object[]> batch) {
+        jdbcTemplate.batchUpdate(INSERT_TARGET_SQL, batch);
+        if (jdbcTemplate.update(UPLOAD_HEARTBEAT_SQL, LocalDateTime.now(), jobId) == 0) {
+            throw uploadFailed();
+        }
+    }
+
+    private IllegalStateException uploadFailed() {
+        return new IllegalStateException("업로드가 오래 진행되지 않아 대량 발급 작업이 실패 처리되었습니다.");
+    }
+
+    private boolean isStarted(CouponIssueJob job) {
+        return couponPolicyRepository.findById(job.getCouponPolicyId())
+                .map(couponPolicy -> !LocalDateTime.now().isBefore(couponPolicy.getStartTime()))
+                .orElse(false);
+    }
+
+    private List<long[]> nextTargets(CouponIssueJob job) {
+        if (job.getSource() == CouponIssueJob.Source.UPLOAD) {
+            return couponIssueJobTargetRepository
+                    .findByJobIdAndSeqGreaterThanOrderBySeq(job.getId(), job.getCursor(), Limit.of(chunkSize)).stream()
+                    .map(target -> new long[]{target.getSeq(), target.getUserId()})
+                    .toList();
+        }
+        return couponRepository
+                .findUserIdsByCouponPolicyIdAfter(job.getSourcePolicyId(), job.getCursor(), Limit.of(chunkSize)).stream()
+                .map(userId -> new long[]{userId, userId})
+                .toList();
+    }
+
+    private void validatePolicy(Long couponPolicyId) {
+        CouponPolicy couponPolicy = couponPolicyRepository.findById(couponPolicyId)
+                .orElseThrow(() -> new IllegalArgumentException("쿠폰 정책을 찾을 수 없습니다."));
+        if (LocalDateTime.now().isAfter(couponPolicy.getEndTime())) {
+            throw new IllegalStateException("쿠폰 발급 기간이 아닙니다.");
+        }
+    }
+
+    private Long parseUserId(String line) {
+        try {
+            return Long.parseLong(line);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("잘못된 유저 ID입니다: " + line);
+        }
+    }
+
+    private CouponIssueJob findJob(Long jobId) {
+        return couponIssueJobRepository.findById(jobId)
+                .orElseThrow(() -> new IllegalArgumentException("대량 발급 작업을 찾을 수 없습니다."));
+    }
+
+    private CouponIssueJob findOwnedJob(Long jobId, String instanceId) {
+        CouponIssueJob job = findJob(jobId);
+        if (!job.isOwnedBy(instanceId)) {
+            throw new IllegalStateException("대량 발급 작업의 소유권을 잃었습니다.");
+        }
+        return job;
+    }
+
+    private String generateCouponCode() {
+        return UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ChunkResult {
+        private final CouponIssueJob job; // 커밋된 이후의 작업 상태
+        private final List<Long> issuedUserIds;
+        private final long skipped;
+        private final boolean quotaExhausted; // 예약 수량이 모자라서 chunk를 끝까지 처리하지 못함
+        private final boolean done; // 남은 대상 없음
+    }
+}
@@ -0,0 +1,117 @@
+package com.practice.couponservice.service.v2;
+
+import com.practice.couponservice.entity.Coupon;
+import com.practice.couponservice.repository.CouponPolicyRepository;
+import com.practice.couponservice.repository.CouponRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 종료된 정책의 AVAILABLE 쿠폰을 EXPIRED로 일괄 변경
+ * - coupon:expiry:lock 을 lease-seconds 동안 잡은 인스턴스 하나만 실행 (종료되면 lease 만료 후 다른 인스턴스가 이어감)
+ * - 정책별로 chunk-size 만큼씩 변경하고 chunk마다 커밋, 한 번 실행에 max-chunks-per-run 까지만 처리
+ * - 처리량은 coupon.expiry.expired(counter), chunk 처리 시간은 coupon.expiry.chunk.duration(timer)
+ */
+@Slf4j
+@Component
+public class CouponExpirySweeper {
+
+    private static final String EXPIRY_LOCK_KEY = "coupon:expiry:lock";
+
+    private final CouponRepository couponRepository;
+    private final CouponPolicyRepository couponPolicyRepository;
+    private final CouponStateService couponStateService;
+    private final RedissonClient redissonClient;
+    private final Counter expiredCounter;
+    private final Timer chunkTimer;
+
+    @Value("${coupon.expiry.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${coupon.expiry.max-chunks-per-run:100}")
+    private int maxChunksPerRun;
+
+    @Value("${coupon.expiry.lease-seconds:300}")
+    private long leaseSeconds;
+
+    public CouponExpirySweeper(CouponRepository couponRepository,
+                               CouponPolicyRepository couponPolicyRepository,
+                               CouponStateService couponStateService,
+                               RedissonClient redissonClient,
+                               MeterRegistry registry) {
+        this.couponRepository = couponRepository;
+        this.couponPolicyRepository = couponPolicyRepository;
+        this.couponStateService = couponStateService;
+        this.redissonClient = redissonClient;
+        this.expiredCounter = Counter.builder("coupon.expiry.expired")
+                .description("만료 처리된 쿠폰 수")
+                .register(registry);
+        this.chunkTimer = Timer.builder("coupon.expiry.chunk.duration")
+                .description("만료 처리 chunk 하나의 처리 시간")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${coupon.expiry.interval-millis:60000}")
+    public void sweep() {
+        RLock lock = redissonClient.getLock(EXPIRY_LOCK_KEY);
+        try {
+            if (!lock.tryLock(0, leaseSeconds, TimeUnit.SECONDS)) {
+                return; // 다른 인스턴스가 실행 중
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            int expired = sweepExpiredCoupons(LocalDateTime.now());
+            if (expired > 0) {
+                long elapsed = Math.max(1, System.currentTimeMillis() - started);
+                log.info("Expired coupons: count={}, elapsed={}ms, throughput={}/s", expired, elapsed, expired * 1000L / elapsed);
+            }
+        } catch (Exception e) {
+            log.error("Coupon expiry sweep failed: {}", e.getMessage(), e);
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    int sweepExpiredCoupons(LocalDateTime now) {
+        int chunks = 0;
+        int expired = 0;
+        for (Long policyId : couponPolicyRepository.findEndedPolicyIdsWithCouponStatus(now, Coupon.Status.AVAILABLE)) {
+            while (chunks < maxChunksPerRun) {
+                List<Long> ids = couponRepository.findIdsByCouponPolicyIdAndStatus(
+                        policyId, Coupon.Status.AVAILABLE, Limit.of(chunkSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                int updated = chunkTimer.record(() ->
+                        couponRepository.updateStatus(ids, Coupon.Status.AVAILABLE, Coupon.Status.EXPIRED));
+                couponStateService.evictCouponStates(ids);
+
+                expiredCounter.increment(updated);
+                expired += updated;
+                chunks++;
+            }
+            if (chunks >= maxChunksPerRun) {
+                break; // 남은 쿠폰은 다음 실행에서 처리
+            }
+        }
+        return expired;
+    }
+}
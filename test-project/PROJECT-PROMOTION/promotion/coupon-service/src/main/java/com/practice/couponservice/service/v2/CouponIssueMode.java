@@ -0,0 +1,8 @@
+package com.practice.couponservice.service.v2;
+
+// coupon.issue.mode 설정값
+public enum CouponIssueMode {
+    SCRIPT, // Lua 스크립트 한 번의 호출로 기간/중복/수량 체크 및 차감 (락 없음)
+    LOCK,   // Redisson 분산락 기반 (fallback)
+    LEASE,  // 인스턴스가 수량을 블록 단위로 가져와서 로컬에서 나눠줌 (v3 전용, v2는 SCRIPT로 동작)
+}
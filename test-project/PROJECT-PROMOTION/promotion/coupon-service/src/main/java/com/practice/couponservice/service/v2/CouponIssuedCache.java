@@ -0,0 +1,85 @@
+package com.practice.couponservice.service.v2;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.practice.couponservice.entity.CouponPolicy;
+import com.practice.couponservice.exception.CouponIssueException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 발급 기록이 확인된 (정책, 유저) (인스턴스 로컬, LEASE 모드)
+ * 같은 유저가 다시 요청하면 Redis 발급 기록 스크립트(recordIssued)를 호출하지 않고 바로 거절한다
+ *
+ * - recordIssued가 성공했거나 이미 발급됨으로 거절한 유저만 기록 (처음 요청은 항상 Redis에서 확인하므로 중복 발급은 생기지 않음)
+ * - forgetIssued로 발급 기록을 되돌리면 이 인스턴스의 값도 지운다
+ * - 다른 인스턴스가 발급 기록을 되돌린 경우는 ttl-seconds 후 만료되면 다시 Redis에서 확인
+ * - 크기는 max-size로 제한 (넘으면 오래된 것부터 빠지고 그 유저는 다시 Redis에서 확인)
+ * - 거절 수는 coupon.issued.rejected (source=local: 로컬에서 거절, remote: Redis에서 확인)
+ */
+@Component
+public class CouponIssuedCache {
+
+    private final Cache<IssuedUser, Boolean> issued;
+    private final CouponQuantityService couponQuantityService;
+    private final Counter localRejected;
+    private final Counter remoteRejected;
+
+    public CouponIssuedCache(CouponQuantityService couponQuantityService,
+                             MeterRegistry meterRegistry,
+                             @Value("${coupon.issued-cache.max-size:100000}") long maxSize,
+                             @Value("${coupon.issued-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.issued = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        this.couponQuantityService = couponQuantityService;
+        this.localRejected = rejectedCounter(meterRegistry, "local");
+        this.remoteRejected = rejectedCounter(meterRegistry, "remote");
+    }
+
+    /**
+     * 로컬에 기록된 유저면 바로 거절하고, 아니면 Redis에 발급 기록을 남긴다 (CouponQuantityService.recordIssued)
+     * @param couponPolicy 발급할 쿠폰 정책
+     * @param userId 발급받을 유저
+     */
+    public void recordIssued(CouponPolicy couponPolicy, Long userId) {
+        IssuedUser key = new IssuedUser(couponPolicy.getId(), userId);
+        if (issued.getIfPresent(key) != null) {
+            localRejected.increment();
+            throw new CouponIssueException("이미 발급받은 쿠폰입니다.");
+        }
+        try {
+            couponQuantityService.recordIssued(couponPolicy, userId);
+        } catch (CouponIssueException e) {
+            remoteRejected.increment();
+            issued.put(key, Boolean.TRUE);
+            throw e;
+        }
+        issued.put(key, Boolean.TRUE);
+    }
+
+    /**
+     * 발급 기록을 되돌림 (로컬 값을 먼저 지우고 Redis에서 되돌림, CouponQuantityService.forgetIssued)
+     * @param policyId 쿠폰 정책 ID
+     * @param userId 발급받았던 유저
+     */
+    public void forgetIssued(Long policyId, Long userId) {
+        issued.invalidate(new IssuedUser(policyId, userId));
+        couponQuantityService.forgetIssued(policyId, userId);
+    }
+
+    private Counter rejectedCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("coupon.issued.rejected")
+                .description("이미 발급받아 거절된 발급 요청 수")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    private record IssuedUser(long policyId, long userId) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.practice.couponservice.service.v2;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.options.KeysScanOptions;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * 시작 시 한 번, hash tag 도입 전 키(coupon:quantity:<policyId>)가 남은 정책을 찾아서 새 키로 옮긴다
+ * 예열(CouponPolicyPrewarmer)은 발급 시작 전 정책만 다루므로 이미 발급 중인 정책은 여기서 옮긴다
+ * 옮기기 전까지 새 키가 없어서 발급은 소진으로 거절되므로 초과 발급은 생기지 않는다 (준비 완료 전에 끝남)
+ * 이전 키가 모두 옮겨진 뒤에는 coupon.quantity.migrate-legacy-keys=false로 끌 수 있다
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "coupon.quantity.migrate-legacy-keys", havingValue = "true", matchIfMissing = true)
+public class CouponLegacyKeyMigrator implements ApplicationRunner {
+
+    private final RedissonClient redissonClient;
+    private final CouponQuantityService couponQuantityService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        // coupon:quantity:<policyId> 또는 coupon:quantity:<policyId>:<stripe>
+        Set<Long> policyIds = redissonClient.getKeys()
+                .getKeysStream(KeysScanOptions.defaults().pattern(CouponQuantityService.LEGACY_QUANTITY_KEY_PREFIX + "*"))
+                .map(key -> key.substring(CouponQuantityService.LEGACY_QUANTITY_KEY_PREFIX.length()).split(":")[0])
+                .filter(id -> id.matches("\\d+"))
+                .map(Long::valueOf)
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        int moved = 0;
+        for (Long policyId : policyIds) {
+            moved += couponQuantityService.migrateLegacyKeys(policyId);
+        }
+        if (!policyIds.isEmpty()) {
+            log.info("Legacy coupon key migration finished: policies={}, moved={}", policyIds.size(), moved);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.practice.couponservice.service.v2;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.practice.couponservice.entity.CouponPolicy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.LongCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * coupon:{id}:policy 앞단의 인스턴스 로컬 캐시 (역직렬화된 CouponPolicy 보관)
+ * 캐시 히트면 Redis 조회와 JSON 파싱 없이 바로 반환한다
+ *
+ * - 크기(max-size)와 TTL(ttl-seconds)로 제한
+ * - 정책이 바뀌면 coupon:policy:invalidate 토픽으로 policyId를 발행해서 모든 인스턴스의 로컬 캐시를 비운다
+ *   (구독이 끊긴 사이에 놓친 메시지는 TTL이 지나면 반영됨)
+ * - hit/miss/eviction 메트릭은 cache.gets, cache.evictions (cache=couponPolicy)로 등록
+ */
+@Slf4j
+@Component
+public class CouponPolicyCache {
+
+    private static final String INVALIDATE_TOPIC = "coupon:policy:invalidate";
+    private static final String CACHE_NAME = "couponPolicy";
+
+    private final Cache<Long, CouponPolicy> cache;
+    private final RTopic invalidateTopic;
+    private int listenerId;
+
+    public CouponPolicyCache(RedissonClient redissonClient,
+                             MeterRegistry meterRegistry,
+                             @Value("${coupon.policy-cache.max-size:1000}") long maxSize,
+                             @Value("${coupon.policy-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.invalidateTopic = redissonClient.getTopic(INVALIDATE_TOPIC, LongCodec.INSTANCE);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerId = invalidateTopic.addListener(Long.class, (channel, policyId) -> {
+            cache.invalidate(policyId);
+            log.debug("Coupon policy cache invalidated: policyId={}", policyId);
+        });
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        invalidateTopic.removeListener(listenerId);
+    }
+
+    /**
+     * 로컬 캐시에서 정책을 조회하고, 없으면 loader로 가져와서 캐싱
+     * loader가 예외를 던지면 캐싱하지 않고 그대로 전파된다
+     */
+    public CouponPolicy get(Long policyId, Function<Long, CouponPolicy> loader) {
+        return cache.get(policyId, loader);
+    }
+
+    // 이 인스턴스의 로컬 캐시에 미리 적재 (CouponPolicyPrewarmer)
+    public void put(CouponPolicy couponPolicy) {
+        cache.put(couponPolicy.getId(), couponPolicy);
+    }
+
+    /**
+     * 정책이 변경됐을 때 호출, 모든 인스턴스(자신 포함)의 로컬 캐시에서 제거
+     * @param policyId 변경된 쿠폰 정책 ID
+     */
+    public void invalidate(Long policyId) {
+        cache.invalidate(policyId);
+        invalidateTopic.publish(policyId);
+    }
+}
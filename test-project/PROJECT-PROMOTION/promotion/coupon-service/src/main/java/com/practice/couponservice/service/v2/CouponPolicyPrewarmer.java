@@ -0,0 +1,112 @@
+package com.practice.couponservice.service.v2;
+
+import com.practice.couponservice.entity.CouponPolicy;
+import com.practice.couponservice.repository.CouponPolicyRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 발급 시작(startTime) lead-seconds 전부터 정책을 미리 적재해서 시작 직후 캐시 미스가 몰리지 않게 한다
+ * 모든 인스턴스가 각자 실행한다 (Redis 작업은 같은 값을 쓰므로 중복 실행돼도 무방)
+ *
+ * - 실행할 때마다: 이 인스턴스의 로컬 캐시에 정책 적재 (lead-seconds가 로컬 캐시 TTL보다 길어도 시작 시점에 남아있도록)
+ * - 정책마다 한 번: Redis에 정책 저장, 수량 키 점검(없는 키만 설정), 발급 경로 dry-run (dry-run-iterations회)
+ *   dry-run은 발급 기간 체크에서 끝나므로 수량/발급 기록은 바뀌지 않는다
+ *   정책이 많아도 공유 스케줄러 스레드를 붙잡지 않도록 전용 스레드에서 정책 하나씩 순서대로 실행한다
+ * - 예열 시간은 coupon.prewarm.duration(timer)
+ */
+@Slf4j
+@Component
+public class CouponPolicyPrewarmer {
+
+    private static final long DRY_RUN_USER_ID = -1L;
+
+    private final CouponPolicyRepository couponPolicyRepository;
+    private final CouponPolicyService couponPolicyService;
+    private final CouponPolicyCache couponPolicyCache;
+    private final CouponQuantityService couponQuantityService;
+    private final Timer prewarmTimer;
+
+    // Redis 예열을 시작했거나 끝난 정책 (발급이 시작되면 제거, 실패하면 다음 실행에서 다시 시도)
+    private final Set<Long> warmed = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @Value("${coupon.prewarm.lead-seconds:60}")
+    private long leadSeconds;
+
+    @Value("${coupon.prewarm.dry-run-iterations:500}")
+    private int dryRunIterations;
+
+    public CouponPolicyPrewarmer(CouponPolicyRepository couponPolicyRepository,
+                                CouponPolicyService couponPolicyService,
+                                CouponPolicyCache couponPolicyCache,
+                                CouponQuantityService couponQuantityService,
+                                MeterRegistry registry) {
+        this.couponPolicyRepository = couponPolicyRepository;
+        this.couponPolicyService = couponPolicyService;
+        this.couponPolicyCache = couponPolicyCache;
+        this.couponQuantityService = couponQuantityService;
+        this.prewarmTimer = Timer.builder("coupon.prewarm.duration")
+                .description("발급 시작 전 정책 하나의 예열 시간")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${coupon.prewarm.interval-millis:5000}")
+    public void prewarm() {
+        LocalDateTime now = LocalDateTime.now();
+        List<CouponPolicy> upcoming = couponPolicyRepository.findByStartTimeBetween(now, now.plusSeconds(leadSeconds));
+        warmed.retainAll(upcoming.stream().map(CouponPolicy::getId).toList());
+
+        for (CouponPolicy couponPolicy : upcoming) {
+            try {
+                couponPolicyCache.put(couponPolicy);
+            } catch (RuntimeException e) {
+                log.error("Failed to cache coupon policy locally: policyId={}, error={}", couponPolicy.getId(), e.getMessage(), e);
+            }
+            if (warmed.add(couponPolicy.getId())) {
+                executor.execute(() -> warmSafely(couponPolicy));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void warmSafely(CouponPolicy couponPolicy) {
+        try {
+            prewarmTimer.record(() -> warm(couponPolicy));
+        } catch (RuntimeException e) {
+            // 다음 실행에서 다시 시도
+            warmed.remove(couponPolicy.getId());
+            log.error("Failed to prewarm coupon policy: policyId={}, error={}", couponPolicy.getId(), e.getMessage(), e);
+        }
+    }
+
+    private void warm(CouponPolicy couponPolicy) {
+        Long policyId = couponPolicy.getId();
+        couponPolicyService.cacheCouponPolicy(couponPolicy);
+        if (couponQuantityService.ensureInitialized(couponPolicy)) {
+            log.warn("Coupon quantity was missing and has been initialized: policyId={}", policyId);
+        }
+
+        // 발급 요청과 같은 경로: 정책 조회(로컬 캐시) -> 발급 스크립트
+        for (int i = 0; i < dryRunIterations; i++) {
+            couponQuantityService.dryRun(couponPolicyService.getCouponPolicy(policyId), DRY_RUN_USER_ID);
+        }
+        log.info("Coupon policy prewarmed: policyId={}, startTime={}", policyId, couponPolicy.getStartTime());
+    }
+}
@@ -2,16 +2,17 @@ package com.practice.couponservice.service.v2;
 
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.practice.couponservice.codec.CacheCodec;
 import com.practice.couponservice.dto.v1.CouponPolicyDto;
 import com.practice.couponservice.entity.CouponPolicy;
 import com.practice.couponservice.exception.CouponPolicyNotFoundException;
 import com.practice.couponservice.repository.CouponPolicyRepository;
+import com.practice.couponservice.service.CouponRedisKeys;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.redisson.api.RAtomicLong;
 import org.redisson.api.RBucket;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.ByteArrayCodec;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,41 +26,51 @@ import java.util.List;
 public class CouponPolicyService {
     private final CouponPolicyRepository couponPolicyRepository;
     private final RedissonClient redissonClient;
-    private final ObjectMapper objectMapper;
+    private final CacheCodec<CouponPolicy> couponPolicyCodec; // coupon.cache.codec.policy
+    private final CouponQuantityService couponQuantityService;
+    private final CouponPolicyCache couponPolicyCache;
 
-    private static final String COUPON_QUANTITY_KEY = "coupon:quantity:";
-    private static final String COUPON_POLICY_KEY = "coupon:policy:";
 
     @Transactional
     public CouponPolicy createCouponPolicy(CouponPolicyDto.CreateRequest request) throws JsonProcessingException {
         CouponPolicy couponPolicy = request.toEntity();
         CouponPolicy savedPolicy = couponPolicyRepository.save(couponPolicy);
 
-        // Redis에 초기 수량 설정
-        String quantityKey = COUPON_QUANTITY_KEY + savedPolicy.getId();
-        RAtomicLong atomicQuantity = redissonClient.getAtomicLong(quantityKey);
-        atomicQuantity.set(savedPolicy.getTotalQuantity());
+        // Redis에 초기 수량 설정 (coupon.quantity.stripes 설정에 따라 단일 키 또는 stripe 키)
+        couponQuantityService.initialize(savedPolicy);
 
         // Redis에 정책 정보 저장
-        String policyKey = COUPON_POLICY_KEY + savedPolicy.getId();
-        String policyJson = objectMapper.writeValueAsString(CouponPolicyDto.Response.from(savedPolicy));
-        RBucket<String> bucket = redissonClient.getBucket(policyKey);
-        bucket.set(policyJson);
+        cacheCouponPolicy(savedPolicy);
+
+        // 다른 인스턴스의 로컬 캐시에 남아있는 값 제거
+        couponPolicyCache.invalidate(savedPolicy.getId());
 
         return savedPolicy;
     }
 
+    // 정책 정보를 Redis에 저장 (CouponPolicyPrewarmer에서 발급 시작 전에도 호출)
+    public void cacheCouponPolicy(CouponPolicy couponPolicy) {
+        String policyKey = CouponRedisKeys.policy(couponPolicy.getId());
+        RBucket<byte[]> bucket = redissonClient.getBucket(policyKey, ByteArrayCodec.INSTANCE);
+        bucket.set(couponPolicyCodec.encode(couponPolicy));
+    }
+
+    // 로컬 캐시 -> Redis -> DB 순으로 조회
     public CouponPolicy getCouponPolicy(Long id) {
-        String policyKey = COUPON_POLICY_KEY + id;
-        RBucket<String> bucket = redissonClient.getBucket(policyKey);
+        return couponPolicyCache.get(id, this::loadCouponPolicy);
+    }
+
+    private CouponPolicy loadCouponPolicy(Long id) {
+        String policyKey = CouponRedisKeys.policy(id);
+        RBucket<byte[]> bucket = redissonClient.getBucket(policyKey, ByteArrayCodec.INSTANCE);
         // Redis에서 정책 먼저 조회 (캐시 우선)
-        String policyJson = bucket.get();
+        byte[] cachedPolicy = bucket.get();
 
-        if (policyJson != null) {
+        if (cachedPolicy != null) {
             try {
-                return objectMapper.readValue(policyJson, CouponPolicy.class);
-            } catch (JsonProcessingException e) { // 캐시에 없거나 파싱 실패
-                log.error("쿠폰 정책 정보를 JSON으로 파싱하는 중 오류가 발생했습니다.", e);
+                return couponPolicyCodec.decode(cachedPolicy);
+            } catch (RuntimeException e) { // 파싱 실패시 DB에서 조회
+                log.error("쿠폰 정책 캐시 데이터를 변환하는 중 오류가 발생했습니다.", e);
             }
         }
 
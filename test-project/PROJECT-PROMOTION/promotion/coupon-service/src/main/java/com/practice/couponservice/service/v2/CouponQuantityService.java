@@ -0,0 +1,601 @@
+package com.practice.couponservice.service.v2;
+
+import com.practice.couponservice.entity.CouponPolicy;
+import com.practice.couponservice.exception.CouponIssueException;
+import com.practice.couponservice.exception.CouponSoldOutException;
+import com.practice.couponservice.service.CouponRedisKeys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RScript;
+import org.redisson.api.RScriptAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 락 없이 Lua 스크립트 한 번의 호출로 쿠폰 수량을 차감
+ * 발급 기간 체크, 중복 발급 체크, 수량 체크, 차감이 Redis 안에서 원자적으로 처리된다
+ * (redisson.use-script-cache로 EVALSHA를 먼저 보내고, 서버에 스크립트가 없을 때(NOSCRIPT)만 본문을 전송)
+ *
+ * coupon.quantity.stripes > 1 이면 총 수량을 N개의 키로 나눠서 저장한다 (핫키 분산)
+ * - 유저는 userId % N 번째 stripe(home)에서 먼저 차감하고, 발급 기록도 home stripe에 남긴다
+ * - home stripe가 소진되면 이웃 stripe에서 빌려온다
+ * - 각 stripe는 0보다 클 때만 차감되고 stripe 합계 = 총 수량이므로 초과 발급은 발생하지 않는다
+ * - LOCK 모드는 단일 수량 키만 다루므로 stripes > 1과 함께 쓸 수 없다 (시작 시 거절)
+ *
+ * 발급 기록(중복 발급 체크)은 userId를 offset으로 쓰는 bitmap(coupon:{policyId}:issued-bits)에 남긴다
+ * - 유저당 1bit라 발급 대상이 수백만이어도 set(유저당 수십 byte)보다 훨씬 작고, 오탐 없이 정확하다
+ * - stripe 레이아웃이면 home stripe의 bitmap에 userId / N 위치로 기록 (stripe마다 1/N 크기)
+ * - bitmap 크기는 coupon.quantity.issued-bitmap-max-bytes로 제한, 범위를 벗어나는 userId(음수 포함)는 set에 기록
+ *   bitmap은 발급 수가 아니라 가장 큰 userId / 8 byte까지 한 번에 커지므로 (기본값이면 stripe당 최대 16MB),
+ *   실제 userId 범위에 맞게 줄이면 그 이상의 userId는 set으로 간다
+ * - bitmap 도입 전의 발급 기록(coupon:{policyId}:issued set)도 계속 중복으로 확인한다
+ * - 발급 기록은 발급 종료 시각 + coupon.quantity.issued-retention-seconds에 만료된다
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CouponQuantityService {
+
+    static final long NOT_IN_PERIOD = -1L;
+    static final long SOLD_OUT = -2L;
+    static final long ALREADY_ISSUED = -3L;
+
+    // 발급 기록 스크립트 공통 함수
+    // KEYS[2]: 발급받은 유저 set, KEYS[3]: 발급받은 유저 bitmap
+    // ARGV[1]: userId, ARGV[2]: bitmap offset (음수면 set 사용), ARGV[3]: 발급 기록 만료 시각(epoch ms)
+    // bitmap 도입 전에 set에만 기록된 발급도 중복으로 보도록 set은 항상 확인하고, 되돌릴 때도 둘 다 지운다
+    private static final String ISSUED_FUNCTIONS = """
+            local offset = tonumber(ARGV[2])
+            local function isIssued()
+                if offset >= 0 and redis.call('GETBIT', KEYS[3], offset) == 1 then
+                    return true
+                end
+                return redis.call('SISMEMBER', KEYS[2], ARGV[1]) == 1
+            end
+            local function markIssued()
+                local key = KEYS[2]
+                if offset >= 0 then
+                    key = KEYS[3]
+                    redis.call('SETBIT', key, offset, 1)
+                else
+                    redis.call('SADD', key, ARGV[1])
+                end
+                if redis.call('PTTL', key) == -1 then
+                    redis.call('PEXPIREAT', key, ARGV[3])
+                end
+            end
+            local function unmarkIssued()
+                local unmarked = redis.call('SREM', KEYS[2], ARGV[1]) == 1
+                if offset >= 0 and redis.call('GETBIT', KEYS[3], offset) == 1 then
+                    redis.call('SETBIT', KEYS[3], offset, 0)
+                    unmarked = true
+                end
+                return unmarked
+            end
+            """;
+
+    // KEYS[1]: 수량 키, KEYS[2], KEYS[3], ARGV[1~3]: ISSUED_FUNCTIONS
+    // ARGV[4]: 발급 시작 시각(epoch ms), ARGV[5]: 발급 종료 시각(epoch ms)
+    // 성공하면 남은 수량(0 이상), 실패하면 음수 코드를 반환
+    private static final String ISSUE_SCRIPT = ISSUED_FUNCTIONS + """
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            if now < tonumber(ARGV[4]) or now > tonumber(ARGV[5]) then
+                return -1
+            end
+            if isIssued() then
+                return -3
+            end
+            local remaining = tonumber(redis.call('GET', KEYS[1]) or '0')
+            if remaining <= 0 then
+                return -2
+            end
+            markIssued()
+            return redis.call('DECR', KEYS[1])
+            """;
+
+    // 수량 차감 없이 발급 기록만 남김 (분산락/임대 모드, 이웃 stripe에서 빌려온 경우, 대량 발급)
+    // 이미 기록이 있으면 -3
+    private static final String RECORD_SCRIPT = ISSUED_FUNCTIONS + """
+            if isIssued() then
+                return -3
+            end
+            markIssued()
+            return 1
+            """;
+
+    // KEYS[1]: 이웃 stripe 수량 키
+    private static final String BORROW_SCRIPT = """
+            local remaining = tonumber(redis.call('GET', KEYS[1]) or '0')
+            if remaining <= 0 then
+                return -2
+            end
+            return redis.call('DECR', KEYS[1])
+            """;
+
+    // KEYS[1]: 수량 키, ARGV[1]: 가져갈 최대 수량
+    // 남은 수량이 부족하면 남은 만큼만 가져가고 실제로 가져간 수량을 반환
+    private static final String LEASE_SCRIPT = """
+            local remaining = tonumber(redis.call('GET', KEYS[1]) or '0')
+            local take = math.min(remaining, tonumber(ARGV[1]))
+            if take <= 0 then
+                return 0
+            end
+            redis.call('DECRBY', KEYS[1], take)
+            return take
+            """;
+
+    // 발급 이후 DB 저장에 실패했을 때 차감한 수량과 발급 기록을 되돌린다
+    private static final String RELEASE_SCRIPT = ISSUED_FUNCTIONS + """
+            if unmarkIssued() then
+                return redis.call('INCR', KEYS[1])
+            end
+            return -1
+            """;
+
+    // 발급 기록만 되돌린다 (RECORD_SCRIPT의 반대)
+    private static final String FORGET_SCRIPT = ISSUED_FUNCTIONS + """
+            if unmarkIssued() then
+                return 1
+            end
+            return -1
+            """;
+
+    // hash tag 도입 전 키를 새 키로 옮긴다 (KEYS: 이전 키, 새 키 순서의 쌍), 새 키가 이미 있으면 옮기지 않음
+    private static final String MIGRATE_SCRIPT = """
+            local moved = 0
+            for i = 1, #KEYS, 2 do
+                if redis.call('EXISTS', KEYS[i]) == 1 and redis.call('EXISTS', KEYS[i + 1]) == 0 then
+                    redis.call('RENAME', KEYS[i], KEYS[i + 1])
+                    moved = moved + 1
+                end
+            end
+            return moved
+            """;
+
+    // hash tag 도입 전 키 (coupon:quantity:<policyId>[:<stripe>] 형식), migrateLegacyKeys에서만 사용
+    static final String LEGACY_QUANTITY_KEY_PREFIX = "coupon:quantity:";
+    private static final String LEGACY_ISSUED_KEY_PREFIX = "coupon:issued:";
+    private static final String LEGACY_STRIPES_KEY_PREFIX = "coupon:stripes:";
+    private static final String LEGACY_LEASE_KEY_PREFIX = "coupon:lease:";
+
+    private final RedissonClient redissonClient;
+
+    // 정책 생성 후에는 stripe 수가 바뀌지 않으므로 로컬에 캐싱
+    private final Map<Long, Integer> stripeCounts = new ConcurrentHashMap<>();
+
+    @Value("${coupon.quantity.stripes:1}")
+    private int stripes;
+
+    @Value("${coupon.issue.mode:SCRIPT}")
+    private CouponIssueMode issueMode;
+
+    @Value("${coupon.quantity.issued-bitmap-max-bytes:16777216}")
+    private long issuedBitmapMaxBytes;
+
+    @Value("${coupon.quantity.issued-retention-seconds:3600}")
+    private long issuedRetentionSeconds;
+
+    // LOCK 모드는 coupon:{policyId}:quantity 하나만 읽으므로 stripe로 나누면 항상 소진으로 보인다
+    @PostConstruct
+    public void validateStripes() {
+        if (stripes > 1 && issueMode == CouponIssueMode.LOCK) {
+            throw new IllegalStateException("coupon.quantity.stripes는 coupon.issue.mode=LOCK에서 1이어야 합니다: " + stripes);
+        }
+    }
+
+    /**
+     * 정책 생성 시 Redis에 초기 수량을 설정
+     * @param couponPolicy 생성된 쿠폰 정책
+     */
+    public void initialize(CouponPolicy couponPolicy) {
+        Long policyId = couponPolicy.getId();
+        int total = couponPolicy.getTotalQuantity();
+        int count = Math.max(1, Math.min(stripes, total));
+
+        RBatch batch = redissonClient.createBatch();
+        for (int stripe = 0; stripe < count; stripe++) {
+            batch.getAtomicLong(quantityKey(policyId, stripe, count)).setAsync(initialQuantity(total, stripe, count));
+        }
+        batch.getBucket(CouponRedisKeys.stripes(policyId), StringCodec.INSTANCE).setAsync(String.valueOf(count));
+        batch.execute();
+
+        stripeCounts.put(policyId, count);
+    }
+
+    /**
+     * stripe 정보와 모든 수량 키를 점검해서 없는 키만 초기 배분 수량으로 다시 설정 (발급 시작 전 점검용)
+     * 있는 키는 덮어쓰지 않는다 (시작 전이라도 대량 발급 작업이 가져간 수량이 있을 수 있음)
+     * @param couponPolicy 발급 시작 전인 쿠폰 정책
+     * @return 없는 키를 새로 설정했으면 true
+     */
+    public boolean ensureInitialized(CouponPolicy couponPolicy) {
+        Long policyId = couponPolicy.getId();
+        migrateLegacyKeys(policyId);
+        int total = couponPolicy.getTotalQuantity();
+        String stripeInfo = redissonClient.<String>getBucket(CouponRedisKeys.stripes(policyId), StringCodec.INSTANCE).get();
+        int count = stripeInfo != null ? Integer.parseInt(stripeInfo) : Math.max(1, Math.min(stripes, total));
+
+        RBatch batch = redissonClient.createBatch();
+        for (int stripe = 0; stripe < count; stripe++) {
+            batch.getBucket(quantityKey(policyId, stripe, count), StringCodec.INSTANCE)
+                    .setIfAbsentAsync(String.valueOf(initialQuantity(total, stripe, count)));
+        }
+        batch.getBucket(CouponRedisKeys.stripes(policyId), StringCodec.INSTANCE).setIfAbsentAsync(String.valueOf(count));
+        boolean initialized = batch.execute().getResponses().contains(Boolean.TRUE);
+
+        stripeCounts.put(policyId, count);
+        return initialized;
+    }
+
+    /**
+     * hash tag 도입 전 키(coupon:quantity:<policyId>, coupon:issued:<policyId>, coupon:stripes:<policyId>, coupon:lease:<policyId>)가
+     * 남아 있으면 새 키(CouponRedisKeys)로 옮긴다 (배포 전에 만든 정책의 남은 수량과 발급 기록 유지)
+     * - 새 키가 이미 있으면 옮기지 않으므로 여러 인스턴스가 동시에 실행해도 된다
+     * - 이전 키는 단일/Sentinel 구성에서만 만들어졌으므로 한 스크립트로 옮긴다 (이전 키가 없으면 스크립트를 실행하지 않아서 Cluster에서도 안전)
+     * - 락(coupon:lock)과 정책 캐시(coupon:policy)는 다시 만들어지므로 옮기지 않는다
+     * @param policyId 쿠폰 정책 ID
+     * @return 옮긴 키 수
+     */
+    public int migrateLegacyKeys(Long policyId) {
+        String legacyStripes = redissonClient.<String>getBucket(LEGACY_STRIPES_KEY_PREFIX + policyId, StringCodec.INSTANCE).get();
+        if (legacyStripes == null && !redissonClient.getBucket(LEGACY_QUANTITY_KEY_PREFIX + policyId).isExists()) {
+            return 0;
+        }
+        int count = legacyStripes != null ? Integer.parseInt(legacyStripes) : 1;
+
+        List<Object> keys = new ArrayList<>();
+        for (int stripe = 0; stripe < count; stripe++) {
+            String suffix = count == 1 ? "" : ":" + stripe;
+            keys.add(LEGACY_QUANTITY_KEY_PREFIX + policyId + suffix);
+            keys.add(quantityKey(policyId, stripe, count));
+            keys.add(LEGACY_ISSUED_KEY_PREFIX + policyId + suffix);
+            keys.add(issuedUsersKey(policyId, stripe, count));
+        }
+        keys.add(LEGACY_LEASE_KEY_PREFIX + policyId);
+        keys.add(CouponRedisKeys.lease(policyId));
+        keys.add(LEGACY_STRIPES_KEY_PREFIX + policyId);
+        keys.add(CouponRedisKeys.stripes(policyId));
+
+        int moved = (int) eval(MIGRATE_SCRIPT, keys);
+        if (moved > 0) {
+            stripeCounts.remove(policyId);
+            log.info("Migrated legacy coupon keys: policyId={}, stripes={}, moved={}", policyId, count, moved);
+        }
+        return moved;
+    }
+
+    // 나머지는 앞쪽 stripe부터 1개씩 더 배분 (단일 키면 총 수량)
+    private long initialQuantity(int total, int stripe, int count) {
+        return total / count + (stripe < total % count ? 1 : 0);
+    }
+
+    /**
+     * 발급 스크립트를 부작용 없이 실행 (발급 기간을 항상 미래로 넘겨서 기간 체크에서 끝남)
+     * 발급 시작 전에 스크립트 캐시(EVALSHA), 커넥션 풀, JIT를 예열하는 용도
+     * @param couponPolicy 쿠폰 정책
+     * @param userId 임의의 유저 ID
+     */
+    public void dryRun(CouponPolicy couponPolicy, Long userId) {
+        Long policyId = couponPolicy.getId();
+        int count = stripeCount(policyId);
+        eval(ISSUE_SCRIPT, keys(policyId, homeStripe(userId, count), count),
+                issuedArgs(couponPolicy, userId, count, String.valueOf(Long.MAX_VALUE), String.valueOf(Long.MAX_VALUE)));
+    }
+
+    /**
+     * 쿠폰 수량을 1 차감하고 차감한 stripe의 남은 수량을 반환
+     * @param couponPolicy 발급할 쿠폰 정책
+     * @param userId 발급받을 유저
+     */
+    public long issue(CouponPolicy couponPolicy, Long userId) {
+        Long policyId = couponPolicy.getId();
+        int count = stripeCount(policyId);
+        int home = homeStripe(userId, count);
+
+        long result = eval(ISSUE_SCRIPT, keys(policyId, home, count),
+                issuedArgs(couponPolicy, userId, count,
+                        String.valueOf(toEpochMilli(couponPolicy.getStartTime())),
+                        String.valueOf(toEpochMilli(couponPolicy.getEndTime()))));
+
+        if (result == SOLD_OUT && count > 1) {
+            result = borrow(couponPolicy, userId, home, count);
+        }
+
+        if (result == NOT_IN_PERIOD) {
+            throw new IllegalStateException("쿠폰 발급 기간이 아닙니다.");
+        }
+        if (result == ALREADY_ISSUED) {
+            throw new CouponIssueException("이미 발급받은 쿠폰입니다.");
+        }
+        if (result == SOLD_OUT) {
+            throw new CouponSoldOutException();
+        }
+        return result;
+    }
+
+    /**
+     * 여러 정책의 수량을 한 번의 pipeline(RBatch)으로 차감 (정책마다 발급 스크립트 1회, 예외 대신 결과 코드)
+     * 정책마다 slot이 다를 수 있어 한 스크립트로 묶지 않고, 정책 단위로 원자적으로 처리한다
+     * home stripe가 소진된 정책은 pipeline 이후 정책마다 이웃 stripe에서 순서대로 빌려오므로, 그만큼 round trip이 추가된다
+     * 중간에 실패하면 이미 차감된 것으로 확인된 정책은 되돌리고 예외를 던진다
+     * (pipeline 응답을 받지 못한 정책은 이전 발급 기록과 구분할 수 없어 그대로 두고 로그만 남김)
+     * @param couponPolicies 발급할 쿠폰 정책 목록
+     * @param userId 발급받을 유저
+     * @return 정책 순서대로 남은 수량(0 이상) 또는 NOT_IN_PERIOD, SOLD_OUT, ALREADY_ISSUED
+     */
+    public List<Long> issueAll(List<CouponPolicy> couponPolicies, Long userId) {
+        RBatch batch = redissonClient.createBatch();
+        RScriptAsync script = batch.getScript(StringCodec.INSTANCE);
+        List<RFuture<Long>> futures = new ArrayList<>(couponPolicies.size());
+        for (CouponPolicy couponPolicy : couponPolicies) {
+            int count = stripeCount(couponPolicy.getId());
+            futures.add(script.evalAsync(RScript.Mode.READ_WRITE, ISSUE_SCRIPT, RScript.ReturnType.INTEGER,
+                    keys(couponPolicy.getId(), homeStripe(userId, count), count),
+                    issuedArgs(couponPolicy, userId, count,
+                            String.valueOf(toEpochMilli(couponPolicy.getStartTime())),
+                            String.valueOf(toEpochMilli(couponPolicy.getEndTime())))));
+        }
+
+        List<Long> results = new ArrayList<>(couponPolicies.size());
+        try {
+            batch.execute();
+        } catch (RuntimeException e) {
+            // 응답을 받은 정책만 결과를 알 수 있음
+            for (RFuture<Long> future : futures) {
+                CompletableFuture<Long> completed = future.toCompletableFuture();
+                results.add(completed.isDone() && !completed.isCompletedExceptionally() ? completed.getNow(null) : null);
+            }
+            releaseIssued(couponPolicies, results, userId);
+            throw e;
+        }
+        futures.forEach(future -> results.add(future.toCompletableFuture().join()));
+
+        try {
+            for (int i = 0; i < couponPolicies.size(); i++) {
+                CouponPolicy couponPolicy = couponPolicies.get(i);
+                int count = stripeCount(couponPolicy.getId());
+                // home stripe가 소진된 정책만 따로 이웃 stripe에서 빌려온다
+                if (results.get(i) == SOLD_OUT && count > 1) {
+                    results.set(i, borrow(couponPolicy, userId, homeStripe(userId, count), count));
+                }
+            }
+        } catch (RuntimeException e) {
+            releaseIssued(couponPolicies, results, userId);
+            throw e;
+        }
+        return results;
+    }
+
+    // issueAll이 실패했을 때 차감된 정책을 되돌림 (결과가 null이면 차감 여부를 모름)
+    private void releaseIssued(List<CouponPolicy> couponPolicies, List<Long> results, Long userId) {
+        for (int i = 0; i < couponPolicies.size(); i++) {
+            Long policyId = couponPolicies.get(i).getId();
+            Long result = results.get(i);
+            if (result == null) {
+                log.warn("Issue result unknown, not released: policyId={}, userId={}", policyId, userId);
+                continue;
+            }
+            if (result < 0) {
+                continue;
+            }
+            try {
+                release(policyId, userId);
+            } catch (RuntimeException e) {
+                log.error("Failed to release issued quantity: policyId={}, userId={}, error={}", policyId, userId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * issue로 차감한 수량을 되돌림 (빌려온 수량이어도 home stripe로 반납, 합계는 동일)
+     * @param policyId 쿠폰 정책 ID
+     * @param userId 발급받았던 유저
+     */
+    public void release(Long policyId, Long userId) {
+        int count = stripeCount(policyId);
+        long result = eval(RELEASE_SCRIPT, keys(policyId, homeStripe(userId, count), count),
+                String.valueOf(userId), String.valueOf(bitOffset(userId, count)));
+
+        if (result < 0) {
+            log.warn("Nothing to release: policyId={}, userId={}", policyId, userId);
+        }
+    }
+
+    /**
+     * 수량 차감 없이 발급 기록만 남김 (분산락 모드는 락 안에서, 임대 모드는 로컬 차감 전에 호출)
+     * @param couponPolicy 발급할 쿠폰 정책
+     * @param userId 발급받을 유저
+     */
+    public void recordIssued(CouponPolicy couponPolicy, Long userId) {
+        int count = stripeCount(couponPolicy.getId());
+        long result = eval(RECORD_SCRIPT, keys(couponPolicy.getId(), homeStripe(userId, count), count),
+                issuedArgs(couponPolicy, userId, count));
+
+        if (result == ALREADY_ISSUED) {
+            throw new CouponIssueException("이미 발급받은 쿠폰입니다.");
+        }
+    }
+
+    /**
+     * recordIssued로 남긴 발급 기록을 되돌림 (수량 차감에 실패했거나 발급 요청 전송에 실패한 경우)
+     * @param policyId 쿠폰 정책 ID
+     * @param userId 발급받았던 유저
+     */
+    public void forgetIssued(Long policyId, Long userId) {
+        int count = stripeCount(policyId);
+        long result = eval(FORGET_SCRIPT, keys(policyId, homeStripe(userId, count), count),
+                String.valueOf(userId), String.valueOf(bitOffset(userId, count)));
+
+        if (result < 0) {
+            log.warn("Nothing to forget: policyId={}, userId={}", policyId, userId);
+        }
+    }
+
+    /**
+     * 인스턴스 로컬에서 나눠줄 수량을 한 번에 가져옴 (v3 LEASE 모드)
+     * stripe 레이아웃이면 여러 stripe에서 모자란 만큼 이어서 가져온다
+     * @param policyId 쿠폰 정책 ID
+     * @param amount 가져갈 최대 수량
+     * @return 실제로 가져간 수량 (0이면 소진)
+     */
+    public long lease(Long policyId, long amount) {
+        int count = stripeCount(policyId);
+        int start = ThreadLocalRandom.current().nextInt(count);
+        long taken = 0;
+        for (int offset = 0; offset < count && taken < amount; offset++) {
+            int stripe = (start + offset) % count;
+            taken += eval(LEASE_SCRIPT, List.of(quantityKey(policyId, stripe, count)), String.valueOf(amount - taken));
+        }
+        return taken;
+    }
+
+    /**
+     * lease로 가져갔지만 나눠주지 못한 수량을 반납
+     * @param policyId 쿠폰 정책 ID
+     * @param amount 반납할 수량
+     */
+    public void giveBack(Long policyId, long amount) {
+        if (amount <= 0) {
+            return;
+        }
+        int count = stripeCount(policyId);
+        int stripe = ThreadLocalRandom.current().nextInt(count);
+        redissonClient.getAtomicLong(quantityKey(policyId, stripe, count)).addAndGet(amount);
+    }
+
+    /**
+     * lease로 가져간 수량으로 발급할 유저를 발급 기록에 추가 (이후 issue에서 중복으로 처리됨)
+     * 유저마다 발급 기록 스크립트 1회를 한 번의 pipeline(RBatch)으로 보낸다
+     * @param couponPolicy 쿠폰 정책
+     * @param userIds 발급할 유저 목록
+     * @return 이미 발급 기록이 있어 추가하지 않은 유저 (발급하지 않고 건너뛰어야 함)
+     */
+    public Set<Long> markIssued(CouponPolicy couponPolicy, Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Set.of();
+        }
+        Long policyId = couponPolicy.getId();
+        int count = stripeCount(policyId);
+
+        RBatch batch = redissonClient.createBatch();
+        RScriptAsync script = batch.getScript(StringCodec.INSTANCE);
+        Map<Long, RFuture<Long>> futures = new LinkedHashMap<>();
+        for (Long userId : userIds) {
+            futures.put(userId, script.evalAsync(RScript.Mode.READ_WRITE, RECORD_SCRIPT, RScript.ReturnType.INTEGER,
+                    keys(policyId, homeStripe(userId, count), count), issuedArgs(couponPolicy, userId, count)));
+        }
+        batch.execute();
+
+        Set<Long> alreadyIssued = new HashSet<>();
+        futures.forEach((userId, future) -> {
+            if (future.toCompletableFuture().join() == ALREADY_ISSUED) {
+                alreadyIssued.add(userId);
+            }
+        });
+        return alreadyIssued;
+    }
+
+    // home stripe가 소진됐을 때 이웃 stripe를 순서대로 돌며 1개를 빌려온다
+    private long borrow(CouponPolicy couponPolicy, Long userId, int home, int count) {
+        Long policyId = couponPolicy.getId();
+        for (int offset = 1; offset < count; offset++) {
+            int stripe = (home + offset) % count;
+            String stripeKey = quantityKey(policyId, stripe, count);
+            long remaining = eval(BORROW_SCRIPT, List.of(stripeKey));
+            if (remaining == SOLD_OUT) {
+                continue;
+            }
+
+            // 발급 기록은 항상 home stripe에 남긴다. 같은 유저가 동시에 빌려간 경우 반납 후 중복 처리
+            long recorded = eval(RECORD_SCRIPT, keys(policyId, home, count), issuedArgs(couponPolicy, userId, count));
+            if (recorded == ALREADY_ISSUED) {
+                redissonClient.getAtomicLong(stripeKey).incrementAndGet();
+                return ALREADY_ISSUED;
+            }
+            return remaining;
+        }
+        return SOLD_OUT;
+    }
+
+    private int stripeCount(Long policyId) {
+        return stripeCounts.computeIfAbsent(policyId, id -> {
+            String count = redissonClient.<String>getBucket(CouponRedisKeys.stripes(id), StringCodec.INSTANCE).get();
+            return count != null ? Integer.parseInt(count) : 1; // stripe 정보가 없으면 단일 키
+        });
+    }
+
+    private int homeStripe(Long userId, int count) {
+        return (int) Math.floorMod(userId, (long) count);
+    }
+
+    private long eval(String script, List<Object> keys, Object... args) {
+        Long result = redissonClient.getScript(StringCodec.INSTANCE).eval(
+                RScript.Mode.READ_WRITE,
+                script,
+                RScript.ReturnType.INTEGER,
+                keys,
+                args);
+        return result;
+    }
+
+    private List<Object> keys(Long policyId, int stripe, int count) {
+        return List.of(quantityKey(policyId, stripe, count), issuedUsersKey(policyId, stripe, count),
+                issuedUserBitsKey(policyId, stripe, count));
+    }
+
+    // ISSUED_FUNCTIONS의 ARGV[1~3] 뒤에 스크립트별 인자를 붙인다
+    private Object[] issuedArgs(CouponPolicy couponPolicy, Long userId, int count, Object... extra) {
+        long expireAt = toEpochMilli(couponPolicy.getEndTime()) + issuedRetentionSeconds * 1000;
+        Object[] args = new Object[3 + extra.length];
+        args[0] = String.valueOf(userId);
+        args[1] = String.valueOf(bitOffset(userId, count));
+        args[2] = String.valueOf(expireAt);
+        System.arraycopy(extra, 0, args, 3, extra.length);
+        return args;
+    }
+
+    // home stripe bitmap에서의 위치, bitmap 크기 제한을 넘거나 음수면 -1 (set에 기록)
+    private long bitOffset(Long userId, int count) {
+        if (userId < 0) {
+            return -1;
+        }
+        long offset = userId / count;
+        return offset < issuedBitmapMaxBytes * 8 ? offset : -1;
+    }
+
+    // 단일 키 레이아웃이면 coupon:{policyId}:quantity, stripe 레이아웃이면 stripe별 slot으로 분산 (CouponRedisKeys)
+    private String quantityKey(Long policyId, int stripe, int count) {
+        return count == 1 ? CouponRedisKeys.quantity(policyId) : CouponRedisKeys.quantity(policyId, stripe);
+    }
+
+    private String issuedUsersKey(Long policyId, int stripe, int count) {
+        return count == 1 ? CouponRedisKeys.issuedUsers(policyId) : CouponRedisKeys.issuedUsers(policyId, stripe);
+    }
+
+    private String issuedUserBitsKey(Long policyId, int stripe, int count) {
+        return count == 1 ? CouponRedisKeys.issuedUserBits(policyId) : CouponRedisKeys.issuedUserBits(policyId, stripe);
+    }
+
+    private long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -7,16 +7,26 @@ import com.practice.couponservice.dto.v1.CouponDto;
 import com.practice.couponservice.entity.Coupon;
 import com.practice.couponservice.entity.CouponPolicy;
 import com.practice.couponservice.exception.CouponIssueException;
+import com.practice.couponservice.exception.CouponPolicyNotFoundException;
+import com.practice.couponservice.exception.CouponSoldOutException;
 import com.practice.couponservice.repository.CouponRepository;
+import com.practice.couponservice.service.CouponRedisKeys;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RAtomicLong;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
@@ -26,17 +36,55 @@ public class CouponRedisService {
     private final RedissonClient redissonClient;
     private final CouponRepository couponRepository;
     private final CouponPolicyService couponPolicyService;
+    private final CouponQuantityService couponQuantityService;
+    private final CouponSoldOutCache couponSoldOutCache;
 
-    private static final String COUPON_QUANTITY_KEY = "coupon:quantity:";
-    private static final String COUPON_LOCK_KEY = "coupon:lock:";
     private static final long LOCK_WAIT_TIME = 3;
     private static final long LOCK_LEASE_TIME = 5;
+    private static final int MAX_BATCH_POLICIES = 20;
+
+    @Value("${coupon.issue.mode:SCRIPT}")
+    private CouponIssueMode issueMode;
 
     @Transactional
     @CouponMetered(version = "v2")
     public Coupon issueCoupon(CouponDto.IssueRequest request) {
-        String quantityKey = COUPON_QUANTITY_KEY + request.getCouponPolicyId();
-        String lockKey = COUPON_LOCK_KEY + request.getCouponPolicyId();
+        // 소진된 정책이면 락/Redis 호출 없이 거절
+        couponSoldOutCache.rejectIfSoldOut(request.getCouponPolicyId());
+        try {
+            return issueMode == CouponIssueMode.LOCK ? issueCouponWithLock(request) : issueCouponWithScript(request);
+        } catch (CouponSoldOutException e) {
+            couponSoldOutCache.markSoldOut(request.getCouponPolicyId(), true);
+            throw e;
+        }
+    }
+
+    // Lua 스크립트 기반 발급 (coupon.issue.mode=SCRIPT)
+    private Coupon issueCouponWithScript(CouponDto.IssueRequest request) {
+        CouponPolicy couponPolicy = couponPolicyService.getCouponPolicy(request.getCouponPolicyId());
+        Long userId = UserIdInterceptor.getCurrentUserId();
+
+        // 기간/중복/수량 체크 및 차감을 Redis 한 번의 호출로 처리
+        couponQuantityService.issue(couponPolicy, userId);
+
+        // 시퀀스 ID라 save는 insert를 커밋까지 미루므로 여기서 flush해서 실패를 바로 잡는다
+        try {
+            return couponRepository.saveAndFlush(Coupon.builder()
+                    .couponPolicy(couponPolicy)
+                    .userId(userId)
+                    .couponCode(generateCouponCode())
+                    .build());
+        } catch (RuntimeException e) {
+            // DB 저장에 실패하면 차감한 수량을 되돌린다
+            couponQuantityService.release(couponPolicy.getId(), userId);
+            throw e;
+        }
+    }
+
+    // 분산락 기반 발급 (coupon.issue.mode=LOCK)
+    private Coupon issueCouponWithLock(CouponDto.IssueRequest request) {
+        String quantityKey = CouponRedisKeys.quantity(request.getCouponPolicyId());
+        String lockKey = CouponRedisKeys.lock(request.getCouponPolicyId());
         RLock lock = redissonClient.getLock(lockKey);
 
         try {
@@ -52,21 +100,32 @@ public class CouponRedisService {
                 throw new IllegalStateException("쿠폰 발급 기간이 아닙니다.");
             }
 
+            // 중복 발급 체크 (발급 기록은 스크립트 모드와 공유)
+            Long userId = UserIdInterceptor.getCurrentUserId();
+            couponQuantityService.recordIssued(couponPolicy, userId);
+
             // 수량 체크 및 감소
             RAtomicLong atomicQuantity = redissonClient.getAtomicLong(quantityKey);
             long remainingQuantity = atomicQuantity.decrementAndGet();
 
             if (remainingQuantity < 0) {
                 atomicQuantity.incrementAndGet();
-                throw new CouponIssueException("쿠폰이 모두 소진되었습니다.");
+                couponQuantityService.forgetIssued(couponPolicy.getId(), userId);
+                throw new CouponSoldOutException();
             }
 
-            // 쿠폰 발급
-            return couponRepository.save(Coupon.builder()
-                    .couponPolicy(couponPolicy)
-                    .userId(UserIdInterceptor.getCurrentUserId())
-                    .couponCode(generateCouponCode())
-                    .build());
+            // 쿠폰 발급, flush해서 insert에 실패하면 차감한 수량과 발급 기록을 되돌린다
+            try {
+                return couponRepository.saveAndFlush(Coupon.builder()
+                        .couponPolicy(couponPolicy)
+                        .userId(userId)
+                        .couponCode(generateCouponCode())
+                        .build());
+            } catch (RuntimeException e) {
+                atomicQuantity.incrementAndGet();
+                couponQuantityService.forgetIssued(couponPolicy.getId(), userId);
+                throw e;
+            }
 
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
@@ -78,7 +137,75 @@ public class CouponRedisService {
         }
     }
 
+    /**
+     * 여러 정책을 한 번에 발급 (coupon.issue.mode와 관계없이 스크립트 방식)
+     * 수량 차감은 한 번의 Redis pipeline, 쿠폰 저장은 한 트랜잭션의 배치 insert로 처리하고 정책별 결과를 돌려준다
+     * 일부 정책이 실패해도 나머지는 발급하고, DB 저장에 실패하면 차감한 수량을 모두 되돌린다
+     * @param policyIds 발급할 쿠폰 정책 ID 목록 (중복 제거, 최대 MAX_BATCH_POLICIES개)
+     */
+    @Transactional
+    @CouponMetered(version = "v2")
+    public BatchResult issueCoupons(List<Long> policyIds) {
+        List<Long> distinctIds = policyIds.stream().distinct().toList();
+        if (distinctIds.isEmpty() || distinctIds.size() > MAX_BATCH_POLICIES) {
+            throw new IllegalArgumentException("한 번에 발급할 수 있는 쿠폰 정책은 1~" + MAX_BATCH_POLICIES + "개입니다.");
+        }
+        Long userId = UserIdInterceptor.getCurrentUserId();
+        Map<Long, String> failures = new LinkedHashMap<>();
+
+        // 소진된 정책, 없는 정책은 Redis 호출 없이 실패 처리
+        List<CouponPolicy> couponPolicies = new ArrayList<>();
+        for (Long policyId : distinctIds) {
+            try {
+                couponSoldOutCache.rejectIfSoldOut(policyId);
+                couponPolicies.add(couponPolicyService.getCouponPolicy(policyId));
+            } catch (CouponIssueException | CouponPolicyNotFoundException e) {
+                failures.put(policyId, e.getMessage());
+            }
+        }
+        if (couponPolicies.isEmpty()) {
+            return new BatchResult(List.of(), failures);
+        }
+
+        // 기간/중복/수량 체크 및 차감
+        List<Long> results = couponQuantityService.issueAll(couponPolicies, userId);
+        List<Coupon> coupons = new ArrayList<>();
+        for (int i = 0; i < couponPolicies.size(); i++) {
+            CouponPolicy couponPolicy = couponPolicies.get(i);
+            long result = results.get(i);
+            if (result >= 0) {
+                coupons.add(Coupon.builder()
+                        .couponPolicy(couponPolicy)
+                        .userId(userId)
+                        .couponCode(generateCouponCode())
+                        .build());
+            } else if (result == CouponQuantityService.SOLD_OUT) {
+                couponSoldOutCache.markSoldOut(couponPolicy.getId(), true);
+                failures.put(couponPolicy.getId(), "쿠폰이 모두 소진되었습니다.");
+            } else if (result == CouponQuantityService.ALREADY_ISSUED) {
+                failures.put(couponPolicy.getId(), "이미 발급받은 쿠폰입니다.");
+            } else {
+                failures.put(couponPolicy.getId(), "쿠폰 발급 기간이 아닙니다.");
+            }
+        }
+
+        // 배치 insert를 여기서 flush해서 실패하면 바로 수량을 되돌린다
+        try {
+            return new BatchResult(couponRepository.saveAllAndFlush(coupons), failures);
+        } catch (RuntimeException e) {
+            coupons.forEach(coupon -> couponQuantityService.release(coupon.getCouponPolicy().getId(), userId));
+            throw e;
+        }
+    }
+
     private String generateCouponCode() {
         return java.util.UUID.randomUUID().toString().substring(0, 8);
     }
+
+    @Getter
+    @AllArgsConstructor
+    public static class BatchResult {
+        private final List<Coupon> issued; // 요청 순서대로
+        private final Map<Long, String> failures; // 정책 ID -> 실패 사유
+    }
 }
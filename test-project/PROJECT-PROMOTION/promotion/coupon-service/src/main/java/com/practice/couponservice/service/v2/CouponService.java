@@ -1,13 +1,22 @@
 package com.practice.couponservice.service.v2;
 
+import com.practice.couponservice.config.UserIdInterceptor;
 import com.practice.couponservice.dto.v1.CouponDto;
 import com.practice.couponservice.entity.Coupon;
+import com.practice.couponservice.exception.CouponAlreadyUsedException;
 import com.practice.couponservice.exception.CouponNotFoundException;
 import com.practice.couponservice.repository.CouponRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service("couponServiceV2")
 @RequiredArgsConstructor
 public class CouponService {
@@ -15,33 +24,80 @@ public class CouponService {
     private final CouponRepository couponRepository;
     private final CouponRedisService couponRedisService;
     private final CouponStateService couponStateService;
+    private final CouponWalletIndex couponWalletIndex;
+
+    private static final int MAX_BEST_COUPONS = 100;
+
+    @Value("${coupon.wallet-index.max-coupons:1000}")
+    private int maxIndexedCoupons;
 
     @Transactional
     public CouponDto.Response issueCoupon(CouponDto.IssueRequest request) {
         Coupon coupon = couponRedisService.issueCoupon(request);
         couponStateService.updateCouponState(couponRepository.findById(coupon.getId())
                 .orElseThrow(() -> new CouponNotFoundException("쿠폰을 찾을 수 없습니다.")));
+        couponWalletIndex.invalidate(coupon.getUserId());
         return CouponDto.Response.from(coupon);
     }
 
+    @Transactional
+    public CouponDto.BatchIssueResponse issueCoupons(CouponDto.BatchIssueRequest request) {
+        List<Long> policyIds = request.getCouponPolicyIds() != null ? request.getCouponPolicyIds() : List.of();
+        CouponRedisService.BatchResult result = couponRedisService.issueCoupons(policyIds);
+
+        Map<Long, Coupon> issued = new HashMap<>();
+        for (Coupon coupon : result.getIssued()) {
+            couponStateService.updateCouponState(coupon);
+            issued.put(coupon.getCouponPolicy().getId(), coupon);
+        }
+        if (!issued.isEmpty()) {
+            couponWalletIndex.invalidate(UserIdInterceptor.getCurrentUserId());
+        }
+
+        List<CouponDto.BatchIssueResult> results = policyIds.stream().distinct()
+                .map(policyId -> {
+                    Coupon coupon = issued.get(policyId);
+                    return CouponDto.BatchIssueResult.builder()
+                            .couponPolicyId(policyId)
+                            .issued(coupon != null)
+                            .coupon(coupon != null ? CouponDto.Response.from(coupon) : null)
+                            .failureReason(result.getFailures().get(policyId))
+                            .build();
+                })
+                .toList();
+        return CouponDto.BatchIssueResponse.builder().results(results).build();
+    }
+
+    // 락 없이 조회/검증하고 조건부 UPDATE 한 문장으로 상태 변경 (Redis 상태는 커밋 이후 저장)
     @Transactional
     public CouponDto.Response useCoupon(Long couponId, Long orderId) {
-        Coupon coupon = couponRepository.findByIdWithLock(couponId)
+        Coupon coupon = couponRepository.findByIdWithPolicy(couponId)
                 .orElseThrow(() -> new CouponNotFoundException("쿠폰을 찾을 수 없습니다."));
 
-        coupon.use(orderId);
+        coupon.validateUse();
+        LocalDateTime usedAt = LocalDateTime.now();
+        if (couponRepository.use(couponId, coupon.getStatus(), orderId, usedAt) == 0) {
+            throw new CouponAlreadyUsedException("이미 사용된 쿠폰입니다.");
+        }
+        coupon.use(orderId, usedAt); // DB와 같은 상태로 맞춤 (영속성 컨텍스트에서 분리된 상태라 다시 UPDATE되지 않음)
         couponStateService.updateCouponState(coupon);
+        couponWalletIndex.invalidate(coupon.getUserId());
 
         return CouponDto.Response.from(coupon);
     }
 
     @Transactional
     public CouponDto.Response cancelCoupon(Long couponId) {
-        Coupon coupon = couponRepository.findByIdWithLock(couponId)
+        Coupon coupon = couponRepository.findByIdWithPolicy(couponId)
                 .orElseThrow(() -> new CouponNotFoundException("쿠폰을 찾을 수 없습니다."));
 
+        coupon.validateCancel();
+        if (couponRepository.cancel(couponId) == 0) {
+            throw new IllegalStateException("사용되지 않은 쿠폰입니다.");
+        }
         coupon.cancel();
         couponStateService.updateCouponState(coupon);
+        couponWalletIndex.invalidate(coupon.getUserId());
 
         return CouponDto.Response.from(coupon);
     }
@@ -61,4 +117,26 @@ public class CouponService {
         return response;
     }
 
+    /**
+     * 주문 금액에 적용 가능한 쿠폰을 할인 금액 내림차순으로 조회
+     * 유저별 인덱스(CouponWalletIndex)가 캐싱되어 있으면 DB/Redis 조회 없이 계산한다
+     * @param orderAmount 주문 금액
+     * @param limit 최대 개수 (최대 MAX_BEST_COUPONS)
+     */
+    public CouponDto.BestCouponResponse getBestCoupons(long orderAmount, Integer limit) {
+        if (orderAmount <= 0) {
+            throw new IllegalArgumentException("주문 금액은 0보다 커야 합니다.");
+        }
+        Long currentUserId = UserIdInterceptor.getCurrentUserId();
+        int size = Math.min(limit != null && limit > 0 ? limit : 10, MAX_BEST_COUPONS);
+
+        CouponWalletIndex.Index index = couponWalletIndex.get(currentUserId, userId ->
+                couponRepository.findWallet(userId, Coupon.Status.AVAILABLE, Limit.of(maxIndexedCoupons)));
+
+        return CouponDto.BestCouponResponse.builder()
+                .orderAmount(orderAmount)
+                .coupons(index.best(orderAmount, LocalDateTime.now(), size))
+                .build();
+    }
+
 }
\ No newline at end of file
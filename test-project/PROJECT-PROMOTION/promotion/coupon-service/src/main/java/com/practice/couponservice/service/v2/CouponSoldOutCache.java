@@ -0,0 +1,112 @@
+package com.practice.couponservice.service.v2;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.practice.couponservice.exception.CouponSoldOutException;
+import com.practice.couponservice.service.CouponRedisKeys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.LongCodec;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 수량이 소진된 정책 (인스턴스 로컬)
+ * 소진된 정책의 발급 요청은 락/Redis 호출 없이 바로 거절한다
+ *
+ * - Redis에서 소진을 확인한 인스턴스가 coupon:{policyId}:sold-out 플래그를 선점하면 coupon:sold-out 토픽으로 policyId를 발행
+ *   (플래그가 recheck-millis 동안 유지되므로 소진 신호는 그 사이에 한 번만 발행됨)
+ * - 로컬 값은 recheck-millis 후 만료되고, 그 다음 요청 하나가 다시 Redis에서 확인한다
+ *   (release/giveBack으로 수량이 돌아오거나 구독이 끊겨 메시지를 놓쳐도 그 시간 안에 반영됨)
+ * - 거절 수는 coupon.soldout.rejected (source=local: 로컬에서 거절, remote: Redis에서 소진 확인)
+ */
+@Slf4j
+@Component
+public class CouponSoldOutCache {
+
+    private static final String SOLD_OUT_TOPIC = "coupon:sold-out";
+
+    private final Cache<Long, Boolean> soldOut;
+    private final RedissonClient redissonClient;
+    private final RTopic soldOutTopic;
+    private final Duration recheck;
+    private final Counter localRejected;
+    private final Counter remoteRejected;
+    private int listenerId;
+
+    public CouponSoldOutCache(RedissonClient redissonClient,
+                              MeterRegistry meterRegistry,
+                              @Value("${coupon.sold-out.recheck-millis:1000}") long recheckMillis) {
+        this.recheck = Duration.ofMillis(recheckMillis);
+        this.soldOut = Caffeine.newBuilder()
+                .expireAfterWrite(recheck)
+                .build();
+        this.redissonClient = redissonClient;
+        this.soldOutTopic = redissonClient.getTopic(SOLD_OUT_TOPIC, LongCodec.INSTANCE);
+        this.localRejected = rejectedCounter(meterRegistry, "local");
+        this.remoteRejected = rejectedCounter(meterRegistry, "remote");
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerId = soldOutTopic.addListener(Long.class, (channel, policyId) -> soldOut.put(policyId, Boolean.TRUE));
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        soldOutTopic.removeListener(listenerId);
+    }
+
+    /**
+     * 소진된 정책이면 바로 거절
+     * @param policyId 쿠폰 정책 ID
+     */
+    public void rejectIfSoldOut(Long policyId) {
+        if (soldOut.getIfPresent(policyId) != null) {
+            localRejected.increment();
+            throw new CouponSoldOutException();
+        }
+    }
+
+    /**
+     * Redis에서 소진을 확인했을 때 호출, 로컬에 기록하고 broadcast면 다른 인스턴스에 알린다
+     * @param policyId 소진된 쿠폰 정책 ID
+     * @param broadcast false면 이 인스턴스에만 기록 (LEASE 모드: Redis가 비어도 다른 인스턴스는 임대한 수량이 남아있을 수 있음)
+     */
+    public void markSoldOut(Long policyId, boolean broadcast) {
+        remoteRejected.increment();
+        if (soldOut.getIfPresent(policyId) != null) {
+            return;
+        }
+        soldOut.put(policyId, Boolean.TRUE);
+        if (!broadcast) {
+            return;
+        }
+        try {
+            boolean first = redissonClient.<String>getBucket(CouponRedisKeys.soldOut(policyId), StringCodec.INSTANCE)
+                    .setIfAbsent("1", recheck);
+            if (first) {
+                soldOutTopic.publish(policyId);
+                log.info("Coupon policy sold out: policyId={}", policyId);
+            }
+        } catch (RuntimeException e) {
+            // 다른 인스턴스는 각자 Redis에서 소진을 확인하게 됨
+            log.warn("Failed to broadcast sold out: policyId={}, error={}", policyId, e.getMessage());
+        }
+    }
+
+    private Counter rejectedCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("coupon.soldout.rejected")
+                .description("수량 소진으로 거절된 발급 요청 수")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
@@ -1,41 +1,142 @@
 package com.practice.couponservice.service.v2;
 
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.practice.couponservice.codec.CacheCodec;
 import com.practice.couponservice.dto.v1.CouponDto;
 import com.practice.couponservice.entity.Coupon;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.redisson.api.RBucket;
+import org.redisson.api.RBatch;
+import org.redisson.api.RScript;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * coupon:state:{id} 캐시 (hash: version, value / TTL: coupon.state.ttl-seconds)
+ *
+ * 쓰기는 쿠폰의 version(DB에서 상태가 바뀔 때마다 증가)을 비교하는 스크립트로 한다
+ * - 저장된 version보다 작은 상태는 쓰지 않는다 (쓰기 순서가 뒤바뀌어도 이전 상태가 새 상태를 덮어쓰지 않음)
+ *   flush 중인 배치와 바로 쓰기가 겹치거나, 다른 인스턴스/DB 조회로 채우는 쓰기가 늦게 도착해도 마찬가지
+ * - 이 캐시 도입 전의 문자열 값은 그대로 읽고, 다음 쓰기에서 hash로 바꾼다
+ *
+ * coupon.state.write-mode=SYNC(기본)이면 커밋 이후 호출한 스레드에서 바로 쓴다
+ * - 커밋 이후라서 쓰기에 실패해도 예외를 전파하지 않고 로그만 남긴다 (캐시는 TTL 이후 DB 기준으로 다시 채워짐)
+ *
+ * coupon.state.write-mode=WRITE_BEHIND 이면
+ * - 트랜잭션 안에서는 상태 스냅샷(CouponDto.Response)만 만들고, 커밋 이후 pending에 넣는다 (롤백되면 버려짐)
+ * - 스케줄러가 pending을 batch-size 단위로 꺼내서 RBatch 한 번으로 쓴다 (인코딩도 스케줄러 스레드에서)
+ * - 같은 쿠폰이 여러 번 바뀌면 pending에서 version이 가장 큰 상태로 합쳐진다 (ConcurrentHashMap.merge)
+ * - pending이 max-pending을 넘으면 호출한 스레드에서 바로 쓴다 (Redis가 느릴 때 메모리 제한)
+ * - 쓰기에 실패한 항목은 다시 pending에 합친다 (그 사이 들어온 더 새로운 상태가 남음)
+ * - 이 인스턴스의 getCouponState는 pending을 먼저 확인하므로 자기가 쓴 상태는 바로 보인다
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CouponStateService {
 
     private final RedissonClient redissonClient;
-    private final ObjectMapper objectMapper;
+    private final CacheCodec<CouponDto.Response> couponStateCodec; // coupon.cache.codec.state
+    private final MeterRegistry meterRegistry;
 
     private static final String COUPON_STATE_KEY = "coupon:state:";
 
+    // 저장된 version보다 작지 않을 때만 쓴다 (1: 씀, 0: 더 새로운 상태가 있음), 이전 문자열 값은 지우고 hash로 씀
+    // ARGV[1]: version, ARGV[2]: 인코딩한 상태, ARGV[3]: TTL(ms)
+    private static final String WRITE_SCRIPT = """
+            if redis.call('TYPE', KEYS[1])['ok'] == 'string' then
+                redis.call('DEL', KEYS[1])
+            end
+            local current = redis.call('HGET', KEYS[1], 'version')
+            if current and tonumber(current) > tonumber(ARGV[1]) then
+                return 0
+            end
+            redis.call('HSET', KEYS[1], 'version', ARGV[1], 'value', ARGV[2])
+            redis.call('PEXPIRE', KEYS[1], ARGV[3])
+            return 1
+            """;
+
+    // hash면 value, 이전 문자열 값이면 그대로
+    private static final String READ_SCRIPT = """
+            local type = redis.call('TYPE', KEYS[1])['ok']
+            if type == 'hash' then
+                return redis.call('HGET', KEYS[1], 'value')
+            end
+            if type == 'string' then
+                return redis.call('GET', KEYS[1])
+            end
+            return false
+            """;
+
+    private final Map<Long, State> pending = new ConcurrentHashMap<>();
+
+    @Value("${coupon.state.write-mode:SYNC}")
+    private CouponStateWriteMode writeMode;
+
+    @Value("${coupon.state.ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    @Value("${coupon.state.batch-size:500}")
+    private int batchSize;
+
+    @Value("${coupon.state.max-pending:100000}")
+    private int maxPending;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("coupon.state.pending", pending, Map::size)
+                .description("Redis에 아직 쓰지 않은 쿠폰 상태 수")
+                .register(meterRegistry);
+    }
+
     /**
-     * 쿠폰 상태를 Redis에 저장
+     * 쿠폰 상태를 Redis에 저장 (트랜잭션 안이면 커밋 이후, WRITE_BEHIND 모드면 비동기로)
+     * 커밋 이후에 쓰므로 DB 행 락을 잡은 채로 Redis 응답을 기다리지 않는다
      * @param coupon 상태를 저장할 쿠폰
      */
     public void updateCouponState(Coupon coupon) {
-        try {
-            String stateKey = COUPON_STATE_KEY + coupon.getId();
-            String couponJson = objectMapper.writeValueAsString(CouponDto.Response.from(coupon));
-            RBucket<String> bucket = redissonClient.getBucket(stateKey);
-            bucket.set(couponJson);
+        // 정책(LAZY) 접근이 필요하므로 스냅샷은 호출한 스레드(트랜잭션 안)에서 만든다
+        State state = new State(coupon.getVersion(), CouponDto.Response.from(coupon));
 
-            log.info("Coupon state updated: {}", coupon.getId());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    try {
+                        store(state);
+                    } catch (RuntimeException e) {
+                        // 이미 커밋된 이후이므로 예외를 전파하지 않는다 (캐시는 TTL 이후 DB 기준으로 다시 채워짐)
+                        log.error("Failed to update coupon state after commit: couponId={}, error={}",
+                                state.couponId(), e.getMessage());
+                    }
+                }
+            });
+            return;
+        }
+        store(state);
+    }
 
-        } catch (Exception e) {
-            log.error("Error updating coupon state: {}", e.getMessage(), e);
-            throw new RuntimeException("쿠폰 상태 업데이트 중 오류가 발생했습니다.", e);
+    private void store(State state) {
+        if (writeMode == CouponStateWriteMode.SYNC) {
+            write(state);
+        } else {
+            enqueue(state);
         }
     }
 
@@ -45,19 +146,148 @@ public class CouponStateService {
      * @return 쿠폰 상태, 없으면 null
      */
     public CouponDto.Response getCouponState(Long couponId) {
+        State pendingState = pending.get(couponId);
+        if (pendingState != null) {
+            return pendingState.value();
+        }
+
         try {
-            String stateKey = COUPON_STATE_KEY + couponId;
-            RBucket<String> bucket = redissonClient.getBucket(stateKey);
-            String couponJson = bucket.get();
+            byte[] couponState = redissonClient.getScript(ByteArrayCodec.INSTANCE).eval(
+                    RScript.Mode.READ_ONLY,
+                    READ_SCRIPT,
+                    RScript.ReturnType.VALUE,
+                    List.of(COUPON_STATE_KEY + couponId));
 
-            if (couponJson == null) {
+            if (couponState == null) {
                 return null;
             }
 
-            return objectMapper.readValue(couponJson, CouponDto.Response.class);
+            return couponStateCodec.decode(couponState);
         } catch (Exception e) {
             log.error("Error getting coupon state: {}", e.getMessage(), e);
             throw new RuntimeException("쿠폰 상태 조회 중 오류가 발생했습니다.", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 쿠폰 상태를 Redis에서 삭제 (DB에서 일괄 변경한 경우, 다음 조회는 DB에서)
+     * @param couponIds 삭제할 쿠폰 ID 목록
+     */
+    public void evictCouponStates(List<Long> couponIds) {
+        if (couponIds.isEmpty()) {
+            return;
+        }
+        couponIds.forEach(pending::remove);
+        redissonClient.getKeys().delete(couponIds.stream()
+                .map(couponId -> COUPON_STATE_KEY + couponId)
+                .toArray(String[]::new));
+    }
+
+    // pending을 batch-size 단위로 모두 비울 때까지 반복
+    @Scheduled(fixedDelayString = "${coupon.state.flush-interval-millis:50}")
+    public void flush() {
+        while (!pending.isEmpty()) {
+            List<State> states = drain();
+            if (!writeBatch(states)) {
+                return; // 실패한 항목은 다음 주기에 다시 시도
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void enqueue(State state) {
+        // pending에 있는 쿠폰은 크기가 늘지 않으므로 항상 합친다
+        if (pending.size() >= maxPending && !pending.containsKey(state.couponId())) {
+            try {
+                write(state);
+            } catch (RuntimeException e) {
+                // 이미 커밋된 이후이므로 예외를 전파하지 않는다 (캐시는 TTL 이후 DB 기준으로 다시 채워짐)
+                log.warn("Dropped coupon state update: couponId={}", state.couponId());
+            }
+            return;
+        }
+        merge(state);
+    }
+
+    // 이미 있는 항목과 version이 더 큰 쪽을 남긴다 (같으면 나중 것)
+    private void merge(State state) {
+        pending.merge(state.couponId(), state, (current, next) -> next.version() >= current.version() ? next : current);
+    }
+
+    private List<State> drain() {
+        List<State> states = new ArrayList<>(Math.min(batchSize, pending.size()));
+        Iterator<Long> couponIds = pending.keySet().iterator();
+        while (couponIds.hasNext() && states.size() < batchSize) {
+            State state = pending.remove(couponIds.next());
+            if (state != null) {
+                states.add(state);
+            }
+        }
+        return states;
+    }
+
+    private boolean writeBatch(List<State> states) {
+        try {
+            RBatch batch = redissonClient.createBatch();
+            for (State state : states) {
+                batch.getScript(ByteArrayCodec.INSTANCE).evalAsync(
+                        RScript.Mode.READ_WRITE,
+                        WRITE_SCRIPT,
+                        RScript.ReturnType.INTEGER,
+                        List.of(COUPON_STATE_KEY + state.couponId()),
+                        writeArgs(state));
+            }
+            batch.execute();
+            log.debug("Coupon states flushed: count={}", states.size());
+            return true;
+        } catch (Exception e) {
+            log.error("Error flushing coupon states: count={}, error={}", states.size(), e.getMessage(), e);
+            states.forEach(this::merge);
+            return false;
+        }
+    }
+
+    private void write(State state) {
+        try {
+            Long written = redissonClient.getScript(ByteArrayCodec.INSTANCE).eval(
+                    RScript.Mode.READ_WRITE,
+                    WRITE_SCRIPT,
+                    RScript.ReturnType.INTEGER,
+                    List.of(COUPON_STATE_KEY + state.couponId()),
+                    writeArgs(state));
+
+            if (written == 0) {
+                log.debug("Skipped stale coupon state: couponId={}, version={}", state.couponId(), state.version());
+                return;
+            }
+            log.info("Coupon state updated: {}", state.couponId());
+
+        } catch (Exception e) {
+            log.error("Error updating coupon state: {}", e.getMessage(), e);
+            throw new RuntimeException("쿠폰 상태 업데이트 중 오류가 발생했습니다.", e);
+        }
+    }
+
+    private Object[] writeArgs(State state) {
+        return new Object[]{
+                ascii(state.version()),
+                couponStateCodec.encode(state.value()),
+                ascii(ttlSeconds * 1000)};
+    }
+
+    private static byte[] ascii(long value) {
+        return String.valueOf(value).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // 쿠폰 상태 스냅샷과 그 시점의 쿠폰 version
+    private record State(long version, CouponDto.Response value) {
+
+        Long couponId() {
+            return value.getId();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.practice.couponservice.service.v2;
+
+// coupon.state.write-mode 설정값
+public enum CouponStateWriteMode {
+    SYNC,         // 기본값, 호출한 스레드에서 바로 씀 (트랜잭션 안이면 커밋 이후에)
+    WRITE_BEHIND, // 커밋 이후 큐에 넣고 스케줄러가 RBatch로 모아서 씀 (쓰기가 많을 때 선택)
+}
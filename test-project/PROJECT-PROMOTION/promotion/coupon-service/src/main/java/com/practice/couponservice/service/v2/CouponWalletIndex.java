@@ -0,0 +1,185 @@
+package com.practice.couponservice.service.v2;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.practice.couponservice.dto.v1.CouponDto;
+import com.practice.couponservice.entity.CouponPolicy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.LongCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+/**
+ * 유저별 AVAILABLE 쿠폰 인덱스 (인스턴스 로컬 캐시, 최적 쿠폰 계산용)
+ * 쿠폰을 최대 할인 가능 금액(정액: discountValue, 정률: maximumDiscountAmount) 내림차순으로 미리 정렬해 두고,
+ * 주문 금액이 들어오면 앞에서부터 계산하다가 남은 쿠폰의 최대 할인 금액이 limit번째 결과보다 작아지면 멈춘다
+ *
+ * - 쿠폰이 발급/사용/취소되면 커밋 이후 coupon:wallet:invalidate 토픽으로 userId를 발행해서 모든 인스턴스에서 제거
+ * - 만료는 별도 무효화 없이 계산 시점에 validFrom/validUntil로 거른다 (만료 처리 배치와 무관하게 정확)
+ * - hit/miss/eviction 메트릭은 cache.gets, cache.evictions (cache=couponWalletIndex)로 등록
+ */
+@Slf4j
+@Component
+public class CouponWalletIndex {
+
+    private static final String INVALIDATE_TOPIC = "coupon:wallet:invalidate";
+    private static final String CACHE_NAME = "couponWalletIndex";
+
+    private final Cache<Long, Index> cache;
+    private final RTopic invalidateTopic;
+    private int listenerId;
+
+    public CouponWalletIndex(RedissonClient redissonClient,
+                             MeterRegistry meterRegistry,
+                             @Value("${coupon.wallet-index.max-users:10000}") long maxUsers,
+                             @Value("${coupon.wallet-index.ttl-seconds:300}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.invalidateTopic = redissonClient.getTopic(INVALIDATE_TOPIC, LongCodec.INSTANCE);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerId = invalidateTopic.addListener(Long.class, (channel, userId) -> cache.invalidate(userId));
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        invalidateTopic.removeListener(listenerId);
+    }
+
+    /**
+     * 유저의 인덱스를 조회하고, 없으면 loader로 AVAILABLE 쿠폰을 가져와서 만든다
+     * @param userId 유저 ID
+     * @param loader 유저의 AVAILABLE 쿠폰 조회
+     */
+    public Index get(Long userId, Function<Long, List<CouponDto.WalletItem>> loader) {
+        return cache.get(userId, id -> Index.of(loader.apply(id)));
+    }
+
+    /**
+     * 유저의 쿠폰이 바뀌었을 때 호출, 트랜잭션 안이면 커밋 이후에 제거한다
+     * (커밋 전에 제거하면 다른 요청이 커밋 전 상태로 다시 캐싱할 수 있음)
+     * @param userId 쿠폰이 바뀐 유저 ID
+     */
+    public void invalidate(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishInvalidate(userId);
+                }
+            });
+            return;
+        }
+        publishInvalidate(userId);
+    }
+
+    private void publishInvalidate(Long userId) {
+        cache.invalidate(userId);
+        try {
+            invalidateTopic.publish(userId);
+        } catch (RuntimeException e) {
+            // 다른 인스턴스는 TTL이 지나면 반영됨
+            log.warn("Failed to publish wallet index invalidation: userId={}, error={}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * 최대 할인 가능 금액 내림차순으로 정렬된 쿠폰 배열 (불변)
+     */
+    public static final class Index {
+
+        // 나쁜 쿠폰이 앞 (할인 금액이 같으면 늦게 만료되는 쿠폰이 앞, 즉 먼저 만료되는 쿠폰 우선)
+        private static final Comparator<CouponDto.BestCoupon> RANKING =
+                Comparator.comparingLong(CouponDto.BestCoupon::getDiscountAmount)
+                        .thenComparing(CouponDto.BestCoupon::getValidUntil, Comparator.reverseOrder());
+
+        private final CouponDto.WalletItem[] items;
+        private final long[] maxDiscounts; // items[i]의 최대 할인 가능 금액
+
+        private Index(CouponDto.WalletItem[] items, long[] maxDiscounts) {
+            this.items = items;
+            this.maxDiscounts = maxDiscounts;
+        }
+
+        public static Index of(List<CouponDto.WalletItem> coupons) {
+            CouponDto.WalletItem[] items = coupons.stream()
+                    .sorted(Comparator.comparingLong(Index::maxDiscount).reversed())
+                    .toArray(CouponDto.WalletItem[]::new);
+            long[] maxDiscounts = new long[items.length];
+            for (int i = 0; i < items.length; i++) {
+                maxDiscounts[i] = maxDiscount(items[i]);
+            }
+            return new Index(items, maxDiscounts);
+        }
+
+        public int size() {
+            return items.length;
+        }
+
+        /**
+         * 주문 금액에 적용 가능한 쿠폰을 할인 금액 내림차순으로 최대 limit개 반환
+         * @param orderAmount 주문 금액
+         * @param now 기준 시각 (발급 기간 체크)
+         * @param limit 최대 개수
+         */
+        public List<CouponDto.BestCoupon> best(long orderAmount, LocalDateTime now, int limit) {
+            // limit개 중 할인 금액이 가장 작은 쿠폰이 head
+            PriorityQueue<CouponDto.BestCoupon> top = new PriorityQueue<>(limit + 1, RANKING);
+            for (int i = 0; i < items.length; i++) {
+                if (top.size() == limit && Math.min(maxDiscounts[i], orderAmount) < top.peek().getDiscountAmount()) {
+                    break; // 이후 쿠폰은 더 할인될 수 없음
+                }
+                CouponDto.WalletItem item = items[i];
+                if (orderAmount < item.getMinimumOrderAmount()
+                        || now.isBefore(item.getValidFrom()) || now.isAfter(item.getValidUntil())) {
+                    continue;
+                }
+                top.add(CouponDto.BestCoupon.of(item, discount(item, orderAmount)));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            List<CouponDto.BestCoupon> ranked = new ArrayList<>(top);
+            ranked.sort(RANKING.reversed());
+            return ranked;
+        }
+
+        // 정액: discountValue, 정률: maximumDiscountAmount (주문 금액과 무관한 상한)
+        private static long maxDiscount(CouponDto.WalletItem item) {
+            return item.getDiscountType() == CouponPolicy.DiscountType.PERCENTAGE
+                    ? item.getMaximumDiscountAmount()
+                    : item.getDiscountValue();
+        }
+
+        // 할인 금액은 주문 금액을 넘지 않는다
+        static long discount(CouponDto.WalletItem item, long orderAmount) {
+            long discount = item.getDiscountType() == CouponPolicy.DiscountType.PERCENTAGE
+                    ? Math.min(orderAmount * item.getDiscountValue() / 100, item.getMaximumDiscountAmount())
+                    : item.getDiscountValue();
+            return Math.min(discount, orderAmount);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.practice.couponservice.service.v3;
+
+import com.practice.couponservice.dto.v3.CouponDto;
+import com.practice.couponservice.entity.Coupon;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * coupon.consumer.batch-enabled=true 일 때 CouponConsumer 대신 사용
+ * poll 한 번에 받은 메시지를 하나의 트랜잭션, 하나의 JDBC 배치로 저장하고 오프셋은 배치 단위로 커밋된다
+ * 배치 저장이 실패하면 메시지 단위로 다시 처리해서 실패한 메시지만 건너뛴다 (결과 전달은 저장이 커밋된 뒤에만)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "coupon.consumer.batch-enabled", havingValue = "true")
+public class CouponBatchConsumer {
+
+    private final CouponService couponService;
+    private final CouponIssueResultService couponIssueResultService;
+
+    @KafkaListener(topics = "coupon-issue-requests", groupId = "coupon-service", containerFactory = "couponKafkaListenerContainerFactory")
+    public void consumeCouponIssueRequests(List<CouponDto.IssueMessage> messages) {
+        log.info("Received {} coupon issue requests", messages.size());
+        List<Coupon> coupons;
+        try {
+            coupons = couponService.issueCoupons(messages);
+        } catch (Exception e) {
+            // 배치 저장 자체가 실패(롤백)한 경우에만 메시지 단위로 다시 처리
+            log.warn("Batch coupon issue failed, falling back to per-record processing: {}", e.getMessage());
+            messages.forEach(this::issueCoupon);
+            return;
+        }
+        // 배치가 커밋된 뒤이므로 결과 전달이 실패해도 다시 발급하지 않음
+        for (int i = 0; i < messages.size(); i++) {
+            couponIssueResultService.issued(messages.get(i), coupons.get(i).getId());
+        }
+    }
+
+    private void issueCoupon(CouponDto.IssueMessage message) {
+        Coupon coupon;
+        try {
+            coupon = couponService.issueCoupon(message);
+        } catch (Exception e) {
+            log.error("Failed to process coupon issue request: {}", e.getMessage(), e);
+            couponIssueResultService.failed(message, e.getMessage());
+            return;
+        }
+        // 발급이 커밋된 뒤이므로 결과 전달이 실패해도 FAILED를 보내지 않음
+        couponIssueResultService.issued(message, coupon.getId());
+    }
+}
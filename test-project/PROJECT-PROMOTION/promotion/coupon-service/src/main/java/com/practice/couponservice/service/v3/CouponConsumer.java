@@ -1,25 +1,34 @@
 package com.practice.couponservice.service.v3;
 
 import com.practice.couponservice.dto.v3.CouponDto;
+import com.practice.couponservice.entity.Coupon;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
+@ConditionalOnExpression("!${coupon.consumer.batch-enabled:false} and !${coupon.consumer.parallel-enabled:false}")
 public class CouponConsumer {
 
     private final CouponService couponService;
+    private final CouponIssueResultService couponIssueResultService;
 
     @KafkaListener(topics = "coupon-issue-requests", groupId = "coupon-service", containerFactory = "couponKafkaListenerContainerFactory")
     public void consumeCouponIssueRequest(CouponDto.IssueMessage message) {
+        log.info("Received coupon issue request: {}", message);
+        Coupon coupon;
         try {
-            log.info("Received coupon issue request: {}", message);
-            couponService.issueCoupon(message);
+            coupon = couponService.issueCoupon(message);
         } catch (Exception e) {
             log.error("Failed to process coupon issue request: {}", e.getMessage(), e);
+            couponIssueResultService.failed(message, e.getMessage());
+            return;
         }
+        // 발급이 커밋된 뒤이므로 결과 전달이 실패해도 FAILED를 보내지 않음
+        couponIssueResultService.issued(message, coupon.getId());
     }
 }
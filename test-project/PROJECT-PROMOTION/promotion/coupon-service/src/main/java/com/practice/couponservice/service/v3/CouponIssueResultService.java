@@ -0,0 +1,175 @@
+package com.practice.couponservice.service.v3;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.practice.couponservice.dto.v3.CouponDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * v3 비동기 발급 결과 전달
+ * - 컨슈머가 처리를 끝내면 coupon:result:{requestId}에 결과를 기록하고(ttl-seconds) coupon:result 토픽으로 발행
+ * - 클라이언트는 SSE로 결과를 기다리고, 연결을 가진 인스턴스가 토픽 메시지를 받아서 전달한다
+ * - SSE 연결 전에 결과가 이미 나왔으면 기록된 결과를 바로 전달
+ * - 같은 requestId로 여러 번 연결하면(재연결, 여러 탭) 모든 연결에 전달
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CouponIssueResultService {
+
+    private static final String COUPON_RESULT_KEY = "coupon:result:";
+    private static final String RESULT_TOPIC = "coupon:result";
+
+    private final RedissonClient redissonClient;
+    private final ObjectMapper objectMapper;
+
+    // requestId -> 결과를 기다리는 SSE 연결들 (이 인스턴스에 연결된 것만)
+    private final Map<String, Set<Waiter>> waiters = new ConcurrentHashMap<>();
+    private int listenerId;
+
+    @Value("${coupon.issue-result.ttl-seconds:600}")
+    private long resultTtlSeconds;
+
+    @Value("${coupon.issue-result.sse-timeout-millis:30000}")
+    private long sseTimeoutMillis;
+
+    @PostConstruct
+    public void subscribe() {
+        listenerId = topic().addListener(String.class, (channel, json) -> {
+            CouponDto.IssueResult result = fromJson(json);
+            if (result != null) {
+                waiters.getOrDefault(result.getRequestId(), Set.of()).forEach(waiter -> deliver(waiter, result));
+            }
+        });
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        topic().removeListener(listenerId);
+    }
+
+    public void issued(CouponDto.IssueMessage message, Long couponId) {
+        publish(CouponDto.IssueResult.builder()
+                .requestId(message.getRequestId())
+                .userId(message.getUserId())
+                .status(CouponDto.IssueResult.Status.ISSUED)
+                .couponId(couponId)
+                .build());
+    }
+
+    public void failed(CouponDto.IssueMessage message, String reason) {
+        publish(CouponDto.IssueResult.builder()
+                .requestId(message.getRequestId())
+                .userId(message.getUserId())
+                .status(CouponDto.IssueResult.Status.FAILED)
+                .reason(reason)
+                .build());
+    }
+
+    /**
+     * 발급 결과를 기다리는 SSE 연결 생성
+     * @param requestId 발급 요청 시 받은 requestId
+     * @param userId 요청한 유저 (다른 유저의 결과는 전달하지 않음)
+     */
+    public SseEmitter subscribe(String requestId, Long userId) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMillis);
+        Waiter waiter = new Waiter(emitter, userId);
+        waiters.compute(requestId, (id, registered) -> {
+            Set<Waiter> updated = registered != null ? registered : ConcurrentHashMap.newKeySet();
+            updated.add(waiter);
+            return updated;
+        });
+        emitter.onCompletion(() -> removeWaiter(requestId, waiter));
+        emitter.onTimeout(() -> removeWaiter(requestId, waiter));
+
+        // 연결 전에 이미 처리된 요청
+        String json = resultBucket(requestId).get();
+        if (json != null) {
+            CouponDto.IssueResult result = fromJson(json);
+            if (result != null) {
+                deliver(waiter, result);
+            }
+        }
+        return emitter;
+    }
+
+    private void removeWaiter(String requestId, Waiter waiter) {
+        waiters.computeIfPresent(requestId, (id, registered) -> {
+            registered.remove(waiter);
+            return registered.isEmpty() ? null : registered;
+        });
+    }
+
+    private void publish(CouponDto.IssueResult result) {
+        if (result.getRequestId() == null) {
+            return; // requestId가 없는 이전 버전 메시지
+        }
+        try {
+            String json = objectMapper.writeValueAsString(result);
+            resultBucket(result.getRequestId()).set(json, Duration.ofSeconds(resultTtlSeconds));
+            topic().publish(json);
+        } catch (Exception e) {
+            // 결과 알림 실패가 발급 처리에 영향을 주지 않도록 로그만 남김
+            log.error("Failed to publish coupon issue result: requestId={}, error={}", result.getRequestId(), e.getMessage());
+        }
+    }
+
+    private void deliver(Waiter waiter, CouponDto.IssueResult result) {
+        if (!waiter.userId.equals(result.getUserId())) {
+            waiter.emitter.completeWithError(new IllegalStateException("발급 요청에 대한 접근 권한이 없습니다."));
+            return;
+        }
+        try {
+            waiter.emitter.send(SseEmitter.event()
+                    .name(result.getStatus().name().toLowerCase())
+                    .data(result));
+            waiter.emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            // 클라이언트가 이미 연결을 끊었거나 다른 스레드가 먼저 전달함
+            log.debug("Unable to deliver coupon issue result: requestId={}", result.getRequestId());
+        }
+    }
+
+    private CouponDto.IssueResult fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, CouponDto.IssueResult.class);
+        } catch (JsonProcessingException e) {
+            log.error("Invalid coupon issue result: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private RBucket<String> resultBucket(String requestId) {
+        return redissonClient.getBucket(COUPON_RESULT_KEY + requestId, StringCodec.INSTANCE);
+    }
+
+    private RTopic topic() {
+        return redissonClient.getTopic(RESULT_TOPIC, StringCodec.INSTANCE);
+    }
+
+    private static final class Waiter {
+        private final SseEmitter emitter;
+        private final Long userId;
+
+        private Waiter(SseEmitter emitter, Long userId) {
+            this.emitter = emitter;
+            this.userId = userId;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.practice.couponservice.service.v3;
+
+import com.practice.couponservice.exception.CouponSoldOutException;
+import com.practice.couponservice.service.CouponRedisKeys;
+import com.practice.couponservice.service.v2.CouponQuantityService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RMap;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.LongCodec;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.codec.CompositeCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 쿠폰 수량 임대 (coupon.issue.mode=LEASE)
+ * 인스턴스가 coupon:{policyId}:quantity에서 수량을 블록 단위로 가져오고(lease), 로컬 카운터로 나눠준다
+ * 대부분의 요청은 Redis 호출 없이 처리되고, 블록이 소진됐을 때만 Redis에서 다시 가져온다
+ *
+ * - 블록 크기는 직전 블록의 소진 속도에 맞춰 조절 (약 LEASE_TARGET_MILLIS 동안 쓸 만큼)
+ * - 만료된 lease와 종료 시 남은 수량은 Redis로 반납
+ * - Redis에서는 남은 만큼만 가져가고 로컬에서는 가져온 만큼만 나눠주므로 totalQuantity를 넘어서 발급되지 않는다
+ *
+ * coupon:{policyId}:lease 해시(원장)에 인스턴스별로 아직 나눠주지 않은 수량과 lease 만료 시각을 기록한다
+ * - 나눠주기 전에 블록의 1/COMMIT_PARTS씩 원장에서 차감(확정)하고, 확정한 만큼까지만 로컬에서 나눠준다
+ * - 인스턴스가 비정상 종료되면 다른 인스턴스가 만료 후 reclaim-after-millis가 지난 항목의 미확정 수량을 회수해서 반납
+ *   (확정했지만 나눠주지 못한 수량만 잃고, 나눠준 수량을 회수하는 일은 없으므로 초과 발급되지 않음)
+ * - 회수된 lease는 더 이상 확정할 수 없고 반납도 하지 않는다 (스케줄러가 밀려서 살아있는 인스턴스가 회수된 경우)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CouponLeaseService {
+
+    private static final long MIN_BLOCK_SIZE = 10;
+    private static final long MAX_BLOCK_SIZE = 1000;
+    private static final long LEASE_TARGET_MILLIS = 1000;
+    private static final long COMMIT_PARTS = 4;
+    private static final String EXPIRES_AT_SUFFIX = ":expires-at";
+
+    // KEYS[1]: 원장, ARGV[1]: 인스턴스 ID, ARGV[2]: 확정할 수량
+    // 원장에 남은 미확정 수량에서 차감, 항목이 없으면(회수됨) -1
+    private static final String COMMIT_SCRIPT = """
+            local left = tonumber(redis.call('HGET', KEYS[1], ARGV[1]) or '-1')
+            if left < tonumber(ARGV[2]) then
+                return -1
+            end
+            return redis.call('HINCRBY', KEYS[1], ARGV[1], -tonumber(ARGV[2]))
+            """;
+
+    // KEYS[1]: 원장, ARGV[1]: 인스턴스 ID, ARGV[2]: 만료 시각 필드
+    // 반납할 때 원장 항목을 지움, 이미 회수됐으면 -1
+    private static final String RETURN_SCRIPT = """
+            if redis.call('HDEL', KEYS[1], ARGV[1]) == 0 then
+                return -1
+            end
+            redis.call('HDEL', KEYS[1], ARGV[2])
+            return 1
+            """;
+
+    // KEYS[1]: 원장, ARGV[1]: 만료 후 회수까지 기다리는 시간(ms), ARGV[2]: 만료 시각 필드 suffix
+    // 만료된 지 오래된 항목의 미확정 수량을 합산해서 반환하고 항목을 지운다
+    private static final String RECLAIM_SCRIPT = """
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local entries = redis.call('HGETALL', KEYS[1])
+            local suffix = ARGV[2]
+            local reclaimed = 0
+            for i = 1, #entries, 2 do
+                local field = entries[i]
+                if string.sub(field, -#suffix) == suffix and tonumber(entries[i + 1]) + tonumber(ARGV[1]) < now then
+                    local holder = string.sub(field, 1, #field - #suffix)
+                    reclaimed = reclaimed + tonumber(redis.call('HGET', KEYS[1], holder) or '0')
+                    redis.call('HDEL', KEYS[1], holder, field)
+                end
+            end
+            return reclaimed
+            """;
+
+    private final CouponQuantityService couponQuantityService;
+    private final RedissonClient redissonClient;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<Long, Lease> leases = new ConcurrentHashMap<>();
+    private final Map<Long, Object> refillLocks = new ConcurrentHashMap<>();
+
+    @Value("${coupon.lease.block-size:50}")
+    private long initialBlockSize;
+
+    @Value("${coupon.lease.ttl-millis:5000}")
+    private long leaseTtlMillis;
+
+    @Value("${coupon.lease.reclaim-after-millis:30000}")
+    private long reclaimAfterMillis;
+
+    /**
+     * 로컬 lease에서 수량 1개를 가져옴, lease가 없거나 소진되면 Redis에서 새 블록을 가져온다
+     * @param policyId 쿠폰 정책 ID
+     */
+    public void acquire(Long policyId) {
+        while (true) {
+            Lease lease = leases.get(policyId);
+            if (lease != null && !lease.isExpired(System.currentTimeMillis())) {
+                long position = lease.take();
+                if (position > 0 && (position <= lease.committed || commit(policyId, lease, position))) {
+                    return;
+                }
+            }
+            if (!refill(policyId, lease)) {
+                throw new CouponSoldOutException();
+            }
+        }
+    }
+
+    // 만료된 lease의 남은 수량을 반납
+    @Scheduled(fixedDelayString = "${coupon.lease.ttl-millis:5000}")
+    public void returnExpiredLeases() {
+        long now = System.currentTimeMillis();
+        leases.forEach((policyId, lease) -> {
+            if (lease.isExpired(now)) {
+                synchronized (refillLock(policyId)) {
+                    if (leases.remove(policyId, lease)) {
+                        returnLeftover(policyId, lease);
+                    }
+                }
+            }
+        });
+    }
+
+    // 비정상 종료된 인스턴스의 lease를 회수해서 반납 (이 인스턴스가 임대한 적 있는 정책만 확인)
+    @Scheduled(fixedDelayString = "${coupon.lease.ttl-millis:5000}")
+    public void reclaimAbandonedLeases() {
+        for (Long policyId : refillLocks.keySet()) {
+            long reclaimed = eval(RECLAIM_SCRIPT, policyId, reclaimAfterMillis, EXPIRES_AT_SUFFIX);
+            if (reclaimed > 0) {
+                couponQuantityService.giveBack(policyId, reclaimed);
+                log.warn("Reclaimed abandoned coupon lease: policyId={}, reclaimed={}", policyId, reclaimed);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void returnAllLeases() {
+        leases.forEach((policyId, lease) -> {
+            synchronized (refillLock(policyId)) {
+                if (leases.remove(policyId, lease)) {
+                    returnLeftover(policyId, lease);
+                }
+            }
+        });
+    }
+
+    private boolean refill(Long policyId, Lease current) {
+        synchronized (refillLock(policyId)) {
+            Lease latest = leases.get(policyId);
+            if (latest != current) {
+                return true; // 다른 스레드가 이미 새 블록을 가져옴
+            }
+
+            long blockSize = nextBlockSize(current);
+            if (current != null) {
+                leases.remove(policyId);
+                returnLeftover(policyId, current);
+            }
+
+            long leased = couponQuantityService.lease(policyId, blockSize);
+            if (leased <= 0) {
+                return false;
+            }
+            Lease lease = new Lease(leased, System.currentTimeMillis() + leaseTtlMillis);
+            try {
+                ledger(policyId).putAll(Map.of(instanceId, leased, instanceId + EXPIRES_AT_SUFFIX, lease.expiresAt));
+            } catch (RuntimeException e) {
+                couponQuantityService.giveBack(policyId, leased);
+                throw e;
+            }
+            leases.put(policyId, lease);
+            log.debug("Leased coupon quantity: policyId={}, leased={}", policyId, leased);
+            return true;
+        }
+    }
+
+    // position번째까지 나눠줄 수 있도록 원장에서 확정, 회수된 lease면 false
+    private boolean commit(Long policyId, Lease lease, long position) {
+        synchronized (refillLock(policyId)) {
+            while (lease.committed < position) {
+                if (lease.reclaimed) {
+                    return false;
+                }
+                if (leases.get(policyId) != lease) {
+                    return true; // 이미 반납된 lease, 반납할 때 이 수량은 나눠준 것으로 계산됨
+                }
+                long amount = Math.min(lease.size - lease.committed, Math.max(1, lease.size / COMMIT_PARTS));
+                if (eval(COMMIT_SCRIPT, policyId, instanceId, amount) < 0) {
+                    lease.reclaimed = true;
+                    leases.remove(policyId, lease);
+                    lease.retire();
+                    log.warn("Coupon lease was reclaimed: policyId={}", policyId);
+                    return false;
+                }
+                lease.committed += amount;
+            }
+            return true;
+        }
+    }
+
+    // 직전 블록의 소진 속도(개/ms) * LEASE_TARGET_MILLIS 로 다음 블록 크기 결정
+    private long nextBlockSize(Lease previous) {
+        if (previous == null) {
+            return initialBlockSize;
+        }
+        long elapsed = Math.max(1, System.currentTimeMillis() - previous.leasedAt);
+        long used = previous.used();
+        long blockSize = used * LEASE_TARGET_MILLIS / elapsed;
+        return Math.max(MIN_BLOCK_SIZE, Math.min(MAX_BLOCK_SIZE, blockSize));
+    }
+
+    private void returnLeftover(Long policyId, Lease lease) {
+        long leftover = lease.retire();
+        // 회수된 lease면 미확정 수량은 이미 반납됨
+        if (lease.reclaimed || eval(RETURN_SCRIPT, policyId, instanceId, instanceId + EXPIRES_AT_SUFFIX) < 0) {
+            lease.reclaimed = true;
+            log.warn("Coupon lease was reclaimed before return: policyId={}, leftover={}", policyId, leftover);
+            return;
+        }
+        couponQuantityService.giveBack(policyId, leftover);
+        log.debug("Returned coupon lease: policyId={}, leftover={}", policyId, leftover);
+    }
+
+    private RMap<String, Long> ledger(Long policyId) {
+        return redissonClient.getMap(CouponRedisKeys.lease(policyId),
+                new CompositeCodec(StringCodec.INSTANCE, LongCodec.INSTANCE));
+    }
+
+    private long eval(String script, Long policyId, Object... args) {
+        Long result = redissonClient.getScript(StringCodec.INSTANCE).eval(
+                RScript.Mode.READ_WRITE,
+                script,
+                RScript.ReturnType.INTEGER,
+                List.of(CouponRedisKeys.lease(policyId)),
+                Arrays.stream(args).map(String::valueOf).toArray());
+        return result;
+    }
+
+    private Object refillLock(Long policyId) {
+        return refillLocks.computeIfAbsent(policyId, id -> new Object());
+    }
+
+    private static final class Lease {
+        private final long size;
+        private final long leasedAt = System.currentTimeMillis();
+        private final long expiresAt;
+        private final AtomicLong taken = new AtomicLong();
+        private volatile long committed; // 원장에서 확정한 수량, 이만큼까지만 나눠줄 수 있음 (refillLock 안에서만 변경)
+        private volatile boolean reclaimed;
+
+        private Lease(long size, long expiresAt) {
+            this.size = size;
+            this.expiresAt = expiresAt;
+        }
+
+        // 이번에 나눠줄 순번(1부터), 이미 소진(또는 반납)된 lease면 0
+        long take() {
+            long position = taken.incrementAndGet();
+            return position <= size ? position : 0;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+
+        long used() {
+            return Math.min(size, taken.get());
+        }
+
+        // 이후의 take는 모두 실패하게 만들고 나눠주지 않은 수량을 반환
+        long retire() {
+            return Math.max(0, size - taken.getAndSet(size));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.practice.couponservice.service.v3;
+
+import com.practice.couponservice.dto.v3.CouponDto;
+import lombok.RequiredArgsConstructor;
+import org.redisson.api.AutoClaimResult;
+import org.redisson.api.RStream;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.StreamMessageId;
+import org.redisson.api.stream.StreamAddArgs;
+import org.redisson.api.stream.StreamCreateGroupArgs;
+import org.redisson.api.stream.StreamReadGroupArgs;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 쿠폰 발급 요청 outbox (Redis stream, coupon.outbox.enabled=true)
+ * 요청 처리 중에는 stream에 XADD 한 번만 하고, Kafka 전송은 CouponOutboxRelay가 배치로 처리한다
+ * relay는 consumer group으로 읽고 Kafka 전송이 확인된 항목만 ack/삭제하므로
+ * 전송에 실패하거나 relay 인스턴스가 죽어도 pending으로 남아 다시 전송된다 (at-least-once)
+ */
+@Component
+@RequiredArgsConstructor
+public class CouponOutbox {
+
+    static final String OUTBOX_KEY = "coupon:outbox";
+    static final String RELAY_GROUP = "coupon-outbox-relay";
+
+    private static final String POLICY_ID = "policyId";
+    private static final String USER_ID = "userId";
+    private static final String REQUEST_ID = "requestId";
+
+    private final RedissonClient redissonClient;
+
+    public void append(CouponDto.IssueMessage message) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put(POLICY_ID, String.valueOf(message.getPolicyId()));
+        fields.put(USER_ID, String.valueOf(message.getUserId()));
+        if (message.getRequestId() != null) {
+            fields.put(REQUEST_ID, message.getRequestId());
+        }
+        stream().add(StreamAddArgs.entries(fields));
+    }
+
+    // relay consumer group 생성 (이미 있으면 무시)
+    void createGroup() {
+        RStream<String, String> stream = stream();
+        if (stream.isExists() && stream.listGroups().stream().anyMatch(group -> RELAY_GROUP.equals(group.getName()))) {
+            return;
+        }
+        try {
+            stream.createGroup(StreamCreateGroupArgs.name(RELAY_GROUP).makeStream());
+        } catch (RedisException e) {
+            if (e.getMessage() == null || !e.getMessage().contains("BUSYGROUP")) { // 다른 인스턴스가 먼저 생성한 경우만 무시
+                throw e;
+            }
+        }
+    }
+
+    // 아직 어떤 relay에도 전달되지 않은 항목
+    Map<StreamMessageId, CouponDto.IssueMessage> readNew(String consumer, int count) {
+        return toMessages(stream().readGroup(RELAY_GROUP, consumer, StreamReadGroupArgs.neverDelivered().count(count)));
+    }
+
+    // 전달됐지만 idleMillis 동안 ack되지 않은 항목 (전송 실패, relay 인스턴스 종료)
+    Map<StreamMessageId, CouponDto.IssueMessage> claimStale(String consumer, long idleMillis, int count) {
+        AutoClaimResult<String, String> result = stream().autoClaim(
+                RELAY_GROUP, consumer, idleMillis, TimeUnit.MILLISECONDS, StreamMessageId.MIN, count);
+        return toMessages(result.getMessages());
+    }
+
+    // Kafka 전송이 확인된 항목 ack 후 stream에서 삭제
+    void acknowledge(StreamMessageId... ids) {
+        RStream<String, String> stream = stream();
+        stream.ack(RELAY_GROUP, ids);
+        stream.remove(ids);
+    }
+
+    private Map<StreamMessageId, CouponDto.IssueMessage> toMessages(Map<StreamMessageId, Map<String, String>> entries) {
+        Map<StreamMessageId, CouponDto.IssueMessage> messages = new LinkedHashMap<>();
+        entries.forEach((id, fields) -> messages.put(id, CouponDto.IssueMessage.builder()
+                .policyId(Long.valueOf(fields.get(POLICY_ID)))
+                .userId(Long.valueOf(fields.get(USER_ID)))
+                .requestId(fields.get(REQUEST_ID))
+                .build()));
+        return messages;
+    }
+
+    private RStream<String, String> stream() {
+        return redissonClient.getStream(OUTBOX_KEY, StringCodec.INSTANCE);
+    }
+}
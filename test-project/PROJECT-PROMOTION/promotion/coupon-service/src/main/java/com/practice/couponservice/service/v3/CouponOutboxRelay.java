@@ -0,0 +1,96 @@
+package com.practice.couponservice.service.v3;
+
+import com.practice.couponservice.dto.v3.CouponDto;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.StreamMessageId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * coupon:outbox에 쌓인 발급 요청을 coupon-issue-requests로 배치 전송
+ * 한 번에 batch-size만큼 send 해두고 flush 하므로 producer 배치(linger.ms, batch.size)와 압축이 적용된다
+ * Kafka ack를 받은 항목만 outbox에서 삭제하고, 실패한 항목은 pending으로 남아 claim-idle-millis 이후 다시 전송
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "coupon.outbox.enabled", havingValue = "true")
+public class CouponOutboxRelay {
+
+    private static final String TOPIC = "coupon-issue-requests";
+    private static final long SEND_TIMEOUT_SECONDS = 10;
+
+    private final CouponOutbox couponOutbox;
+    private final KafkaTemplate<String, CouponDto.IssueMessage> kafkaTemplate;
+
+    private final String consumerName = UUID.randomUUID().toString();
+
+    @Value("${coupon.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${coupon.outbox.claim-idle-millis:30000}")
+    private long claimIdleMillis;
+
+    @PostConstruct
+    public void init() {
+        couponOutbox.createGroup();
+    }
+
+    // batch-size만큼 모두 전송됐으면 남은 항목이 있을 수 있으므로 바로 이어서 처리 (실패가 있으면 다음 주기로)
+    @Scheduled(fixedDelayString = "${coupon.outbox.relay-interval-millis:100}")
+    public void relay() {
+        int relayed;
+        do {
+            relayed = send(couponOutbox.readNew(consumerName, batchSize));
+        } while (relayed == batchSize);
+    }
+
+    // 다른 relay가 가져갔다가 처리하지 못한 항목 재전송
+    @Scheduled(fixedDelayString = "${coupon.outbox.claim-idle-millis:30000}")
+    public void relayStale() {
+        send(couponOutbox.claimStale(consumerName, claimIdleMillis, batchSize));
+    }
+
+    private int send(Map<StreamMessageId, CouponDto.IssueMessage> messages) {
+        if (messages.isEmpty()) {
+            return 0;
+        }
+
+        Map<StreamMessageId, CompletableFuture<SendResult<String, CouponDto.IssueMessage>>> futures = new LinkedHashMap<>();
+        messages.forEach((id, message) ->
+                futures.put(id, kafkaTemplate.send(TOPIC, String.valueOf(message.getPolicyId()), message)));
+        kafkaTemplate.flush();
+
+        List<StreamMessageId> sent = new ArrayList<>();
+        futures.forEach((id, future) -> {
+            try {
+                future.get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                sent.add(id);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("Unable to relay coupon issue request: id={}, error={}", id, e.getMessage());
+            }
+        });
+
+        if (!sent.isEmpty()) {
+            couponOutbox.acknowledge(sent.toArray(StreamMessageId[]::new));
+        }
+        log.debug("Relayed coupon issue requests: sent={}, failed={}", sent.size(), messages.size() - sent.size());
+        return sent.size();
+    }
+}
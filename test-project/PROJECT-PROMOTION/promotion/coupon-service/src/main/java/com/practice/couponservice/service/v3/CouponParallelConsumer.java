@@ -0,0 +1,89 @@
+package com.practice.couponservice.service.v3;
+
+import com.practice.couponservice.dto.v3.CouponDto;
+import com.practice.couponservice.entity.Coupon;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * coupon.consumer.parallel-enabled=true 일 때 CouponConsumer 대신 사용
+ * 파티션 수(리스너 concurrency)보다 많은 스레드로 쿠폰을 저장한다
+ *
+ * - 메시지는 (policyId, userId)의 hash로 고른 worker(단일 스레드)에 넘기므로 같은 유저의 같은 정책 요청은 순서대로 처리된다
+ *   (Kafka 키가 policyId라서 인기 정책은 한 파티션에 몰리지만, 그 안에서도 유저별로 나눠 병렬 처리됨)
+ * - 처리가 끝난 메시지는 worker 스레드에서 ack 한다 (AckMode.MANUAL + asyncAcks)
+ *   컨테이너는 순서가 어긋난 ack를 모아두고 앞쪽 오프셋이 모두 ack된 연속 구간까지만 커밋한다
+ *   이전 poll의 메시지가 모두 ack될 때까지 컨슈머를 pause 하므로 처리 중인 메시지는 파티션당 max.poll.records개를 넘지 않는다
+ * - 리밸런싱/재시작 시 커밋되지 않은 메시지는 다시 처리된다 (기존과 같은 at-least-once)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "coupon.consumer.parallel-enabled", havingValue = "true")
+public class CouponParallelConsumer {
+
+    private final CouponService couponService;
+    private final CouponIssueResultService couponIssueResultService;
+    private final ExecutorService[] workers;
+
+    public CouponParallelConsumer(CouponService couponService,
+                                  CouponIssueResultService couponIssueResultService,
+                                  @Value("${coupon.consumer.parallel-workers:8}") int workerCount) {
+        this.couponService = couponService;
+        this.couponIssueResultService = couponIssueResultService;
+        this.workers = new ExecutorService[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = Executors.newSingleThreadExecutor();
+        }
+    }
+
+    @KafkaListener(topics = "coupon-issue-requests", groupId = "coupon-service", containerFactory = "couponKafkaListenerContainerFactory")
+    public void consumeCouponIssueRequest(ConsumerRecord<String, CouponDto.IssueMessage> record, Acknowledgment ack) {
+        CouponDto.IssueMessage message = record.value();
+        workers[worker(message)].execute(() -> {
+            try {
+                issueCoupon(message);
+            } finally {
+                ack.acknowledge();
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // 넘겨받은 메시지까지는 처리하고 종료 (ack되지 않은 메시지는 다음 컨슈머가 다시 처리)
+        for (ExecutorService worker : workers) {
+            worker.shutdown();
+        }
+        for (ExecutorService worker : workers) {
+            worker.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    int worker(CouponDto.IssueMessage message) {
+        return Math.floorMod(Objects.hash(message.getPolicyId(), message.getUserId()), workers.length);
+    }
+
+    private void issueCoupon(CouponDto.IssueMessage message) {
+        Coupon coupon;
+        try {
+            coupon = couponService.issueCoupon(message);
+        } catch (Exception e) {
+            log.error("Failed to process coupon issue request: {}", e.getMessage(), e);
+            couponIssueResultService.failed(message, e.getMessage());
+            return;
+        }
+        // 발급이 커밋된 뒤이므로 결과 전달이 실패해도 FAILED를 보내지 않음
+        couponIssueResultService.issued(message, coupon.getId());
+    }
+}
@@ -3,6 +3,7 @@ package com.practice.couponservice.service.v3;
 import com.practice.couponservice.dto.v3.CouponDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
@@ -13,8 +14,18 @@ public class CouponProducer {
 
     private static final String TOPIC = "coupon-issue-requests";
     private final KafkaTemplate<String, CouponDto.IssueMessage> kafkaTemplate;
+    private final CouponOutbox couponOutbox;
+
+    // true면 outbox(Redis stream)에 기록만 하고 전송은 CouponOutboxRelay가 배치로 처리
+    @Value("${coupon.outbox.enabled:false}")
+    private boolean outboxEnabled;
 
     public void sendCouponIssueRequest(CouponDto.IssueMessage message) {
+        if (outboxEnabled) {
+            couponOutbox.append(message);
+            return;
+        }
+
         kafkaTemplate.send(TOPIC, String.valueOf(message.getPolicyId()), message)// key, value, message
                 .whenComplete((result, ex) -> {
                     if (ex == null) {
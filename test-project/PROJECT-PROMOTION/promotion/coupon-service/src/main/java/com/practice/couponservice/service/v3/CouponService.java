@@ -5,20 +5,35 @@ import com.practice.couponservice.config.UserIdInterceptor;
 import com.practice.couponservice.dto.v3.CouponDto;
 import com.practice.couponservice.entity.Coupon;
 import com.practice.couponservice.entity.CouponPolicy;
+import com.practice.couponservice.exception.CouponAlreadyUsedException;
 import com.practice.couponservice.exception.CouponIssueException;
 import com.practice.couponservice.exception.CouponNotFoundException;
+import com.practice.couponservice.exception.CouponSoldOutException;
 import com.practice.couponservice.repository.CouponRepository;
+import com.practice.couponservice.service.CouponRedisKeys;
+import com.practice.couponservice.service.v2.CouponIssueMode;
+import com.practice.couponservice.service.v2.CouponIssuedCache;
 import com.practice.couponservice.service.v2.CouponPolicyService;
+import com.practice.couponservice.service.v2.CouponQuantityService;
+import com.practice.couponservice.service.v2.CouponSoldOutCache;
 import com.practice.couponservice.service.v2.CouponStateService;
+import com.practice.couponservice.service.v2.CouponWalletIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RAtomicLong;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -27,8 +42,6 @@ import java.util.concurrent.TimeUnit;
 @RequiredArgsConstructor
 public class CouponService {
 
-    private static final String COUPON_QUANTITY_KEY = "coupon:quantity:";
-    private static final String COUPON_LOCK_KEY = "coupon:lock:";
     private static final long LOCK_WAIT_TIME = 3L;
     private static final long LOCK_LEASE_TIME = 5L;
 
@@ -37,13 +50,107 @@ public class CouponService {
     private final CouponProducer couponProducer;
     private final CouponStateService couponStateService;
     private final CouponPolicyService couponPolicyService; // v2 사용
+    private final CouponQuantityService couponQuantityService; // v2 사용
+    private final CouponLeaseService couponLeaseService;
+    private final CouponIssuedCache couponIssuedCache; // v2 사용
+    private final CouponWalletIndex couponWalletIndex; // v2 사용
+    private final CouponSoldOutCache couponSoldOutCache; // v2 사용
+    private final CouponWaitingRoom couponWaitingRoom;
+
+    @Value("${coupon.issue.mode:SCRIPT}")
+    private CouponIssueMode issueMode;
+
+    @Value("${coupon.waiting-room.enabled:false}")
+    private boolean waitingRoomEnabled;
 
 
     @Transactional(readOnly = true)
     @CouponMetered(version = "v3")
-    public void requestCouponIssue(CouponDto.IssueRequest request){
-        String quantityKey = COUPON_QUANTITY_KEY + request.getCouponPolicyId();
-        String lockKey = COUPON_LOCK_KEY + request.getCouponPolicyId();
+    public String requestCouponIssue(CouponDto.IssueRequest request){
+        // 소진된 정책이면 락/Redis 호출 없이 거절
+        couponSoldOutCache.rejectIfSoldOut(request.getCouponPolicyId());
+        // 대기열을 사용하면 입장 허가된 토큰만 발급 요청 가능 (허가는 한 번 사용, 발급 요청이 실패하면 되돌림)
+        Long admissionExpiresAt = null;
+        if (waitingRoomEnabled) {
+            admissionExpiresAt = couponWaitingRoom.consume(
+                    request.getCouponPolicyId(), UserIdInterceptor.getCurrentUserId(), request.getWaitingToken());
+            if (admissionExpiresAt == null) {
+                throw new CouponIssueException("대기열 입장 허가 후 다시 요청해주세요.");
+            }
+        }
+        String requestId = UUID.randomUUID().toString();
+        try {
+            if (issueMode == CouponIssueMode.LOCK) {
+                requestCouponIssueWithLock(request, requestId);
+            } else {
+                requestCouponIssueWithQuantity(request, requestId);
+            }
+        } catch (CouponSoldOutException e) {
+            couponSoldOutCache.markSoldOut(request.getCouponPolicyId(), issueMode != CouponIssueMode.LEASE);
+            restoreAdmission(request, admissionExpiresAt);
+            throw e;
+        } catch (RuntimeException e) {
+            restoreAdmission(request, admissionExpiresAt);
+            throw e;
+        }
+        return requestId;
+    }
+
+    private void restoreAdmission(CouponDto.IssueRequest request, Long admissionExpiresAt) {
+        if (admissionExpiresAt != null) {
+            couponWaitingRoom.restore(request.getCouponPolicyId(), UserIdInterceptor.getCurrentUserId(),
+                    request.getWaitingToken(), admissionExpiresAt);
+        }
+    }
+
+    // 스크립트/임대 수량 기반 발급 요청 (coupon.issue.mode=SCRIPT, LEASE)
+    private void requestCouponIssueWithQuantity(CouponDto.IssueRequest request, String requestId) {
+        CouponPolicy couponPolicy = couponPolicyService.getCouponPolicy(request.getCouponPolicyId());
+        Long userId = UserIdInterceptor.getCurrentUserId();
+
+        if (issueMode == CouponIssueMode.LEASE) {
+            LocalDateTime now = LocalDateTime.now();
+            if (now.isBefore(couponPolicy.getStartTime()) || now.isAfter(couponPolicy.getEndTime())) {
+                throw new IllegalStateException("쿠폰 발급 기간이 아닙니다.");
+            }
+            // 중복 발급 체크 후 인스턴스가 임대한 수량에서 로컬로 차감 (블록 소진 시에만 Redis 호출)
+            // 이 인스턴스에서 발급 기록을 확인한 유저의 재요청은 Redis를 호출하지 않고 거절
+            couponIssuedCache.recordIssued(couponPolicy, userId);
+            try {
+                couponLeaseService.acquire(couponPolicy.getId());
+            } catch (CouponSoldOutException e) {
+                couponIssuedCache.forgetIssued(couponPolicy.getId(), userId);
+                throw e;
+            }
+        } else {
+            // 기간/중복/수량 체크 및 차감 (stripe 레이아웃이면 이웃 stripe에서 빌려옴)
+            couponQuantityService.issue(couponPolicy, userId);
+        }
+
+        // Kafka(outbox 모드면 outbox)로 쿠폰 발급 요청 전송, 실패하면 차감한 수량을 되돌린다
+        try {
+            couponProducer.sendCouponIssueRequest(
+                    CouponDto.IssueMessage.builder()
+                            .policyId(request.getCouponPolicyId())
+                            .userId(userId)
+                            .requestId(requestId)
+                            .build()
+            );
+        } catch (RuntimeException e) {
+            if (issueMode == CouponIssueMode.LEASE) {
+                couponQuantityService.giveBack(couponPolicy.getId(), 1);
+                couponIssuedCache.forgetIssued(couponPolicy.getId(), userId);
+            } else {
+                couponQuantityService.release(couponPolicy.getId(), userId);
+            }
+            throw e;
+        }
+    }
+
+    // 분산락 기반 발급 요청 (coupon.issue.mode=LOCK)
+    private void requestCouponIssueWithLock(CouponDto.IssueRequest request, String requestId){
+        String quantityKey = CouponRedisKeys.quantity(request.getCouponPolicyId());
+        String lockKey = CouponRedisKeys.lock(request.getCouponPolicyId());
         RLock lock = redissonClient.getLock(lockKey);
 
         try{
@@ -62,22 +169,34 @@ public class CouponService {
                 throw new IllegalStateException("쿠폰 발급 기간이 아닙니다.");
             }
 
+            // 중복 발급 체크 (발급 기록은 스크립트 모드와 공유)
+            Long userId = UserIdInterceptor.getCurrentUserId();
+            couponQuantityService.recordIssued(couponPolicy, userId);
+
             // 수량 체크 및 감소
             RAtomicLong atomicQuantity = redissonClient.getAtomicLong(quantityKey);
             long remainingQuantity = atomicQuantity.decrementAndGet();
 
             if (remainingQuantity < 0) {
                 atomicQuantity.incrementAndGet();
-                throw new CouponIssueException("쿠폰이 모두 소진되었습니다.");
+                couponQuantityService.forgetIssued(couponPolicy.getId(), userId);
+                throw new CouponSoldOutException();
             }
 
             // Kafka로 쿠폰 발급 요청 전송
-            couponProducer.sendCouponIssueRequest(
-                    CouponDto.IssueMessage.builder()
-                            .policyId(request.getCouponPolicyId())
-                            .userId(UserIdInterceptor.getCurrentUserId())
-                            .build()
-            );
+            try {
+                couponProducer.sendCouponIssueRequest(
+                        CouponDto.IssueMessage.builder()
+                                .policyId(request.getCouponPolicyId())
+                                .userId(userId)
+                                .requestId(requestId)
+                                .build()
+                );
+            } catch (RuntimeException e) {
+                atomicQuantity.incrementAndGet();
+                couponQuantityService.forgetIssued(couponPolicy.getId(), userId);
+                throw e;
+            }
 
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
@@ -89,21 +208,38 @@ public class CouponService {
         }
     }
 
+    /**
+     * 발급 요청 메시지로 쿠폰을 저장
+     * outbox relay는 at-least-once라 같은 요청이 다시 올 수 있으므로, 이미 처리한 requestId면 저장하지 않고 먼저 만든 쿠폰을 돌려준다
+     * (같은 정책의 메시지는 같은 파티션에서 순서대로 처리되므로 조회 후 insert 사이에 경합은 없고, uk_coupon_request_id가 마지막 안전장치)
+     */
     @Transactional
-    public void issueCoupon(CouponDto.IssueMessage message) {
+    public Coupon issueCoupon(CouponDto.IssueMessage message) {
         try {
+            if (message.getRequestId() != null) {
+                Optional<Coupon> issued = couponRepository.findByRequestId(message.getRequestId());
+                if (issued.isPresent()) {
+                    log.info("Duplicate coupon issue request skipped: requestId={}", message.getRequestId());
+                    return issued.get();
+                }
+            }
+
             CouponPolicy policy = couponPolicyService.getCouponPolicy(message.getPolicyId());
             if (policy == null) {
                 throw new IllegalArgumentException("쿠폰 정책을 찾을 수 없습니다.");
             }
 
-            Coupon coupon = couponRepository.save(Coupon.builder()
+            // insert 실패를 커밋 시점이 아니라 여기서 잡아서 로그를 남긴다 (시퀀스 ID라 save만으로는 insert가 미뤄짐)
+            Coupon coupon = couponRepository.saveAndFlush(Coupon.builder()
                     .couponPolicy(policy)
                     .userId(message.getUserId())
                     .couponCode(generateCouponCode())
+                    .requestId(message.getRequestId())
                     .build());
+            couponWalletIndex.invalidate(message.getUserId());
 
             log.info("Coupon issued successfully: policyId={}, userId={}", message.getPolicyId(), message.getUserId());
+            return coupon;
 
         } catch (Exception e) {
             log.error("Failed to issue coupon: {}", e.getMessage());
@@ -111,34 +247,80 @@ public class CouponService {
         }
     }
 
+    // CouponBatchConsumer에서 사용, 정책은 배치 안에서 정책별로 한 번만 조회하고 insert는 JDBC 배치로 처리 (hibernate.jdbc.batch_size)
+    // 이미 처리한 requestId(재전송)와 배치 안에서 중복된 requestId는 새로 저장하지 않고 같은 쿠폰을 돌려준다
+    @Transactional
+    public List<Coupon> issueCoupons(List<CouponDto.IssueMessage> messages) {
+        List<String> requestIds = messages.stream().map(CouponDto.IssueMessage::getRequestId).filter(Objects::nonNull).toList();
+        Map<String, Coupon> issued = new HashMap<>();
+        if (!requestIds.isEmpty()) {
+            couponRepository.findByRequestIdIn(requestIds).forEach(coupon -> issued.put(coupon.getRequestId(), coupon));
+        }
+
+        Map<Long, CouponPolicy> policies = new HashMap<>();
+        List<Coupon> coupons = new ArrayList<>(messages.size());
+        List<Coupon> newCoupons = new ArrayList<>();
+        for (CouponDto.IssueMessage message : messages) {
+            Coupon coupon = message.getRequestId() != null ? issued.get(message.getRequestId()) : null;
+            if (coupon == null) {
+                coupon = Coupon.builder()
+                        .couponPolicy(policies.computeIfAbsent(message.getPolicyId(), couponPolicyService::getCouponPolicy))
+                        .userId(message.getUserId())
+                        .couponCode(generateCouponCode())
+                        .requestId(message.getRequestId())
+                        .build();
+                newCoupons.add(coupon);
+                if (message.getRequestId() != null) {
+                    issued.put(message.getRequestId(), coupon);
+                }
+            }
+            coupons.add(coupon);
+        }
+
+        couponRepository.saveAll(newCoupons); // 저장한 엔티티에 ID가 채워지므로 coupons도 그대로 사용
+        newCoupons.stream().map(Coupon::getUserId).distinct().forEach(couponWalletIndex::invalidate);
+        log.info("Coupons issued in batch: count={}, duplicates={}, policies={}",
+                newCoupons.size(), messages.size() - newCoupons.size(), policies.keySet());
+        return coupons; // messages와 같은 순서
+    }
+
     private String generateCouponCode() {
         return UUID.randomUUID().toString().replace("-", "").substring(0, 12).toUpperCase();
     }
 
 
-    // useCoupon, cancelCoupon은 v2와 동일
+    // useCoupon, cancelCoupon은 v2와 동일 (락 없이 조회/검증하고 조건부 UPDATE 한 문장으로 상태 변경)
     @Transactional
     public Coupon useCoupon(Long couponId, Long orderId) {
-        Coupon coupon = couponRepository.findByIdWithLock(couponId)
+        Coupon coupon = couponRepository.findByIdWithPolicy(couponId)
                 .orElseThrow(() -> new CouponNotFoundException("쿠폰을 찾을 수 없습니다."));
 
-        coupon.use(orderId);
+        coupon.validateUse();
+        LocalDateTime usedAt = LocalDateTime.now();
+        if (couponRepository.use(couponId, coupon.getStatus(), orderId, usedAt) == 0) {
+            throw new CouponAlreadyUsedException("이미 사용된 쿠폰입니다.");
+        }
+        coupon.use(orderId, usedAt);
         couponStateService.updateCouponState(coupon);
+        couponWalletIndex.invalidate(coupon.getUserId());
 
         return coupon;
     }
 
     @Transactional
     public Coupon cancelCoupon(Long couponId) {
-        Coupon coupon = couponRepository.findByIdAndUserId(couponId, UserIdInterceptor.getCurrentUserId())
+        Long userId = UserIdInterceptor.getCurrentUserId();
+        Coupon coupon = couponRepository.findByIdWithPolicy(couponId)
+                .filter(found -> found.getUserId().equals(userId))
                 .orElseThrow(() -> new IllegalArgumentException("쿠폰을 찾을 수 없습니다."));
 
-        if (!coupon.isUsed()) {
+        if (!coupon.isUsed() || couponRepository.cancel(couponId) == 0) {
             throw new IllegalStateException("사용되지 않은 쿠폰은 취소할 수 없습니다.");
         }
 
         coupon.cancel();
         couponStateService.updateCouponState(coupon);
+        couponWalletIndex.invalidate(coupon.getUserId());
 
         return coupon;
     }
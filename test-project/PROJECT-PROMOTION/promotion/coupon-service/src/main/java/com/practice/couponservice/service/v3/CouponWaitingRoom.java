@@ -0,0 +1,319 @@
+package com.practice.couponservice.service.v3;
+
+import com.practice.couponservice.dto.v3.CouponDto;
+import com.practice.couponservice.entity.CouponPolicy;
+import com.practice.couponservice.service.CouponRedisKeys;
+import com.practice.couponservice.service.v2.CouponPolicyService;
+import com.practice.couponservice.service.v2.CouponSoldOutCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RSet;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * v3 발급 앞단의 대기열 (coupon.waiting-room.enabled=true)
+ * 발급 요청이 한꺼번에 락/Redis로 몰리지 않도록, 유저는 대기열에 들어가서 토큰을 받고
+ * admit-rate-per-second 속도로 입장 허가된 토큰만 발급을 요청할 수 있다
+ *
+ * - coupon:{policyId}:queue (sorted set, 토큰 -> 입장 순번), coupon:{policyId}:waiting-tokens (hash, userId -> 토큰)
+ *   같은 유저가 다시 들어오면 기존 토큰과 순서를 그대로 돌려준다
+ * - coupon:{policyId}:admitted (sorted set, 토큰 -> 허가 만료 시각), 허가는 발급 요청 한 번에 소모되고 admission-ttl-seconds가 지나면 만료
+ *   발급 요청이 실패하면 소모한 허가를 원래 만료 시각으로 되돌린다 (restore)
+ * - 입장 허가는 모든 인스턴스가 admit-interval-millis마다 실행하지만 마지막 허가 시각을 Redis에 두고 경과 시간만큼만 허가하므로
+ *   전체 허가 속도는 인스턴스 수와 관계없이 admit-rate-per-second
+ * - 대기/조회/허가 확인은 모두 스크립트 한 번의 호출이고 요청 스레드가 기다리지 않으므로, 대기 인원이 늘어도 응답 시간과 스레드 사용량은 일정하다
+ *   (클라이언트는 순번과 예상 대기 시간을 보고 다시 조회)
+ * - 키는 모두 정책 종료 시각에 만료된다
+ */
+@Slf4j
+@Service
+public class CouponWaitingRoom {
+
+    private static final String WAITING_ROOMS_KEY = "coupon:waiting-rooms"; // 대기열이 있는 정책 ID
+
+    static final long NOT_IN_QUEUE = -1L;
+    static final long ADMITTED = 0L;
+
+    // 유저의 토큰과 순번 조회: 대기 중이면 순번(1부터), 입장 허가 상태면 0, 없으면 -1
+    private static final String POSITION_FUNCTION = """
+            local function position(token, now)
+                local rank = redis.call('ZRANK', KEYS[1], token)
+                if rank then
+                    return rank + 1
+                end
+                local expiresAt = redis.call('ZSCORE', KEYS[3], token)
+                if expiresAt and tonumber(expiresAt) >= now then
+                    return 0
+                end
+                return -1
+            end
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            """;
+
+    // KEYS[1]: queue, KEYS[2]: waiting-tokens, KEYS[3]: admitted, KEYS[4]: 입장 순번 카운터
+    // ARGV[1]: userId, ARGV[2]: 새 토큰, ARGV[3]: 키 만료 시각(epoch ms)
+    // 기존 토큰이 대기 중이거나 허가 상태면 그대로, 아니면(사용했거나 만료) 새 토큰으로 맨 뒤에 줄을 선다
+    private static final String ENTER_SCRIPT = POSITION_FUNCTION + """
+            local token = redis.call('HGET', KEYS[2], ARGV[1])
+            if token then
+                local current = position(token, now)
+                if current >= 0 then
+                    return {token, current}
+                end
+            end
+            token = ARGV[2]
+            redis.call('HSET', KEYS[2], ARGV[1], token)
+            redis.call('ZADD', KEYS[1], redis.call('INCR', KEYS[4]), token)
+            for i = 1, 4 do
+                redis.call('PEXPIREAT', KEYS[i], ARGV[3])
+            end
+            return {token, position(token, now)}
+            """;
+
+    // KEYS[1]: queue, KEYS[2]: waiting-tokens, KEYS[3]: admitted, ARGV[1]: userId
+    private static final String STATUS_SCRIPT = POSITION_FUNCTION + """
+            local token = redis.call('HGET', KEYS[2], ARGV[1])
+            if not token then
+                return {'', -1}
+            end
+            return {token, position(token, now)}
+            """;
+
+    // KEYS[1]: queue, KEYS[2]: admitted, KEYS[3]: 마지막 허가 시각
+    // ARGV[1]: 초당 허가 수, ARGV[2]: 허가 유지 시간(ms), ARGV[3]: 한 번에 허가할 최대 수, ARGV[4]: 키 만료 시각(epoch ms)
+    // 마지막 허가 이후 경과 시간만큼 대기열 앞에서부터 허가하고 허가한 수를 반환
+    private static final String ADMIT_SCRIPT = """
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            redis.call('ZREMRANGEBYSCORE', KEYS[2], '-inf', now - 1)
+            local rate = tonumber(ARGV[1])
+            local stored = redis.call('GET', KEYS[3])
+            local last = tonumber(stored or now)
+            local count = math.min(math.floor((now - last) * rate / 1000), tonumber(ARGV[3]))
+            if count <= 0 then
+                if not stored then
+                    redis.call('SET', KEYS[3], now, 'PXAT', ARGV[4])
+                end
+                return 0
+            end
+            local tokens = redis.call('ZRANGE', KEYS[1], 0, count - 1)
+            for _, token in ipairs(tokens) do
+                redis.call('ZADD', KEYS[2], now + tonumber(ARGV[2]), token)
+            end
+            if #tokens > 0 then
+                redis.call('ZREM', KEYS[1], unpack(tokens))
+                redis.call('PEXPIREAT', KEYS[2], ARGV[4])
+            end
+            -- 대기열이 비면 쌓인 시간을 버려서 나중에 한꺼번에 허가되지 않게 한다
+            local admittedUntil = #tokens < count and now or last + math.floor(count * 1000 / rate)
+            redis.call('SET', KEYS[3], admittedUntil, 'PXAT', ARGV[4])
+            return #tokens
+            """;
+
+    // KEYS[1]: waiting-tokens, KEYS[2]: admitted, ARGV[1]: userId, ARGV[2]: 토큰
+    // 유저의 토큰이 허가 상태면 허가를 소모하고 허가 만료 시각, 아니면 0
+    private static final String CONSUME_SCRIPT = """
+            if redis.call('HGET', KEYS[1], ARGV[1]) ~= ARGV[2] then
+                return 0
+            end
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local expiresAt = redis.call('ZSCORE', KEYS[2], ARGV[2])
+            if not expiresAt or tonumber(expiresAt) < now then
+                return 0
+            end
+            redis.call('ZREM', KEYS[2], ARGV[2])
+            return tonumber(expiresAt)
+            """;
+
+    // KEYS[1]: waiting-tokens, KEYS[2]: admitted
+    // ARGV[1]: userId, ARGV[2]: 토큰, ARGV[3]: 허가 만료 시각(epoch ms), ARGV[4]: 키 만료 시각(epoch ms)
+    // 토큰이 아직 유저의 토큰이면 허가를 되돌린다 (만료된 허가는 다음 admit에서 정리됨)
+    private static final String RESTORE_SCRIPT = """
+            if redis.call('HGET', KEYS[1], ARGV[1]) ~= ARGV[2] then
+                return 0
+            end
+            local restored = redis.call('ZADD', KEYS[2], 'NX', ARGV[3], ARGV[2])
+            redis.call('PEXPIREAT', KEYS[2], ARGV[4])
+            return restored
+            """;
+
+    private final RedissonClient redissonClient;
+    private final CouponPolicyService couponPolicyService;
+    private final CouponSoldOutCache couponSoldOutCache;
+    private final Counter admittedCounter;
+
+    @Value("${coupon.waiting-room.admit-rate-per-second:500}")
+    private long admitRatePerSecond;
+
+    @Value("${coupon.waiting-room.admission-ttl-seconds:30}")
+    private long admissionTtlSeconds;
+
+    public CouponWaitingRoom(RedissonClient redissonClient,
+                             CouponPolicyService couponPolicyService,
+                             CouponSoldOutCache couponSoldOutCache,
+                             MeterRegistry registry) {
+        this.redissonClient = redissonClient;
+        this.couponPolicyService = couponPolicyService;
+        this.couponSoldOutCache = couponSoldOutCache;
+        this.admittedCounter = Counter.builder("coupon.waiting-room.admitted")
+                .description("대기열에서 입장 허가된 수")
+                .register(registry);
+    }
+
+    /**
+     * 대기열에 들어감 (이미 있으면 기존 토큰과 순번)
+     * @param policyId 쿠폰 정책 ID
+     * @param userId 유저 ID
+     */
+    public CouponDto.WaitingTicket enter(Long policyId, Long userId) {
+        CouponPolicy couponPolicy = couponPolicyService.getCouponPolicy(policyId);
+        if (LocalDateTime.now().isAfter(couponPolicy.getEndTime())) {
+            throw new IllegalStateException("쿠폰 발급 기간이 아닙니다.");
+        }
+        couponSoldOutCache.rejectIfSoldOut(policyId);
+
+        List<Object> result = eval(ENTER_SCRIPT, List.of(
+                        CouponRedisKeys.waitingQueue(policyId),
+                        CouponRedisKeys.waitingTokens(policyId),
+                        CouponRedisKeys.admitted(policyId),
+                        CouponRedisKeys.waitingSequence(policyId)),
+                String.valueOf(userId),
+                UUID.randomUUID().toString(),
+                String.valueOf(toEpochMilli(couponPolicy.getEndTime())));
+        waitingRooms().add(String.valueOf(policyId));
+        return ticket(policyId, result);
+    }
+
+    /**
+     * 대기 순번 조회
+     * @param policyId 쿠폰 정책 ID
+     * @param userId 유저 ID
+     */
+    public CouponDto.WaitingTicket getTicket(Long policyId, Long userId) {
+        List<Object> result = eval(STATUS_SCRIPT, List.of(
+                        CouponRedisKeys.waitingQueue(policyId),
+                        CouponRedisKeys.waitingTokens(policyId),
+                        CouponRedisKeys.admitted(policyId)),
+                String.valueOf(userId));
+        return ticket(policyId, result);
+    }
+
+    /**
+     * 입장 허가를 소모 (발급 요청 한 번에 한 번)
+     * @return 소모한 허가의 만료 시각(epoch ms, restore에 전달), 허가된 토큰이 아니면 null
+     */
+    public Long consume(Long policyId, Long userId, String token) {
+        if (token == null) {
+            return null;
+        }
+        Long expiresAt = redissonClient.getScript(StringCodec.INSTANCE).eval(
+                RScript.Mode.READ_WRITE,
+                CONSUME_SCRIPT,
+                RScript.ReturnType.INTEGER,
+                List.of(CouponRedisKeys.waitingTokens(policyId), CouponRedisKeys.admitted(policyId)),
+                String.valueOf(userId), token);
+        return expiresAt > 0 ? expiresAt : null;
+    }
+
+    /**
+     * consume으로 소모한 허가를 되돌림 (발급 요청이 실패한 경우, 같은 토큰으로 다시 요청 가능)
+     * 호출한 쪽의 원래 예외를 가리지 않도록 실패해도 로그만 남긴다
+     * @param expiresAt consume이 반환한 허가 만료 시각
+     */
+    public void restore(Long policyId, Long userId, String token, long expiresAt) {
+        try {
+            CouponPolicy couponPolicy = couponPolicyService.getCouponPolicy(policyId);
+            redissonClient.getScript(StringCodec.INSTANCE).eval(
+                    RScript.Mode.READ_WRITE,
+                    RESTORE_SCRIPT,
+                    RScript.ReturnType.INTEGER,
+                    List.of(CouponRedisKeys.waitingTokens(policyId), CouponRedisKeys.admitted(policyId)),
+                    String.valueOf(userId), token, String.valueOf(expiresAt),
+                    String.valueOf(toEpochMilli(couponPolicy.getEndTime())));
+        } catch (RuntimeException e) {
+            log.warn("Failed to restore waiting room admission: policyId={}, userId={}, error={}", policyId, userId, e.getMessage());
+        }
+    }
+
+    // 발급이 시작된 정책의 대기열에서 입장 허가
+    @Scheduled(fixedDelayString = "${coupon.waiting-room.admit-interval-millis:100}")
+    public void admit() {
+        RSet<String> waitingRooms = waitingRooms();
+        LocalDateTime now = LocalDateTime.now();
+        for (String member : waitingRooms.readAll()) {
+            Long policyId = Long.valueOf(member);
+            try {
+                CouponPolicy couponPolicy = couponPolicyService.getCouponPolicy(policyId);
+                if (now.isAfter(couponPolicy.getEndTime())) {
+                    waitingRooms.remove(member); // 키는 종료 시각에 만료됨
+                    continue;
+                }
+                if (now.isBefore(couponPolicy.getStartTime())) {
+                    continue;
+                }
+                Long admitted = redissonClient.getScript(StringCodec.INSTANCE).eval(
+                        RScript.Mode.READ_WRITE,
+                        ADMIT_SCRIPT,
+                        RScript.ReturnType.INTEGER,
+                        List.of(CouponRedisKeys.waitingQueue(policyId),
+                                CouponRedisKeys.admitted(policyId),
+                                CouponRedisKeys.lastAdmittedAt(policyId)),
+                        String.valueOf(admitRatePerSecond),
+                        String.valueOf(admissionTtlSeconds * 1000),
+                        String.valueOf(admitRatePerSecond),
+                        String.valueOf(toEpochMilli(couponPolicy.getEndTime())));
+                admittedCounter.increment(admitted);
+            } catch (RuntimeException e) {
+                log.error("Failed to admit waiting users: policyId={}, error={}", policyId, e.getMessage());
+            }
+        }
+    }
+
+    private CouponDto.WaitingTicket ticket(Long policyId, List<Object> result) {
+        String token = (String) result.get(0);
+        long position = (Long) result.get(1);
+        if (position == NOT_IN_QUEUE) {
+            return CouponDto.WaitingTicket.builder()
+                    .couponPolicyId(policyId)
+                    .status(CouponDto.WaitingTicket.Status.NONE)
+                    .build();
+        }
+        return CouponDto.WaitingTicket.builder()
+                .couponPolicyId(policyId)
+                .token(token)
+                .status(position == ADMITTED ? CouponDto.WaitingTicket.Status.ADMITTED : CouponDto.WaitingTicket.Status.WAITING)
+                .position(position)
+                .etaSeconds((position + admitRatePerSecond - 1) / admitRatePerSecond)
+                .build();
+    }
+
+    private List<Object> eval(String script, List<Object> keys, Object... args) {
+        return redissonClient.getScript(StringCodec.INSTANCE).eval(
+                RScript.Mode.READ_WRITE,
+                script,
+                RScript.ReturnType.MULTI,
+                keys,
+                args);
+    }
+
+    private RSet<String> waitingRooms() {
+        return redissonClient.getSet(WAITING_ROOMS_KEY, StringCodec.INSTANCE);
+    }
+
+    private long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
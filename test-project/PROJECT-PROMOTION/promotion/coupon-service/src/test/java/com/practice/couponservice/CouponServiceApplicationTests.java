@@ -9,6 +9,7 @@ import com.practice.couponservice.exception.CouponNotFoundException;
 import com.practice.couponservice.repository.CouponPolicyRepository;
 import com.practice.couponservice.repository.CouponRepository;
 import com.practice.couponservice.service.v1.CouponService;
+import com.practice.couponservice.service.v2.CouponWalletIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -39,6 +40,9 @@ class CouponServiceApplicationTests {
     @Mock
     private CouponPolicyRepository couponPolicyRepository;
 
+    @Mock
+    private CouponWalletIndex couponWalletIndex;
+
     private CouponPolicy couponPolicy;
     private Coupon coupon;
     private static final Long TEST_USER_ID = 1L;
@@ -76,8 +80,8 @@ class CouponServiceApplicationTests {
                 .build();
 
         // 쿠폰 정책은 존재하지만, 아직 발급된 쿠폰은 없는 상황
-        when(couponPolicyRepository.findByIdWithLock(any())).thenReturn(Optional.of(couponPolicy)); // findByIdWithLock 메서드가 테스트중 호출되면 인자가 뭐든지 결과값으로 Optional.of(couponPolicy)로 반환하라
-        when(couponRepository.countByCouponPolicyId(any())).thenReturn(0L);
+        when(couponPolicyRepository.findById(any())).thenReturn(Optional.of(couponPolicy)); // findById 메서드가 테스트중 호출되면 인자가 뭐든지 결과값으로 Optional.of(couponPolicy)로 반환하라
+        when(couponPolicyRepository.increaseIssuedQuantity(any())).thenReturn(1); // 남은 수량이 있어서 1건 반영
         when(couponRepository.save(any())).thenReturn(coupon);
 
         // MockedStatic 사용해서 UserIdInterceptor도 mock으로 구현
@@ -94,6 +98,25 @@ class CouponServiceApplicationTests {
         }
     }
 
+    @Test
+    @DisplayName("쿠폰 발급 실패 - 수량 소진")
+    void issuedCoupon_Fail_SoldOut(){
+        //given
+        CouponDto.IssueRequest request = CouponDto.IssueRequest.builder()
+                .couponPolicyId(1L)
+                .build();
+
+        // 조건부 UPDATE가 반영된 row가 없음 (issuedQuantity == totalQuantity)
+        when(couponPolicyRepository.findById(any())).thenReturn(Optional.of(couponPolicy));
+        when(couponPolicyRepository.increaseIssuedQuantity(any())).thenReturn(0);
+
+        //when & then
+        assertThatThrownBy(() -> couponService.issueCoupon(request))
+                .isInstanceOf(CouponIssueException.class)
+                .hasMessage("쿠폰이 모두 소진되었습니다.");
+        verify(couponRepository, never()).save(any());
+    }
+
     @Test
     @DisplayName("쿠폰 사용 성공")
     void useCoupon_Success(){
@@ -0,0 +1,55 @@
+package com.practice.couponservice.aop;
+
+import com.practice.couponservice.exception.CouponIssueException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CouponMetricsAspectTest {
+
+    private SimpleMeterRegistry registry;
+    private TestOperations operations;
+
+    static class TestOperations {
+        @CouponMetered(version = "v2")
+        public String issueCoupon(boolean fail) {
+            if (fail) {
+                throw new CouponIssueException("쿠폰이 모두 소진되었습니다.");
+            }
+            return "OK";
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new TestOperations());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new CouponMetricsAspect(registry));
+        operations = factory.getProxy();
+    }
+
+    @Test
+    @DisplayName("메트릭 - 같은 메서드/결과는 같은 meter에 기록하고, 실패는 예외 타입별로 집계")
+    void measureCouponOperation_ReusesMeters() {
+        operations.issueCoupon(false);
+        operations.issueCoupon(false);
+        assertThatThrownBy(() -> operations.issueCoupon(true)).isInstanceOf(CouponIssueException.class);
+
+        assertThat(registry.get("coupon.operation.success").tag("version", "v2").tag("operation", "issueCoupon")
+                .counter().count()).isEqualTo(2);
+        assertThat(registry.get("coupon.operation.failure").tag("error", "CouponIssueException")
+                .counter().count()).isEqualTo(1);
+
+        Timer success = registry.get("coupon.operation.duration").tag("outcome", "success").timer();
+        assertThat(success.count()).isEqualTo(2);
+        assertThat(registry.get("coupon.operation.duration").tag("outcome", "failure").timer().count()).isEqualTo(1);
+        assertThat(registry.get("coupon.operation.duration").timers()).hasSize(2);
+    }
+}
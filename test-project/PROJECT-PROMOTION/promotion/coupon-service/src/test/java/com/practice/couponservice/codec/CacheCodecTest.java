@@ -0,0 +1,157 @@
+package com.practice.couponservice.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.practice.couponservice.dto.v1.CouponDto;
+import com.practice.couponservice.dto.v1.CouponPolicyDto;
+import com.practice.couponservice.entity.Coupon;
+import com.practice.couponservice.entity.CouponPolicy;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.redisson.codec.Kryo5Codec;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CacheCodecTest {
+
+    private ObjectMapper objectMapper;
+    private CouponPolicy couponPolicy;
+    private CouponDto.Response couponState;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        couponPolicy = CouponPolicy.builder()
+                .id(1L)
+                .name("테스트 쿠폰")
+                .discountType(CouponPolicy.DiscountType.PERCENTAGE)
+                .discountValue(10)
+                .minimumOrderAmount(10000)
+                .maximumDiscountAmount(5000)
+                .totalQuantity(100)
+                .startTime(LocalDateTime.of(2025, 1, 1, 0, 0))
+                .endTime(LocalDateTime.of(2025, 12, 31, 23, 59, 59, 123_000_000))
+                .createdAt(LocalDateTime.of(2024, 12, 1, 10, 30))
+                .updatedAt(LocalDateTime.of(2024, 12, 1, 10, 30))
+                .build();
+
+        couponState = CouponDto.Response.builder()
+                .id(1L)
+                .userId(-1L)
+                .couponCode("ABCDEF123456")
+                .discountType(CouponPolicy.DiscountType.FIXED_AMOUNT)
+                .discountValue(1000)
+                .validFrom(LocalDateTime.of(2025, 1, 1, 0, 0))
+                .validUntil(LocalDateTime.of(2025, 12, 31, 0, 0))
+                .status(Coupon.Status.USED)
+                .orderId(null)
+                .usedAt(LocalDateTime.of(2025, 6, 1, 12, 0))
+                .build();
+    }
+
+    @Test
+    @DisplayName("바이너리 포맷 - 정책 인코딩 후 디코딩하면 같은 값")
+    void binary_PolicyRoundTrip() {
+        CouponPolicyBinaryCodec codec = new CouponPolicyBinaryCodec();
+
+        CouponPolicy decoded = codec.decode(codec.encode(couponPolicy));
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(couponPolicy);
+    }
+
+    @Test
+    @DisplayName("바이너리 포맷 - 쿠폰 상태의 null 필드와 음수 유지")
+    void binary_StateRoundTrip() {
+        CouponStateBinaryCodec codec = new CouponStateBinaryCodec();
+
+        CouponDto.Response decoded = codec.decode(codec.encode(couponState));
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(couponState);
+        assertThat(decoded.getOrderId()).isNull();
+        assertThat(decoded.getUserId()).isEqualTo(-1L);
+    }
+
+    @Test
+    @DisplayName("포맷 판별 - 쓰기 포맷을 바꿔도 이전 포맷 값을 읽을 수 있음")
+    void formatDetecting_ReadsBothFormats() {
+        JsonCacheCodec<CouponPolicy> jsonCodec = new JsonCacheCodec<>(objectMapper, CouponPolicy.class);
+        CouponPolicyBinaryCodec binaryCodec = new CouponPolicyBinaryCodec();
+        CacheCodec<CouponPolicy> codec = new FormatDetectingCacheCodec<>(CacheFormat.BINARY, jsonCodec, binaryCodec);
+
+        byte[] json = jsonCodec.encode(couponPolicy);
+        byte[] binary = codec.encode(couponPolicy);
+
+        assertThat(binary.length).isLessThan(json.length);
+        assertThat(codec.decode(json)).usingRecursiveComparison().isEqualTo(couponPolicy);
+        assertThat(codec.decode(binary)).usingRecursiveComparison().isEqualTo(couponPolicy);
+    }
+
+    @Test
+    @DisplayName("포맷 판별 - 코덱 도입 전에 Redisson 기본 코덱(Kryo5)으로 저장한 JSON 문자열도 읽을 수 있음")
+    void formatDetecting_ReadsLegacyKryoString() throws Exception {
+        CacheCodec<CouponDto.Response> stateCodec = new FormatDetectingCacheCodec<>(CacheFormat.BINARY,
+                new JsonCacheCodec<>(objectMapper, CouponDto.Response.class), new CouponStateBinaryCodec());
+        CacheCodec<CouponPolicy> policyCodec = new FormatDetectingCacheCodec<>(CacheFormat.BINARY,
+                new JsonCacheCodec<>(objectMapper, CouponPolicy.class), new CouponPolicyBinaryCodec());
+
+        // 이전 버전은 응답 DTO를 JSON 문자열로 만들어 RBucket<String>에 저장
+        byte[] legacyState = kryo(objectMapper.writeValueAsString(couponState));
+        byte[] legacyPolicy = kryo(objectMapper.writeValueAsString(CouponPolicyDto.Response.from(couponPolicy)));
+
+        assertThat(stateCodec.decode(legacyState)).usingRecursiveComparison().isEqualTo(couponState);
+        assertThat(policyCodec.decode(legacyPolicy)).usingRecursiveComparison().isEqualTo(couponPolicy);
+    }
+
+    @Test
+    @DisplayName("바이너리 포맷 - 이전 버전(v1, issuedQuantity 없음) 값도 읽을 수 있음")
+    void binary_DecodeOlderVersion() {
+        BinaryWriter writer = new BinaryWriter();
+        writer.writeByte(BinaryCacheCodec.MAGIC);
+        writer.writeByte(1);
+        writer.writeLong(couponPolicy.getId());
+        writer.writeString(couponPolicy.getName());
+        writer.writeString(couponPolicy.getDescription());
+        writer.writeEnum(couponPolicy.getDiscountType());
+        writer.writeInt(couponPolicy.getDiscountValue());
+        writer.writeInt(couponPolicy.getMinimumOrderAmount());
+        writer.writeInt(couponPolicy.getMaximumDiscountAmount());
+        writer.writeInt(couponPolicy.getTotalQuantity());
+        writer.writeDateTime(couponPolicy.getStartTime());
+        writer.writeDateTime(couponPolicy.getEndTime());
+        writer.writeDateTime(couponPolicy.getCreatedAt());
+        writer.writeDateTime(couponPolicy.getUpdatedAt());
+
+        CouponPolicy decoded = new CouponPolicyBinaryCodec().decode(writer.toByteArray());
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(couponPolicy);
+        assertThat(decoded.getIssuedQuantity()).isZero();
+    }
+
+    @Test
+    @DisplayName("바이너리 포맷 - 알 수 없는 버전이면 예외")
+    void binary_UnsupportedVersion() {
+        CouponPolicyBinaryCodec codec = new CouponPolicyBinaryCodec();
+        byte[] bytes = codec.encode(couponPolicy);
+        bytes[1] = 99;
+
+        assertThatThrownBy(() -> codec.decode(bytes))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("지원하지 않는 캐시 포맷 버전");
+    }
+
+    private byte[] kryo(String value) throws Exception {
+        ByteBuf buf = new Kryo5Codec().getValueEncoder().encode(value);
+        try {
+            return ByteBufUtil.getBytes(buf);
+        } finally {
+            buf.release();
+        }
+    }
+}
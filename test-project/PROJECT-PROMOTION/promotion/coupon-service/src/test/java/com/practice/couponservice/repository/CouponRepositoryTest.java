@@ -0,0 +1,143 @@
+package com.practice.couponservice.repository;
+
+import com.practice.couponservice.dto.v1.CouponDto;
+import com.practice.couponservice.entity.Coupon;
+import com.practice.couponservice.entity.CouponPolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class CouponRepositoryTest {
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private CouponPolicyRepository couponPolicyRepository;
+
+    private static final Long TEST_USER_ID = 1L;
+
+    @BeforeEach
+    void setUp() {
+        CouponPolicy couponPolicy = couponPolicyRepository.save(CouponPolicy.builder()
+                .name("테스트 쿠폰")
+                .discountType(CouponPolicy.DiscountType.FIXED_AMOUNT)
+                .discountValue(1000)
+                .minimumOrderAmount(10000)
+                .maximumDiscountAmount(1000)
+                .totalQuantity(100)
+                .startTime(LocalDateTime.now().minusDays(1))
+                .endTime(LocalDateTime.now().plusDays(1))
+                .build());
+
+        for (int i = 0; i < 25; i++) {
+            couponRepository.save(Coupon.builder()
+                    .couponPolicy(couponPolicy)
+                    .userId(i % 5 == 0 ? 2L : TEST_USER_ID) // 다른 유저 쿠폰 섞기
+                    .couponCode("CODE" + i)
+                    .build());
+        }
+    }
+
+    @Test
+    @DisplayName("쿠폰함 - 커서로 이어서 조회하면 중복/누락 없이 최신순으로 모두 조회")
+    void findWalletAfter_PagesThroughAll() {
+        List<CouponDto.WalletItem> all = new ArrayList<>();
+        List<CouponDto.WalletItem> page = couponRepository.findWallet(TEST_USER_ID, Coupon.Status.AVAILABLE, Limit.of(7));
+        while (!page.isEmpty()) {
+            all.addAll(page);
+            CouponDto.WalletItem last = page.get(page.size() - 1);
+            page = couponRepository.findWalletAfter(TEST_USER_ID, Coupon.Status.AVAILABLE,
+                    last.getCreatedAt(), last.getId(), Limit.of(7));
+        }
+
+        assertThat(all).hasSize(20);
+        assertThat(all).extracting(CouponDto.WalletItem::getId).doesNotHaveDuplicates();
+        for (int i = 1; i < all.size(); i++) {
+            CouponDto.WalletItem prev = all.get(i - 1);
+            CouponDto.WalletItem curr = all.get(i);
+            assertThat(!curr.getCreatedAt().isAfter(prev.getCreatedAt())).isTrue();
+            if (curr.getCreatedAt().isEqual(prev.getCreatedAt())) {
+                assertThat(curr.getId()).isLessThan(prev.getId());
+            }
+        }
+        assertThat(all.get(0).getDiscountValue()).isEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("만료 처리 - 종료된 정책의 AVAILABLE 쿠폰만 chunk 단위로 EXPIRED로 변경")
+    void updateStatus_ExpiresEndedPolicyCoupons() {
+        CouponPolicy endedPolicy = couponPolicyRepository.save(CouponPolicy.builder()
+                .name("종료된 쿠폰")
+                .discountType(CouponPolicy.DiscountType.FIXED_AMOUNT)
+                .discountValue(1000)
+                .minimumOrderAmount(10000)
+                .maximumDiscountAmount(1000)
+                .totalQuantity(100)
+                .startTime(LocalDateTime.now().minusDays(2))
+                .endTime(LocalDateTime.now().minusDays(1))
+                .build());
+        for (int i = 0; i < 5; i++) {
+            couponRepository.save(Coupon.builder()
+                    .couponPolicy(endedPolicy)
+                    .userId(TEST_USER_ID)
+                    .couponCode("ENDED" + i)
+                    .build());
+        }
+
+        List<Long> policyIds = couponPolicyRepository.findEndedPolicyIdsWithCouponStatus(LocalDateTime.now(), Coupon.Status.AVAILABLE);
+        assertThat(policyIds).containsExactly(endedPolicy.getId());
+
+        List<Long> chunk = couponRepository.findIdsByCouponPolicyIdAndStatus(endedPolicy.getId(), Coupon.Status.AVAILABLE, Limit.of(3));
+        assertThat(chunk).hasSize(3);
+        assertThat(couponRepository.updateStatus(chunk, Coupon.Status.AVAILABLE, Coupon.Status.EXPIRED)).isEqualTo(3);
+        // 이미 변경된 쿠폰은 다시 변경되지 않음
+        assertThat(couponRepository.updateStatus(chunk, Coupon.Status.AVAILABLE, Coupon.Status.EXPIRED)).isZero();
+
+        List<Long> rest = couponRepository.findIdsByCouponPolicyIdAndStatus(endedPolicy.getId(), Coupon.Status.AVAILABLE, Limit.of(3));
+        assertThat(rest).hasSize(2).doesNotContainAnyElementsOf(chunk);
+    }
+
+    @Test
+    @DisplayName("쿠폰함 커서 - 인코딩 후 디코딩하면 같은 위치")
+    void walletCursor_RoundTrip() {
+        CouponDto.WalletCursor cursor = new CouponDto.WalletCursor(LocalDateTime.of(2025, 1, 1, 12, 0, 0, 123456000), 42L);
+
+        CouponDto.WalletCursor decoded = CouponDto.WalletCursor.decode(cursor.encode());
+
+        assertThat(decoded.getCreatedAt()).isEqualTo(cursor.getCreatedAt());
+        assertThat(decoded.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    @DisplayName("쿠폰 사용/취소 - 조회한 상태가 그대로일 때만 변경 (동시에 같은 쿠폰을 쓰면 하나만 성공)")
+    void useAndCancel_OnlyFromExpectedStatus() {
+        Long couponId = couponRepository.findAll().get(0).getId();
+        LocalDateTime usedAt = LocalDateTime.now();
+
+        assertThat(couponRepository.use(couponId, Coupon.Status.AVAILABLE, 100L, usedAt)).isEqualTo(1);
+        // 같은 AVAILABLE 상태를 보고 들어온 두 번째 요청
+        assertThat(couponRepository.use(couponId, Coupon.Status.AVAILABLE, 200L, usedAt)).isZero();
+
+        Coupon used = couponRepository.findByIdWithPolicy(couponId).orElseThrow();
+        assertThat(used.getStatus()).isEqualTo(Coupon.Status.USED);
+        assertThat(used.getOrderId()).isEqualTo(100L);
+
+        assertThat(couponRepository.cancel(couponId)).isEqualTo(1);
+        assertThat(couponRepository.cancel(couponId)).isZero();
+
+        Coupon cancelled = couponRepository.findByIdWithPolicy(couponId).orElseThrow();
+        assertThat(cancelled.getStatus()).isEqualTo(Coupon.Status.CANCELLED);
+        assertThat(cancelled.getOrderId()).isNull();
+    }
+}
@@ -0,0 +1,27 @@
+package com.practice.couponservice.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CouponRedisKeysTest {
+
+    @Test
+    @DisplayName("Redis 키 - 한 정책(stripe)의 키는 같은 slot, stripe는 서로 다른 hash tag")
+    void keys_SharePolicySlot() {
+        int slot = ClusterSlotHashUtil.calculateSlot(CouponRedisKeys.quantity(1L));
+        assertThat(ClusterSlotHashUtil.calculateSlot(CouponRedisKeys.issuedUsers(1L))).isEqualTo(slot);
+        assertThat(ClusterSlotHashUtil.calculateSlot(CouponRedisKeys.issuedUserBits(1L))).isEqualTo(slot);
+        assertThat(ClusterSlotHashUtil.calculateSlot(CouponRedisKeys.policy(1L))).isEqualTo(slot);
+        assertThat(ClusterSlotHashUtil.calculateSlot(CouponRedisKeys.lock(1L))).isEqualTo(slot);
+
+        assertThat(ClusterSlotHashUtil.calculateSlot(CouponRedisKeys.issuedUsers(1L, 3)))
+                .isEqualTo(ClusterSlotHashUtil.calculateSlot(CouponRedisKeys.quantity(1L, 3)));
+        assertThat(ClusterSlotHashUtil.calculateSlot(CouponRedisKeys.issuedUserBits(1L, 3)))
+                .isEqualTo(ClusterSlotHashUtil.calculateSlot(CouponRedisKeys.quantity(1L, 3)));
+        assertThat(CouponRedisKeys.quantity(1L, 0)).isEqualTo("coupon:{1:0}:quantity");
+        assertThat(CouponRedisKeys.quantity(1L, 1)).isEqualTo("coupon:{1:1}:quantity");
+    }
+}
@@ -0,0 +1,128 @@
+package com.practice.couponservice.service.v2;
+
+import com.practice.couponservice.entity.CouponIssueJob;
+import com.practice.couponservice.repository.CouponIssueJobRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponCampaignRunnerTest {
+
+    @Mock
+    private CouponCampaignService couponCampaignService;
+
+    @Mock
+    private CouponIssueJobRepository couponIssueJobRepository;
+
+    @Mock
+    private CouponQuantityService couponQuantityService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CouponCampaignRunner couponCampaignRunner;
+    private String instanceId;
+    private CouponIssueJob job;
+
+    private static final Long TEST_JOB_ID = 1L;
+    private static final Long TEST_POLICY_ID = 1L;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        couponCampaignRunner = new CouponCampaignRunner(couponCampaignService, couponIssueJobRepository,
+                couponQuantityService, meterRegistry);
+        ReflectionTestUtils.setField(couponCampaignRunner, "chunkSize", 2);
+        ReflectionTestUtils.setField(couponCampaignRunner, "blockSize", 10L);
+        instanceId = (String) ReflectionTestUtils.getField(couponCampaignRunner, "instanceId");
+
+        job = CouponIssueJob.builder()
+                .couponPolicyId(TEST_POLICY_ID)
+                .source(CouponIssueJob.Source.QUERY)
+                .sourcePolicyId(2L)
+                .build();
+        ReflectionTestUtils.setField(job, "id", TEST_JOB_ID);
+        job.claim(instanceId);
+    }
+
+    @Test
+    @DisplayName("대량 발급 실행 - 수량을 block 단위로 가져와 chunk를 처리하고, 끝나면 남은 수량을 반납")
+    void run_CompletesAndGivesBackLeftover() {
+        when(couponQuantityService.lease(TEST_POLICY_ID, 10L)).thenReturn(10L);
+        when(couponCampaignService.reserve(TEST_JOB_ID, instanceId, 10L)).thenAnswer(invocation -> {
+            job.reserve(10L);
+            return job;
+        });
+        when(couponCampaignService.processChunk(TEST_JOB_ID, instanceId))
+                .thenAnswer(invocation -> {
+                    job.advance(2L, 2, 0);
+                    return new CouponCampaignService.ChunkResult(job, List.of(1L, 2L), 0, false, false);
+                })
+                .thenReturn(new CouponCampaignService.ChunkResult(job, List.of(), 0, false, true));
+        when(couponCampaignService.finish(TEST_JOB_ID, instanceId, CouponIssueJob.Status.COMPLETED)).thenReturn(8L);
+
+        couponCampaignRunner.run(job);
+
+        verify(couponQuantityService, times(1)).lease(anyLong(), anyLong()); // 두 번째 chunk는 남은 예약 수량으로 처리
+        verify(couponQuantityService).giveBack(TEST_POLICY_ID, 8L);
+        assertThat(meterRegistry.get("coupon.campaign.issued").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("대량 발급 실행 - 수량이 소진되고 예약 수량도 모자라면 SOLD_OUT으로 종료")
+    void run_SoldOut() {
+        when(couponQuantityService.lease(TEST_POLICY_ID, 10L)).thenReturn(0L);
+        when(couponCampaignService.processChunk(TEST_JOB_ID, instanceId))
+                .thenReturn(new CouponCampaignService.ChunkResult(job, List.of(), 0, true, false));
+
+        couponCampaignRunner.run(job);
+
+        verify(couponCampaignService, never()).reserve(anyLong(), anyString(), anyLong());
+        verify(couponCampaignService).finish(TEST_JOB_ID, instanceId, CouponIssueJob.Status.SOLD_OUT);
+        verify(couponQuantityService).giveBack(TEST_POLICY_ID, 0L);
+    }
+
+    @Test
+    @DisplayName("대량 발급 실행 - 가져온 수량을 작업에 기록하지 못하면 바로 반납하고 중단")
+    void run_GivesBackLeaseWhenReserveFails() {
+        when(couponQuantityService.lease(TEST_POLICY_ID, 10L)).thenReturn(10L);
+        when(couponCampaignService.reserve(TEST_JOB_ID, instanceId, 10L)).thenThrow(new RuntimeException("db unavailable"));
+
+        couponCampaignRunner.run(job);
+
+        verify(couponQuantityService).giveBack(TEST_POLICY_ID, 10L);
+        verify(couponCampaignService, never()).processChunk(anyLong(), anyString());
+        verify(couponCampaignService, never()).finish(anyLong(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("대량 발급 poll - 다른 인스턴스가 먼저 가져간 작업은 건너뛰고 다음 작업을 가져옴")
+    void poll_SkipsJobClaimedByOtherInstance() {
+        when(couponIssueJobRepository.findClaimableIds(any(LocalDateTime.class), any(LocalDateTime.class), any()))
+                .thenReturn(List.of(2L, TEST_JOB_ID));
+        when(couponCampaignService.claim(eq(2L), eq(instanceId), any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(CouponIssueJob.class, 2L));
+        when(couponCampaignService.claim(eq(TEST_JOB_ID), eq(instanceId), any())).thenReturn(job);
+        when(couponQuantityService.lease(TEST_POLICY_ID, 10L)).thenReturn(0L);
+        when(couponCampaignService.processChunk(TEST_JOB_ID, instanceId))
+                .thenReturn(new CouponCampaignService.ChunkResult(job, List.of(), 0, false, true));
+
+        couponCampaignRunner.poll();
+
+        verify(couponCampaignService).failStaleUploads(any(LocalDateTime.class));
+        verify(couponCampaignService, timeout(5000)).finish(TEST_JOB_ID, instanceId, CouponIssueJob.Status.COMPLETED);
+        couponCampaignRunner.shutdown();
+    }
+}
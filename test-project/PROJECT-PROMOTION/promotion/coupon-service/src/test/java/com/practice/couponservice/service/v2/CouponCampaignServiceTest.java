@@ -0,0 +1,194 @@
+package com.practice.couponservice.service.v2;
+
+import com.practice.couponservice.dto.v1.CouponCampaignDto;
+import com.practice.couponservice.entity.Coupon;
+import com.practice.couponservice.entity.CouponIssueJob;
+import com.practice.couponservice.entity.CouponPolicy;
+import com.practice.couponservice.repository.CouponIssueJobRepository;
+import com.practice.couponservice.repository.CouponIssueJobTargetRepository;
+import com.practice.couponservice.repository.CouponPolicyRepository;
+import com.practice.couponservice.repository.CouponRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Import(CouponCampaignService.class)
+class CouponCampaignServiceTest {
+
+    @Autowired
+    private CouponCampaignService couponCampaignService;
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private CouponPolicyRepository couponPolicyRepository;
+
+    @Autowired
+    private CouponIssueJobRepository couponIssueJobRepository;
+
+    @Autowired
+    private CouponIssueJobTargetRepository couponIssueJobTargetRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private CouponQuantityService couponQuantityService;
+
+    private CouponPolicy couponPolicy;
+
+    @BeforeEach
+    void setUp() {
+        couponPolicy = couponPolicyRepository.save(CouponPolicy.builder()
+                .name("캠페인 쿠폰")
+                .discountType(CouponPolicy.DiscountType.FIXED_AMOUNT)
+                .discountValue(1000)
+                .minimumOrderAmount(10000)
+                .maximumDiscountAmount(1000)
+                .totalQuantity(100)
+                .startTime(LocalDateTime.now().minusDays(1))
+                .endTime(LocalDateTime.now().plusDays(1))
+                .build());
+        // 일반 발급으로 이미 쿠폰을 받은 유저
+        couponRepository.save(Coupon.builder().couponPolicy(couponPolicy).userId(3L).couponCode("EXISTING").build());
+    }
+
+    @Test
+    @DisplayName("대량 발급 - 예약 수량만큼만 발급하고, 이미 받은 유저와 목록의 중복은 건너뜀")
+    void processChunk_IssuesWithinReservedQuantity() throws Exception {
+        CouponIssueJob job = couponCampaignService.createUploadJob(couponPolicy.getId(),
+                new ByteArrayInputStream("1\n2\n3\n\n2\n4\n5\n".getBytes(StandardCharsets.UTF_8)));
+        assertThat(job.getTotalTargets()).isEqualTo(6);
+        assertThat(job.getStatus()).isEqualTo(CouponIssueJob.Status.PENDING);
+
+        couponCampaignService.claim(job.getId(), "instance-1", LocalDateTime.now());
+        couponCampaignService.reserve(job.getId(), "instance-1", 2);
+
+        CouponCampaignService.ChunkResult first = couponCampaignService.processChunk(job.getId(), "instance-1");
+        assertThat(first.getIssuedUserIds()).containsExactly(1L, 2L);
+        assertThat(first.getSkipped()).isEqualTo(2); // 3(이미 받음), 2(목록 중복), 건너뛰는 대상은 수량을 쓰지 않음
+        assertThat(first.isQuotaExhausted()).isTrue();
+
+        couponCampaignService.reserve(job.getId(), "instance-1", 10);
+        CouponCampaignService.ChunkResult second = couponCampaignService.processChunk(job.getId(), "instance-1");
+        assertThat(second.getIssuedUserIds()).containsExactly(4L, 5L);
+
+        assertThat(couponCampaignService.processChunk(job.getId(), "instance-1").isDone()).isTrue();
+        assertThat(couponCampaignService.finish(job.getId(), "instance-1", CouponIssueJob.Status.COMPLETED)).isEqualTo(8);
+
+        CouponIssueJob finished = second.getJob();
+        assertThat(finished.getIssuedCount()).isEqualTo(4);
+        assertThat(finished.getProcessedCount()).isEqualTo(6);
+        assertThat(couponRepository.findUserIdsByCouponPolicyIdAndUserIdIn(couponPolicy.getId(), List.of(1L, 2L, 3L, 4L, 5L)))
+                .hasSize(5);
+    }
+
+    @Test
+    @DisplayName("대량 발급 - 다른 인스턴스가 이어받으면 cursor 이후부터 처리하고, 이전 인스턴스는 더 이상 처리하지 못함")
+    void claim_ResumesFromCursor() throws Exception {
+        CouponIssueJob job = couponCampaignService.createUploadJob(couponPolicy.getId(),
+                new ByteArrayInputStream("1\n2\n4\n".getBytes(StandardCharsets.UTF_8)));
+        couponCampaignService.claim(job.getId(), "instance-1", LocalDateTime.now());
+        couponCampaignService.reserve(job.getId(), "instance-1", 1);
+        couponCampaignService.processChunk(job.getId(), "instance-1");
+
+        // heartbeat가 끊긴 것으로 보고 다른 인스턴스가 가져감
+        assertThat(couponCampaignService.claim(job.getId(), "instance-2", LocalDateTime.now().plusMinutes(1))).isNotNull();
+        assertThatThrownBy(() -> couponCampaignService.processChunk(job.getId(), "instance-1"))
+                .isInstanceOf(IllegalStateException.class);
+
+        couponCampaignService.reserve(job.getId(), "instance-2", 10);
+        CouponCampaignService.ChunkResult resumed = couponCampaignService.processChunk(job.getId(), "instance-2");
+
+        assertThat(resumed.getIssuedUserIds()).containsExactly(2L, 4L);
+        assertThat(resumed.getJob().getIssuedCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("대량 발급 업로드 - 잘못된 유저 ID가 있으면 저장한 대상과 작업을 지움")
+    void createUploadJob_RemovesJobOnInvalidTarget() {
+        assertThatThrownBy(() -> couponCampaignService.createUploadJob(couponPolicy.getId(),
+                new ByteArrayInputStream("1\n2\nabc\n".getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(couponIssueJobRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("대량 발급 - DB에 없어도 Redis에 발급 기록이 있는 유저(일반 발급 처리 중)는 건너뛰고 건너뛴 대상으로 집계")
+    void processChunk_SkipsUsersAlreadyIssuedInRedis() throws Exception {
+        when(couponQuantityService.markIssued(any(), any())).thenReturn(Set.of(2L));
+        CouponIssueJob job = couponCampaignService.createUploadJob(couponPolicy.getId(),
+                new ByteArrayInputStream("1\n2\n4\n".getBytes(StandardCharsets.UTF_8)));
+        couponCampaignService.claim(job.getId(), "instance-1", LocalDateTime.now());
+        couponCampaignService.reserve(job.getId(), "instance-1", 10);
+
+        CouponCampaignService.ChunkResult result = couponCampaignService.processChunk(job.getId(), "instance-1");
+
+        assertThat(result.getIssuedUserIds()).containsExactly(1L, 4L);
+        assertThat(result.getSkipped()).isEqualTo(1);
+        assertThat(result.getJob().getSkippedCount()).isEqualTo(1);
+        assertThat(result.getJob().getProcessedCount()).isEqualTo(3);
+        assertThat(couponRepository.findUserIdsByCouponPolicyIdAndUserIdIn(couponPolicy.getId(), List.of(2L))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("대량 발급 - 발급 시작 시각 전인 정책의 작업은 가져가지 않음")
+    void claim_WaitsForPolicyStartTime() {
+        CouponPolicy upcoming = couponPolicyRepository.save(CouponPolicy.builder()
+                .name("예정 쿠폰")
+                .discountType(CouponPolicy.DiscountType.FIXED_AMOUNT)
+                .discountValue(1000)
+                .minimumOrderAmount(10000)
+                .maximumDiscountAmount(1000)
+                .totalQuantity(100)
+                .startTime(LocalDateTime.now().plusHours(1))
+                .endTime(LocalDateTime.now().plusDays(1))
+                .build());
+        CouponIssueJob job = couponCampaignService.createQueryJob(CouponCampaignDto.QueryRequest.builder()
+                .couponPolicyId(upcoming.getId())
+                .sourcePolicyId(couponPolicy.getId())
+                .build());
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThat(couponIssueJobRepository.findClaimableIds(now, now, Limit.of(10))).doesNotContain(job.getId());
+        assertThat(couponCampaignService.claim(job.getId(), "instance-1", now)).isNull();
+        assertThat(couponIssueJobRepository.findClaimableIds(now.plusHours(2), now, Limit.of(10))).contains(job.getId());
+    }
+
+    @Test
+    @DisplayName("대량 발급 업로드 - heartbeat가 끊긴 업로드 중 작업은 FAILED로 끝내고 저장한 대상을 지움")
+    void failStaleUploads_FailsAbandonedUpload() {
+        CouponIssueJob job = couponIssueJobRepository.saveAndFlush(CouponIssueJob.builder()
+                .couponPolicyId(couponPolicy.getId())
+                .source(CouponIssueJob.Source.UPLOAD)
+                .build());
+        jdbcTemplate.update("INSERT INTO coupon_issue_job_targets (job_id, seq, user_id) VALUES (?, 0, 1)", job.getId());
+
+        assertThat(couponCampaignService.failStaleUploads(LocalDateTime.now().minusMinutes(1))).isZero();
+        assertThat(couponCampaignService.failStaleUploads(LocalDateTime.now().plusMinutes(1))).isEqualTo(1);
+
+        assertThat(couponIssueJobRepository.findById(job.getId()).orElseThrow().getStatus())
+                .isEqualTo(CouponIssueJob.Status.FAILED);
+        assertThat(couponIssueJobTargetRepository.count()).isZero();
+    }
+}
@@ -0,0 +1,56 @@
+package com.practice.couponservice.service.v2;
+
+import com.practice.couponservice.entity.CouponPolicy;
+import com.practice.couponservice.exception.CouponIssueException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponIssuedCacheTest {
+
+    @Mock
+    private CouponQuantityService couponQuantityService;
+
+    private CouponIssuedCache couponIssuedCache;
+    private final CouponPolicy couponPolicy = CouponPolicy.builder().id(1L).build();
+
+    @BeforeEach
+    void setUp() {
+        couponIssuedCache = new CouponIssuedCache(couponQuantityService, new SimpleMeterRegistry(), 100, 60);
+    }
+
+    @Test
+    @DisplayName("발급 기록 - 이 인스턴스에서 기록한 유저의 재요청은 Redis를 호출하지 않고 거절")
+    void recordIssued_RejectsLocally() {
+        couponIssuedCache.recordIssued(couponPolicy, 1L);
+
+        assertThatThrownBy(() -> couponIssuedCache.recordIssued(couponPolicy, 1L))
+                .isInstanceOf(CouponIssueException.class)
+                .hasMessage("이미 발급받은 쿠폰입니다.");
+        verify(couponQuantityService, times(1)).recordIssued(couponPolicy, 1L);
+    }
+
+    @Test
+    @DisplayName("발급 기록 - Redis에서 이미 발급됨으로 거절된 유저도 기록하고, 되돌린 유저는 다시 Redis에서 확인")
+    void recordIssued_RemembersRemoteRejectionAndForget() {
+        doThrow(new CouponIssueException("이미 발급받은 쿠폰입니다.")).when(couponQuantityService).recordIssued(couponPolicy, 1L);
+        assertThatThrownBy(() -> couponIssuedCache.recordIssued(couponPolicy, 1L)).isInstanceOf(CouponIssueException.class);
+        assertThatThrownBy(() -> couponIssuedCache.recordIssued(couponPolicy, 1L)).isInstanceOf(CouponIssueException.class);
+        verify(couponQuantityService, times(1)).recordIssued(couponPolicy, 1L);
+
+        couponIssuedCache.forgetIssued(1L, 1L);
+        doNothing().when(couponQuantityService).recordIssued(couponPolicy, 1L);
+        couponIssuedCache.recordIssued(couponPolicy, 1L);
+
+        verify(couponQuantityService).forgetIssued(1L, 1L);
+        verify(couponQuantityService, times(2)).recordIssued(couponPolicy, 1L);
+    }
+}
@@ -0,0 +1,87 @@
+package com.practice.couponservice.service.v2;
+
+import com.practice.couponservice.entity.CouponPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponPolicyCacheTest {
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RTopic topic;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CouponPolicyCache couponPolicyCache;
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    private static final Long TEST_POLICY_ID = 1L;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(redissonClient.getTopic(anyString(), any())).thenReturn(topic);
+        couponPolicyCache = new CouponPolicyCache(redissonClient, meterRegistry, 100, 60);
+    }
+
+    private CouponPolicy load(Long id) {
+        loadCount.incrementAndGet();
+        return CouponPolicy.builder().id(id).name("테스트 쿠폰").build();
+    }
+
+    @Test
+    @DisplayName("로컬 캐시 - 두 번째 조회부터는 Redis/DB를 조회하지 않음")
+    void get_CachedAfterFirstLoad() {
+        CouponPolicy first = couponPolicyCache.get(TEST_POLICY_ID, this::load);
+        CouponPolicy second = couponPolicyCache.get(TEST_POLICY_ID, this::load);
+
+        assertThat(second).isSameAs(first);
+        assertThat(loadCount.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("로컬 캐시 - 무효화하면 토픽으로 전파하고 다시 로드")
+    void invalidate_PublishAndReload() {
+        couponPolicyCache.get(TEST_POLICY_ID, this::load);
+
+        couponPolicyCache.invalidate(TEST_POLICY_ID);
+        couponPolicyCache.get(TEST_POLICY_ID, this::load);
+
+        verify(topic).publish(TEST_POLICY_ID);
+        assertThat(loadCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("로컬 캐시 - 다른 인스턴스의 무효화 메시지를 받으면 캐시에서 제거")
+    @SuppressWarnings("unchecked")
+    void subscribe_InvalidateOnMessage() {
+        ArgumentCaptor<MessageListener<Long>> listener = ArgumentCaptor.forClass(MessageListener.class);
+        couponPolicyCache.subscribe();
+        verify(topic).addListener(eq(Long.class), listener.capture());
+        couponPolicyCache.get(TEST_POLICY_ID, this::load);
+
+        listener.getValue().onMessage("coupon:policy:invalidate", TEST_POLICY_ID);
+        couponPolicyCache.get(TEST_POLICY_ID, this::load);
+
+        assertThat(loadCount.get()).isEqualTo(2);
+    }
+}
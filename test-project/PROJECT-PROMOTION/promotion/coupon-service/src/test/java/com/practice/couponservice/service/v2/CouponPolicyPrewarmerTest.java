@@ -0,0 +1,97 @@
+package com.practice.couponservice.service.v2;
+
+import com.practice.couponservice.entity.CouponPolicy;
+import com.practice.couponservice.repository.CouponPolicyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponPolicyPrewarmerTest {
+
+    @Mock
+    private CouponPolicyRepository couponPolicyRepository;
+
+    @Mock
+    private CouponPolicyService couponPolicyService;
+
+    @Mock
+    private CouponPolicyCache couponPolicyCache;
+
+    @Mock
+    private CouponQuantityService couponQuantityService;
+
+    private CouponPolicyPrewarmer couponPolicyPrewarmer;
+
+    private static final Long TEST_POLICY_ID = 1L;
+
+    @BeforeEach
+    void setUp() {
+        couponPolicyPrewarmer = new CouponPolicyPrewarmer(couponPolicyRepository, couponPolicyService,
+                couponPolicyCache, couponQuantityService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(couponPolicyPrewarmer, "leadSeconds", 60L);
+        ReflectionTestUtils.setField(couponPolicyPrewarmer, "dryRunIterations", 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        couponPolicyPrewarmer.shutdown();
+    }
+
+    @Test
+    @DisplayName("예열 - Redis 적재와 dry-run은 정책마다 한 번, 로컬 캐시는 실행마다 적재")
+    void prewarm_WarmsRedisOncePerPolicy() {
+        CouponPolicy couponPolicy = CouponPolicy.builder()
+                .id(TEST_POLICY_ID)
+                .totalQuantity(100)
+                .startTime(LocalDateTime.now().plusSeconds(30))
+                .endTime(LocalDateTime.now().plusDays(1))
+                .build();
+        when(couponPolicyRepository.findByStartTimeBetween(any(), any())).thenReturn(List.of(couponPolicy));
+        when(couponPolicyService.getCouponPolicy(TEST_POLICY_ID)).thenReturn(couponPolicy);
+
+        couponPolicyPrewarmer.prewarm();
+        couponPolicyPrewarmer.prewarm();
+
+        verify(couponPolicyCache, times(2)).put(couponPolicy);
+        // Redis 예열은 전용 스레드에서 실행
+        verify(couponQuantityService, timeout(5000).times(10)).dryRun(eq(couponPolicy), any());
+        verify(couponPolicyService).cacheCouponPolicy(couponPolicy);
+        verify(couponQuantityService).ensureInitialized(couponPolicy);
+    }
+
+    @Test
+    @DisplayName("예열 - Redis 예열에 실패하면 다음 실행에서 다시 시도")
+    void prewarm_RetriesAfterFailure() {
+        CouponPolicy couponPolicy = CouponPolicy.builder()
+                .id(TEST_POLICY_ID)
+                .totalQuantity(100)
+                .startTime(LocalDateTime.now().plusSeconds(30))
+                .endTime(LocalDateTime.now().plusDays(1))
+                .build();
+        when(couponPolicyRepository.findByStartTimeBetween(any(), any())).thenReturn(List.of(couponPolicy));
+        when(couponQuantityService.ensureInitialized(couponPolicy))
+                .thenThrow(new RuntimeException("redis unavailable"))
+                .thenReturn(false);
+
+        couponPolicyPrewarmer.prewarm();
+        verify(couponQuantityService, timeout(5000)).ensureInitialized(couponPolicy);
+        verify(couponQuantityService, after(200).never()).dryRun(any(), any());
+
+        couponPolicyPrewarmer.prewarm();
+        verify(couponQuantityService, timeout(5000).times(2)).ensureInitialized(couponPolicy);
+    }
+}
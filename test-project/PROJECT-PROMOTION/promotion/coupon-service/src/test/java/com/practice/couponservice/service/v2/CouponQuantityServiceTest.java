@@ -0,0 +1,399 @@
+package com.practice.couponservice.service.v2;
+
+import com.practice.common.support.EmbeddedRedis;
+import com.practice.couponservice.entity.CouponPolicy;
+import com.practice.couponservice.exception.CouponIssueException;
+import com.practice.couponservice.exception.CouponSoldOutException;
+import com.practice.couponservice.service.CouponRedisKeys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RBatch;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.redisnode.RedisNode;
+import org.redisson.api.redisnode.RedisNodes;
+import org.redisson.client.RedisTimeoutException;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+/**
+ * 발급 Lua 스크립트를 실제 Redis(EmbeddedRedis)에서 실행
+ */
+class CouponQuantityServiceTest {
+
+    private final RedissonClient redissonClient = EmbeddedRedis.redissonClient();
+
+    private CouponQuantityService couponQuantityService;
+    private CouponPolicy couponPolicy;
+    private static final Long TEST_POLICY_ID = 1L;
+
+    @BeforeEach
+    void setUp() {
+        redissonClient.getKeys().flushall();
+        couponQuantityService = newCouponQuantityService(1);
+        couponPolicy = couponPolicy(TEST_POLICY_ID, 3, LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1));
+    }
+
+    @Test
+    @DisplayName("발급 스크립트 - 수량을 1 차감하고 남은 수량을 반환")
+    void issue_DecrementsQuantity() {
+        couponQuantityService.initialize(couponPolicy);
+
+        assertThat(couponQuantityService.issue(couponPolicy, 1L)).isEqualTo(2L);
+        assertThat(couponQuantityService.issue(couponPolicy, 2L)).isEqualTo(1L);
+        assertThat(quantity(CouponRedisKeys.quantity(TEST_POLICY_ID))).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("발급 스크립트 - 같은 유저의 두 번째 발급은 차감 없이 실패")
+    void issue_AlreadyIssued() {
+        couponQuantityService.initialize(couponPolicy);
+        couponQuantityService.issue(couponPolicy, 1L);
+
+        assertThatThrownBy(() -> couponQuantityService.issue(couponPolicy, 1L))
+                .isInstanceOf(CouponIssueException.class)
+                .hasMessage("이미 발급받은 쿠폰입니다.");
+        assertThat(quantity(CouponRedisKeys.quantity(TEST_POLICY_ID))).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("발급 스크립트 - 수량이 없으면 소진")
+    void issue_SoldOut() {
+        couponQuantityService.initialize(couponPolicy);
+        for (long userId = 1; userId <= 3; userId++) {
+            couponQuantityService.issue(couponPolicy, userId);
+        }
+
+        assertThatThrownBy(() -> couponQuantityService.issue(couponPolicy, 4L))
+                .isInstanceOf(CouponSoldOutException.class);
+        assertThat(quantity(CouponRedisKeys.quantity(TEST_POLICY_ID))).isZero();
+    }
+
+    @Test
+    @DisplayName("발급 스크립트 - 발급 기간이 아니면 차감하지 않음")
+    void issue_NotInPeriod() {
+        CouponPolicy notStarted = couponPolicy(TEST_POLICY_ID, 3, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+        couponQuantityService.initialize(notStarted);
+
+        assertThatThrownBy(() -> couponQuantityService.issue(notStarted, 1L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("쿠폰 발급 기간이 아닙니다.");
+        assertThat(quantity(CouponRedisKeys.quantity(TEST_POLICY_ID))).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("반납 스크립트 - 차감한 수량과 발급 기록을 되돌려서 다시 발급 가능")
+    void release_RestoresQuantityAndRecord() {
+        couponQuantityService.initialize(couponPolicy);
+        couponQuantityService.issue(couponPolicy, 1L);
+
+        couponQuantityService.release(TEST_POLICY_ID, 1L);
+        couponQuantityService.release(TEST_POLICY_ID, 1L); // 두 번 반납해도 한 번만 반영
+
+        assertThat(quantity(CouponRedisKeys.quantity(TEST_POLICY_ID))).isEqualTo(3L);
+        assertThat(couponQuantityService.issue(couponPolicy, 1L)).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("스크립트 전송 - 본문은 처음 한 번만 보내고 이후에는 EVALSHA")
+    void issue_UsesEvalSha() {
+        couponQuantityService.initialize(couponPolicy(TEST_POLICY_ID, 100, LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1)));
+        long evalBefore = calls("eval");
+        long evalShaBefore = calls("evalsha");
+
+        for (long userId = 1; userId <= 10; userId++) {
+            couponQuantityService.issue(couponPolicy, userId);
+        }
+
+        assertThat(calls("eval") - evalBefore).isLessThanOrEqualTo(1);
+        assertThat(calls("evalsha") - evalShaBefore).isGreaterThanOrEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("stripe 레이아웃 - 총 수량을 stripe 키로 나누고 나머지는 앞쪽 stripe부터 배분")
+    void initialize_Stripes() {
+        couponQuantityService = newCouponQuantityService(3);
+        couponQuantityService.initialize(couponPolicy(TEST_POLICY_ID, 10, LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1)));
+
+        assertThat(quantity(CouponRedisKeys.quantity(TEST_POLICY_ID, 0))).isEqualTo(4L);
+        assertThat(quantity(CouponRedisKeys.quantity(TEST_POLICY_ID, 1))).isEqualTo(3L);
+        assertThat(quantity(CouponRedisKeys.quantity(TEST_POLICY_ID, 2))).isEqualTo(3L);
+        assertThat(redissonClient.getBucket(CouponRedisKeys.stripes(TEST_POLICY_ID), StringCodec.INSTANCE).get()).isEqualTo("3");
+        assertThat(redissonClient.getAtomicLong(CouponRedisKeys.quantity(TEST_POLICY_ID)).isExists()).isFalse();
+    }
+
+    @Test
+    @DisplayName("stripe 레이아웃 - home stripe가 소진되면 이웃 stripe에서 빌려오고 발급 기록은 home stripe에 남김")
+    void issue_BorrowsFromNeighborStripe() {
+        couponQuantityService = newCouponQuantityService(2);
+        CouponPolicy striped = couponPolicy(TEST_POLICY_ID, 4, LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1));
+        couponQuantityService.initialize(striped);
+
+        // 짝수 유저는 stripe 0이 home
+        couponQuantityService.issue(striped, 2L);
+        couponQuantityService.issue(striped, 4L);
+        assertThat(couponQuantityService.issue(striped, 6L)).isEqualTo(1L);
+
+        assertThat(quantity(CouponRedisKeys.quantity(TEST_POLICY_ID, 0))).isZero();
+        assertThat(quantity(CouponRedisKeys.quantity(TEST_POLICY_ID, 1))).isEqualTo(1L);
+        assertThatThrownBy(() -> couponQuantityService.issue(striped, 6L))
+                .isInstanceOf(CouponIssueException.class);
+    }
+
+    @Test
+    @DisplayName("stripe 레이아웃 - 동시에 요청해도 총 수량보다 많이 발급하지 않음")
+    void issue_NoOversellUnderConcurrency() throws Exception {
+        couponQuantityService = newCouponQuantityService(4);
+        CouponPolicy striped = couponPolicy(TEST_POLICY_ID, 50, LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1));
+        couponQuantityService.initialize(striped);
+
+        int users = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger issued = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (long userId = 1; userId <= users; userId++) {
+            long id = userId;
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    couponQuantityService.issue(striped, id);
+                    issued.incrementAndGet();
+                } catch (CouponSoldOutException e) {
+                    soldOut.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(issued.get()).isEqualTo(50);
+        assertThat(soldOut.get()).isEqualTo(users - 50);
+        for (int stripe = 0; stripe < 4; stripe++) {
+            assertThat(quantity(CouponRedisKeys.quantity(TEST_POLICY_ID, stripe))).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("stripe 레이아웃 - LOCK 모드에서 stripes > 1이면 시작 시 거절")
+    void validateStripes_RejectsLockMode() {
+        CouponQuantityService striped = newCouponQuantityService(4);
+        ReflectionTestUtils.setField(striped, "issueMode", CouponIssueMode.LOCK);
+
+        assertThatThrownBy(striped::validateStripes)
+                .isInstanceOf(IllegalStateException.class);
+
+        ReflectionTestUtils.setField(striped, "issueMode", CouponIssueMode.SCRIPT);
+        striped.validateStripes();
+    }
+
+    @Test
+    @DisplayName("수량 점검 - 없는 stripe 키만 초기 배분 수량으로 다시 설정하고 있는 키는 덮어쓰지 않음")
+    void ensureInitialized_RestoresMissingStripe() {
+        couponQuantityService = newCouponQuantityService(3);
+        CouponPolicy striped = couponPolicy(TEST_POLICY_ID, 10, LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1));
+        couponQuantityService.initialize(striped);
+        assertThat(couponQuantityService.ensureInitialized(striped)).isFalse();
+
+        couponQuantityService.issue(striped, 3L); // stripe 0에서 차감
+        redissonClient.getAtomicLong(CouponRedisKeys.quantity(TEST_POLICY_ID, 1)).delete();
+
+        assertThat(newCouponQuantityService(3).ensureInitialized(striped)).isTrue();
+        assertThat(quantity(CouponRedisKeys.quantity(TEST_POLICY_ID, 0))).isEqualTo(3L);
+        assertThat(quantity(CouponRedisKeys.quantity(TEST_POLICY_ID, 1))).isEqualTo(3L);
+        assertThat(quantity(CouponRedisKeys.quantity(TEST_POLICY_ID, 2))).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("수량 점검 - stripe 정보와 수량 키가 모두 없으면 설정된 stripe 수로 초기화")
+    void ensureInitialized_InitializesMissingPolicy() {
+        assertThat(couponQuantityService.ensureInitialized(couponPolicy)).isTrue();
+
+        assertThat(quantity(CouponRedisKeys.quantity(TEST_POLICY_ID))).isEqualTo(3L);
+        assertThat(redissonClient.getBucket(CouponRedisKeys.stripes(TEST_POLICY_ID), StringCodec.INSTANCE).get()).isEqualTo("1");
+        assertThat(couponQuantityService.issue(couponPolicy, 1L)).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("수량 점검 - hash tag 도입 전 키가 남아 있으면 남은 수량과 발급 기록을 새 키로 옮기고 다시 초기화하지 않음")
+    void ensureInitialized_MigratesLegacyKeys() {
+        CouponPolicy striped = couponPolicy(TEST_POLICY_ID, 10, LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1));
+        redissonClient.getBucket("coupon:stripes:" + TEST_POLICY_ID, StringCodec.INSTANCE).set("2");
+        redissonClient.getAtomicLong("coupon:quantity:" + TEST_POLICY_ID + ":0").set(1);
+        redissonClient.getAtomicLong("coupon:quantity:" + TEST_POLICY_ID + ":1").set(4);
+        redissonClient.getSet("coupon:issued:" + TEST_POLICY_ID + ":1", StringCodec.INSTANCE).add("7");
+
+        assertThat(newCouponQuantityService(3).ensureInitialized(striped)).isFalse();
+
+        assertThat(quantity(CouponRedisKeys.quantity(TEST_POLICY_ID, 0))).isEqualTo(1L);
+        assertThat(quantity(CouponRedisKeys.quantity(TEST_POLICY_ID, 1))).isEqualTo(4L);
+        assertThat(redissonClient.getBucket(CouponRedisKeys.stripes(TEST_POLICY_ID), StringCodec.INSTANCE).get()).isEqualTo("2");
+        assertThat(redissonClient.getKeys().countExists("coupon:quantity:" + TEST_POLICY_ID + ":0", "coupon:stripes:" + TEST_POLICY_ID)).isZero();
+        assertThatThrownBy(() -> newCouponQuantityService(3).issue(striped, 7L))
+                .isInstanceOf(CouponIssueException.class)
+                .hasMessage("이미 발급받은 쿠폰입니다.");
+    }
+
+    @Test
+    @DisplayName("발급 기록 - bitmap에 userId 위치로 기록하고 set은 쓰지 않음")
+    void issue_RecordsInBitmap() {
+        couponQuantityService.initialize(couponPolicy);
+
+        couponQuantityService.issue(couponPolicy, 10L);
+
+        assertThat(redissonClient.getBitSet(CouponRedisKeys.issuedUserBits(TEST_POLICY_ID)).get(10)).isTrue();
+        assertThat(redissonClient.getSet(CouponRedisKeys.issuedUsers(TEST_POLICY_ID), StringCodec.INSTANCE).isExists()).isFalse();
+        assertThat(redissonClient.getBitSet(CouponRedisKeys.issuedUserBits(TEST_POLICY_ID)).remainTimeToLive()).isPositive();
+    }
+
+    @Test
+    @DisplayName("발급 기록 - bitmap 크기 제한을 넘는 userId와 음수 userId는 set에 기록하고 bitmap을 키우지 않음")
+    void issue_FallsBackToSet() {
+        ReflectionTestUtils.setField(couponQuantityService, "issuedBitmapMaxBytes", 1L); // userId 0~7만 bitmap
+        couponQuantityService.initialize(couponPolicy);
+
+        couponQuantityService.issue(couponPolicy, 1000L);
+        couponQuantityService.issue(couponPolicy, -5L);
+
+        assertThat(redissonClient.getSet(CouponRedisKeys.issuedUsers(TEST_POLICY_ID), StringCodec.INSTANCE).readAll())
+                .containsExactlyInAnyOrder("1000", "-5");
+        assertThat(redissonClient.getBitSet(CouponRedisKeys.issuedUserBits(TEST_POLICY_ID)).isExists()).isFalse();
+        assertThatThrownBy(() -> couponQuantityService.issue(couponPolicy, 1000L))
+                .isInstanceOf(CouponIssueException.class);
+    }
+
+    @Test
+    @DisplayName("발급 기록 - bitmap 도입 전 set에만 남은 발급도 중복으로 거절하고, 되돌리면 set에서도 지움")
+    void issue_ChecksLegacySet() {
+        couponQuantityService.initialize(couponPolicy);
+        redissonClient.getSet(CouponRedisKeys.issuedUsers(TEST_POLICY_ID), StringCodec.INSTANCE).add("7");
+
+        assertThatThrownBy(() -> couponQuantityService.issue(couponPolicy, 7L))
+                .isInstanceOf(CouponIssueException.class)
+                .hasMessage("이미 발급받은 쿠폰입니다.");
+        assertThat(quantity(CouponRedisKeys.quantity(TEST_POLICY_ID))).isEqualTo(3L);
+
+        couponQuantityService.release(TEST_POLICY_ID, 7L);
+
+        assertThat(redissonClient.getSet(CouponRedisKeys.issuedUsers(TEST_POLICY_ID), StringCodec.INSTANCE).contains("7")).isFalse();
+        assertThat(couponQuantityService.issue(couponPolicy, 7L)).isEqualTo(3L); // release가 수량을 1 되돌린 뒤 다시 차감
+    }
+
+    @Test
+    @DisplayName("발급 기록 - recordIssued로 남긴 기록은 forgetIssued로 수량 변화 없이 지움")
+    void forgetIssued_RemovesRecordOnly() {
+        couponQuantityService.initialize(couponPolicy);
+        couponQuantityService.recordIssued(couponPolicy, 5L);
+        assertThatThrownBy(() -> couponQuantityService.recordIssued(couponPolicy, 5L))
+                .isInstanceOf(CouponIssueException.class);
+
+        couponQuantityService.forgetIssued(TEST_POLICY_ID, 5L);
+        couponQuantityService.forgetIssued(TEST_POLICY_ID, 5L); // 없는 기록은 무시
+
+        assertThat(redissonClient.getBitSet(CouponRedisKeys.issuedUserBits(TEST_POLICY_ID)).get(5)).isFalse();
+        assertThat(quantity(CouponRedisKeys.quantity(TEST_POLICY_ID))).isEqualTo(3L);
+        couponQuantityService.recordIssued(couponPolicy, 5L);
+    }
+
+    @Test
+    @DisplayName("발급 기록 - markIssued는 이미 기록이 있는 유저를 반환하고 나머지만 기록")
+    void markIssued_ReturnsAlreadyIssued() {
+        couponQuantityService.initialize(couponPolicy);
+        couponQuantityService.issue(couponPolicy, 5L);
+
+        assertThat(couponQuantityService.markIssued(couponPolicy, List.of(5L, 6L))).containsExactly(5L);
+        assertThat(couponQuantityService.markIssued(couponPolicy, List.of(6L, 7L))).containsExactly(6L);
+        assertThat(quantity(CouponRedisKeys.quantity(TEST_POLICY_ID))).isEqualTo(2L); // markIssued는 수량을 차감하지 않음
+    }
+
+    @Test
+    @DisplayName("여러 정책 발급 - pipeline 응답을 받지 못하면 차감된 정책만 되돌리고 이전 발급 기록은 유지")
+    void issueAll_ReleasesIssuedOnBatchFailure() {
+        CouponPolicy otherPolicy = couponPolicy(2L, 3, LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1));
+        couponQuantityService.initialize(couponPolicy);
+        couponQuantityService.initialize(otherPolicy);
+        couponQuantityService.issue(otherPolicy, 1L); // 이미 발급받은 정책
+
+        // 스크립트는 모두 실행됐지만 응답 뒤에 실패한 경우
+        RedissonClient failingClient = spy(redissonClient);
+        doAnswer(invocation -> {
+            RBatch batch = spy((RBatch) invocation.callRealMethod());
+            doAnswer(execute -> {
+                execute.callRealMethod();
+                throw new RedisTimeoutException("batch response timed out");
+            }).when(batch).execute();
+            return batch;
+        }).when(failingClient).createBatch();
+        CouponQuantityService failingService = newCouponQuantityService(failingClient, 1);
+
+        assertThatThrownBy(() -> failingService.issueAll(List.of(couponPolicy, otherPolicy), 1L))
+                .isInstanceOf(RedisTimeoutException.class);
+
+        assertThat(quantity(CouponRedisKeys.quantity(TEST_POLICY_ID))).isEqualTo(3L);
+        assertThat(quantity(CouponRedisKeys.quantity(2L))).isEqualTo(2L);
+        assertThat(couponQuantityService.issueAll(List.of(couponPolicy, otherPolicy), 1L))
+                .containsExactly(2L, CouponQuantityService.ALREADY_ISSUED);
+    }
+
+    static CouponPolicy couponPolicy(Long id, int totalQuantity, LocalDateTime startTime, LocalDateTime endTime) {
+        return CouponPolicy.builder()
+                .id(id)
+                .name("테스트 쿠폰")
+                .discountType(CouponPolicy.DiscountType.FIXED_AMOUNT)
+                .discountValue(1000)
+                .minimumOrderAmount(10000)
+                .maximumDiscountAmount(1000)
+                .totalQuantity(totalQuantity)
+                .startTime(startTime)
+                .endTime(endTime)
+                .build();
+    }
+
+    private CouponQuantityService newCouponQuantityService(int stripes) {
+        return newCouponQuantityService(redissonClient, stripes);
+    }
+
+    private CouponQuantityService newCouponQuantityService(RedissonClient client, int stripes) {
+        CouponQuantityService service = new CouponQuantityService(client);
+        ReflectionTestUtils.setField(service, "stripes", stripes);
+        ReflectionTestUtils.setField(service, "issueMode", CouponIssueMode.SCRIPT);
+        ReflectionTestUtils.setField(service, "issuedBitmapMaxBytes", 16777216L);
+        ReflectionTestUtils.setField(service, "issuedRetentionSeconds", 3600L);
+        return service;
+    }
+
+    private long quantity(String key) {
+        return redissonClient.getAtomicLong(key).get();
+    }
+
+    // INFO commandstats의 cmdstat_{command} 호출 수
+    private long calls(String command) {
+        String stat = redissonClient.getRedisNodes(RedisNodes.SINGLE).getInstance()
+                .info(RedisNode.InfoSection.COMMANDSTATS)
+                .get("cmdstat_" + command);
+        if (stat == null) {
+            return 0;
+        }
+        return Long.parseLong(stat.substring("calls=".length(), stat.indexOf(',')));
+    }
+}
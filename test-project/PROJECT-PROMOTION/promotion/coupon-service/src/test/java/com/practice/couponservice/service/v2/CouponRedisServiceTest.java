@@ -5,6 +5,8 @@ import com.practice.couponservice.dto.v1.CouponDto;
 import com.practice.couponservice.entity.Coupon;
 import com.practice.couponservice.entity.CouponPolicy;
 import com.practice.couponservice.exception.CouponIssueException;
+import com.practice.couponservice.exception.CouponPolicyNotFoundException;
+import com.practice.couponservice.exception.CouponSoldOutException;
 import com.practice.couponservice.repository.CouponRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -17,10 +19,15 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.redisson.api.RAtomicLong;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
-import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -40,6 +47,12 @@ class CouponRedisServiceTest {
     @Mock
     private CouponPolicyService couponPolicyService;
 
+    @Mock
+    private CouponQuantityService couponQuantityService;
+
+    @Mock
+    private CouponSoldOutCache couponSoldOutCache;
+
     @Mock
     private RLock rLock;
 
@@ -71,6 +84,9 @@ class CouponRedisServiceTest {
                 .couponPolicy(couponPolicy)
                 .couponCode("TEST123")
                 .build();
+
+        // 아래 락 관련 테스트는 분산락 모드 기준
+        ReflectionTestUtils.setField(couponRedisService, "issueMode", CouponIssueMode.LOCK);
     }
 
     @Test
@@ -90,7 +106,7 @@ class CouponRedisServiceTest {
         when(atomicLong.decrementAndGet()).thenReturn(99L);
         // 정책/저장
         when(couponPolicyService.getCouponPolicy(TEST_POLICY_ID)).thenReturn(couponPolicy);
-        when(couponRepository.save(any(Coupon.class))).thenReturn(coupon);
+        when(couponRepository.saveAndFlush(any(Coupon.class))).thenReturn(coupon);
 
         try (MockedStatic<UserIdInterceptor> mockedStatic = mockStatic(UserIdInterceptor.class)) {
             mockedStatic.when(UserIdInterceptor::getCurrentUserId).thenReturn(TEST_USER_ID);
@@ -101,11 +117,41 @@ class CouponRedisServiceTest {
             // Then
             assertThat(coupon.getId()).isEqualTo(TEST_COUPON_ID);
             assertThat(coupon.getUserId()).isEqualTo(TEST_USER_ID);
-            verify(couponRepository).save(any(Coupon.class));
+            verify(couponRepository).saveAndFlush(any(Coupon.class));
             verify(rLock).unlock();
         }
     }
 
+    @Test
+    @DisplayName("쿠폰 발급 실패 - 락 모드, insert flush 실패 시 수량과 발급 기록 복구")
+    void issueCoupon_Fail_LockMode_CompensatesOnSaveFailure() throws InterruptedException {
+        // Given
+        CouponDto.IssueRequest request = CouponDto.IssueRequest.builder()
+                .couponPolicyId(TEST_POLICY_ID)
+                .build();
+
+        when(redissonClient.getLock(anyString())).thenReturn(rLock);
+        when(rLock.tryLock(anyLong(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(rLock.isHeldByCurrentThread()).thenReturn(true);
+        when(redissonClient.getAtomicLong(anyString())).thenReturn(atomicLong);
+        when(atomicLong.decrementAndGet()).thenReturn(99L);
+        when(couponPolicyService.getCouponPolicy(TEST_POLICY_ID)).thenReturn(couponPolicy);
+        when(couponRepository.saveAndFlush(any(Coupon.class))).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        try (MockedStatic<UserIdInterceptor> mockedStatic = mockStatic(UserIdInterceptor.class)) {
+            mockedStatic.when(UserIdInterceptor::getCurrentUserId).thenReturn(TEST_USER_ID);
+
+            // When & Then
+            assertThatThrownBy(() -> couponRedisService.issueCoupon(request))
+                    .isInstanceOf(DataIntegrityViolationException.class);
+        }
+
+        verify(couponQuantityService).recordIssued(couponPolicy, TEST_USER_ID);
+        verify(atomicLong).incrementAndGet();
+        verify(couponQuantityService).forgetIssued(TEST_POLICY_ID, TEST_USER_ID);
+        verify(rLock).unlock();
+    }
+
     @Test
     @DisplayName("쿠폰 발급 실패 - 락 획득 실패")
     void issueCoupon_Fail_LockNotAcquired() throws InterruptedException {
@@ -138,13 +184,67 @@ class CouponRedisServiceTest {
         when(atomicLong.decrementAndGet()).thenReturn(-1L);
         when(couponPolicyService.getCouponPolicy(TEST_POLICY_ID)).thenReturn(couponPolicy);
 
+        try (MockedStatic<UserIdInterceptor> mockedStatic = mockStatic(UserIdInterceptor.class)) {
+            mockedStatic.when(UserIdInterceptor::getCurrentUserId).thenReturn(TEST_USER_ID);
+
+            // When & Then
+            assertThatThrownBy(() -> couponRedisService.issueCoupon(request))
+                    .isInstanceOf(CouponIssueException.class)
+                    .hasMessage("쿠폰이 모두 소진되었습니다.");
+        }
+
+        verify(atomicLong).incrementAndGet();
+        // 수량이 없으면 남긴 발급 기록도 되돌림
+        verify(couponQuantityService).forgetIssued(TEST_POLICY_ID, TEST_USER_ID);
+        verify(rLock).unlock();
+        verify(couponSoldOutCache).markSoldOut(TEST_POLICY_ID, true);
+    }
+
+    @Test
+    @DisplayName("쿠폰 발급 실패 - 락 모드, 이미 발급받은 유저는 수량 차감 없이 거절")
+    void issueCoupon_Fail_AlreadyIssued() throws InterruptedException {
+        // Given
+        CouponDto.IssueRequest request = CouponDto.IssueRequest.builder()
+                .couponPolicyId(TEST_POLICY_ID)
+                .build();
+
+        when(redissonClient.getLock(anyString())).thenReturn(rLock);
+        when(rLock.tryLock(anyLong(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(rLock.isHeldByCurrentThread()).thenReturn(true);
+        when(couponPolicyService.getCouponPolicy(TEST_POLICY_ID)).thenReturn(couponPolicy);
+        doThrow(new CouponIssueException("이미 발급받은 쿠폰입니다."))
+                .when(couponQuantityService).recordIssued(couponPolicy, TEST_USER_ID);
+
+        try (MockedStatic<UserIdInterceptor> mockedStatic = mockStatic(UserIdInterceptor.class)) {
+            mockedStatic.when(UserIdInterceptor::getCurrentUserId).thenReturn(TEST_USER_ID);
+
+            // When & Then
+            assertThatThrownBy(() -> couponRedisService.issueCoupon(request))
+                    .isInstanceOf(CouponIssueException.class)
+                    .hasMessage("이미 발급받은 쿠폰입니다.");
+        }
+
+        verify(redissonClient, never()).getAtomicLong(anyString());
+        verify(couponRepository, never()).save(any(Coupon.class));
+        verify(rLock).unlock();
+    }
+
+    @Test
+    @DisplayName("쿠폰 발급 실패 - 소진된 정책은 락/Redis 호출 없이 거절")
+    void issueCoupon_Fail_SoldOutLocally() {
+        // Given
+        CouponDto.IssueRequest request = CouponDto.IssueRequest.builder()
+                .couponPolicyId(TEST_POLICY_ID)
+                .build();
+        doThrow(new CouponSoldOutException()).when(couponSoldOutCache).rejectIfSoldOut(TEST_POLICY_ID);
+
         // When & Then
         assertThatThrownBy(() -> couponRedisService.issueCoupon(request))
                 .isInstanceOf(CouponIssueException.class)
                 .hasMessage("쿠폰이 모두 소진되었습니다.");
 
-        verify(atomicLong).incrementAndGet();
-        verify(rLock).unlock();
+        verifyNoInteractions(redissonClient, couponQuantityService);
+        verify(couponSoldOutCache, never()).markSoldOut(anyLong(), anyBoolean());
     }
 
     @Test
@@ -174,6 +274,83 @@ class CouponRedisServiceTest {
         verify(rLock).unlock();
     }
 
+    @Test
+    @DisplayName("쿠폰 발급 성공 - 스크립트 모드")
+    void issueCoupon_Success_ScriptMode() {
+        // Given
+        ReflectionTestUtils.setField(couponRedisService, "issueMode", CouponIssueMode.SCRIPT);
+        CouponDto.IssueRequest request = CouponDto.IssueRequest.builder()
+                .couponPolicyId(TEST_POLICY_ID)
+                .build();
 
+        when(couponPolicyService.getCouponPolicy(TEST_POLICY_ID)).thenReturn(couponPolicy);
+        when(couponQuantityService.issue(couponPolicy, TEST_USER_ID)).thenReturn(99L);
+        when(couponRepository.saveAndFlush(any(Coupon.class))).thenReturn(coupon);
 
-}
\ No newline at end of file
+        try (MockedStatic<UserIdInterceptor> mockedStatic = mockStatic(UserIdInterceptor.class)) {
+            mockedStatic.when(UserIdInterceptor::getCurrentUserId).thenReturn(TEST_USER_ID);
+
+            // When
+            Coupon issued = couponRedisService.issueCoupon(request);
+
+            // Then
+            assertThat(issued.getId()).isEqualTo(TEST_COUPON_ID);
+            verify(couponRepository).saveAndFlush(any(Coupon.class));
+            verify(redissonClient, never()).getLock(anyString());
+        }
+    }
+
+    @Test
+    @DisplayName("쿠폰 발급 실패 - 스크립트 모드, insert flush 실패 시 수량 복구")
+    void issueCoupon_Fail_ScriptMode_ReleaseOnSaveFailure() {
+        // Given
+        ReflectionTestUtils.setField(couponRedisService, "issueMode", CouponIssueMode.SCRIPT);
+        CouponDto.IssueRequest request = CouponDto.IssueRequest.builder()
+                .couponPolicyId(TEST_POLICY_ID)
+                .build();
+
+        when(couponPolicyService.getCouponPolicy(TEST_POLICY_ID)).thenReturn(couponPolicy);
+        when(couponQuantityService.issue(couponPolicy, TEST_USER_ID)).thenReturn(0L);
+        when(couponRepository.saveAndFlush(any(Coupon.class))).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        try (MockedStatic<UserIdInterceptor> mockedStatic = mockStatic(UserIdInterceptor.class)) {
+            mockedStatic.when(UserIdInterceptor::getCurrentUserId).thenReturn(TEST_USER_ID);
+
+            // When & Then
+            assertThatThrownBy(() -> couponRedisService.issueCoupon(request))
+                    .isInstanceOf(DataIntegrityViolationException.class);
+
+            verify(couponQuantityService).release(TEST_POLICY_ID, TEST_USER_ID);
+        }
+    }
+
+    @Test
+    @DisplayName("여러 정책 발급 - 한 번에 차감하고 성공한 쿠폰만 한 번에 저장, 실패한 정책은 사유와 함께 반환")
+    void issueCoupons_ReturnsPerPolicyResults() {
+        // Given
+        CouponPolicy soldOutPolicy = CouponPolicy.builder().id(2L).build();
+        when(couponPolicyService.getCouponPolicy(TEST_POLICY_ID)).thenReturn(couponPolicy);
+        when(couponPolicyService.getCouponPolicy(2L)).thenReturn(soldOutPolicy);
+        when(couponPolicyService.getCouponPolicy(3L)).thenThrow(new CouponPolicyNotFoundException("쿠폰 정책을 찾을 수 없습니다."));
+        when(couponQuantityService.issueAll(List.of(couponPolicy, soldOutPolicy), TEST_USER_ID))
+                .thenReturn(List.of(99L, CouponQuantityService.SOLD_OUT));
+        when(couponRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        try (MockedStatic<UserIdInterceptor> mockedStatic = mockStatic(UserIdInterceptor.class)) {
+            mockedStatic.when(UserIdInterceptor::getCurrentUserId).thenReturn(TEST_USER_ID);
+
+            // When
+            CouponRedisService.BatchResult result = couponRedisService.issueCoupons(List.of(TEST_POLICY_ID, 2L, 3L, TEST_POLICY_ID));
+
+            // Then
+            assertThat(result.getIssued()).hasSize(1);
+            assertThat(result.getIssued().get(0).getCouponPolicy()).isEqualTo(couponPolicy);
+            assertThat(result.getFailures()).containsExactly(
+                    entry(3L, "쿠폰 정책을 찾을 수 없습니다."),
+                    entry(2L, "쿠폰이 모두 소진되었습니다."));
+            verify(couponRepository, times(1)).saveAllAndFlush(anyList());
+            verify(couponSoldOutCache).markSoldOut(2L, true);
+            verify(redissonClient, never()).getLock(anyString());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.practice.couponservice.service.v2;
+
+import com.practice.couponservice.entity.Coupon;
+import com.practice.couponservice.entity.CouponPolicy;
+import com.practice.couponservice.exception.CouponAlreadyUsedException;
+import com.practice.couponservice.repository.CouponRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponServiceTest {
+
+    @InjectMocks
+    private CouponService couponService;
+
+    @Mock
+    private CouponRepository couponRepository;
+
+    @Mock
+    private CouponRedisService couponRedisService;
+
+    @Mock
+    private CouponStateService couponStateService;
+
+    @Mock
+    private CouponWalletIndex couponWalletIndex;
+
+    private Coupon coupon;
+
+    private static final Long TEST_COUPON_ID = 1L;
+    private static final Long TEST_USER_ID = 1L;
+    private static final Long TEST_ORDER_ID = 100L;
+
+    @BeforeEach
+    void setUp() {
+        CouponPolicy couponPolicy = CouponPolicy.builder()
+                .id(1L)
+                .discountType(CouponPolicy.DiscountType.FIXED_AMOUNT)
+                .discountValue(1000)
+                .minimumOrderAmount(10000)
+                .maximumDiscountAmount(1000)
+                .startTime(LocalDateTime.now().minusDays(1))
+                .endTime(LocalDateTime.now().plusDays(1))
+                .build();
+        coupon = Coupon.builder().id(TEST_COUPON_ID).userId(TEST_USER_ID).couponPolicy(couponPolicy).couponCode("TEST123").build();
+        when(couponRepository.findByIdWithPolicy(TEST_COUPON_ID)).thenReturn(Optional.of(coupon));
+    }
+
+    @Test
+    @DisplayName("쿠폰 사용 - 조건부 UPDATE로 사용 처리하고 상태 저장")
+    void useCoupon_Success() {
+        when(couponRepository.use(eq(TEST_COUPON_ID), eq(Coupon.Status.AVAILABLE), eq(TEST_ORDER_ID), any())).thenReturn(1);
+
+        couponService.useCoupon(TEST_COUPON_ID, TEST_ORDER_ID);
+
+        assertThat(coupon.getStatus()).isEqualTo(Coupon.Status.USED);
+        verify(couponStateService).updateCouponState(coupon);
+        verify(couponWalletIndex).invalidate(TEST_USER_ID);
+    }
+
+    @Test
+    @DisplayName("쿠폰 사용 - 조회 이후 다른 요청이 먼저 사용해서 UPDATE가 0건이면 이미 사용된 쿠폰")
+    void useCoupon_Fail_ConcurrentlyUsed() {
+        when(couponRepository.use(eq(TEST_COUPON_ID), eq(Coupon.Status.AVAILABLE), eq(TEST_ORDER_ID), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> couponService.useCoupon(TEST_COUPON_ID, TEST_ORDER_ID))
+                .isInstanceOf(CouponAlreadyUsedException.class)
+                .hasMessage("이미 사용된 쿠폰입니다.");
+
+        verifyNoInteractions(couponStateService, couponWalletIndex);
+    }
+
+    @Test
+    @DisplayName("쿠폰 취소 - 조회 이후 다른 요청이 먼저 취소해서 UPDATE가 0건이면 실패")
+    void cancelCoupon_Fail_ConcurrentlyCancelled() {
+        coupon.use(TEST_ORDER_ID, LocalDateTime.now());
+        when(couponRepository.cancel(TEST_COUPON_ID)).thenReturn(0);
+
+        assertThatThrownBy(() -> couponService.cancelCoupon(TEST_COUPON_ID))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("사용되지 않은 쿠폰입니다.");
+
+        verifyNoInteractions(couponStateService, couponWalletIndex);
+    }
+}
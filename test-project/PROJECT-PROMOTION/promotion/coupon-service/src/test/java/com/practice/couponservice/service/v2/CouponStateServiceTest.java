@@ -0,0 +1,171 @@
+package com.practice.couponservice.service.v2;
+
+import com.practice.common.support.EmbeddedRedis;
+import com.practice.couponservice.codec.CouponStateBinaryCodec;
+import com.practice.couponservice.dto.v1.CouponDto;
+import com.practice.couponservice.entity.Coupon;
+import com.practice.couponservice.entity.CouponPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.codec.Codec;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+/**
+ * 상태 쓰기/읽기 스크립트를 실제 Redis(EmbeddedRedis)에서 실행
+ */
+class CouponStateServiceTest {
+
+    private final RedissonClient redissonClient = EmbeddedRedis.redissonClient();
+
+    private SimpleMeterRegistry meterRegistry;
+    private CouponStateService couponStateService;
+    private Coupon coupon;
+
+    @BeforeEach
+    void setUp() {
+        redissonClient.getKeys().flushall();
+        meterRegistry = new SimpleMeterRegistry();
+        couponStateService = newCouponStateService(redissonClient, CouponStateWriteMode.WRITE_BEHIND, meterRegistry);
+
+        CouponPolicy couponPolicy = CouponPolicy.builder()
+                .id(1L)
+                .discountType(CouponPolicy.DiscountType.FIXED_AMOUNT)
+                .discountValue(1000)
+                .minimumOrderAmount(10000)
+                .maximumDiscountAmount(1000)
+                .startTime(LocalDateTime.now().minusDays(1))
+                .endTime(LocalDateTime.now().plusDays(1))
+                .build();
+        coupon = Coupon.builder().id(1L).userId(1L).couponPolicy(couponPolicy).couponCode("TEST123").build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("write-behind - 커밋 이후에만 큐에 넣고, flush 때 TTL과 함께 저장")
+    void updateCouponState_WritesAfterCommitInBatch() {
+        TransactionSynchronizationManager.initSynchronization();
+        couponStateService.updateCouponState(coupon);
+
+        // 커밋 전에는 아무것도 쓰지 않음
+        couponStateService.flush();
+        assertThat(redissonClient.getKeys().countExists("coupon:state:1")).isZero();
+        assertThat(meterRegistry.get("coupon.state.pending").gauge().value()).isZero();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(couponStateService.getCouponState(1L).getCouponCode()).isEqualTo("TEST123"); // pending에서 조회
+
+        couponStateService.flush();
+
+        assertThat(meterRegistry.get("coupon.state.pending").gauge().value()).isZero();
+        assertThat(redissonClient.getKeys().remainTimeToLive("coupon:state:1")).isPositive();
+        assertThat(newCouponStateService(redissonClient, CouponStateWriteMode.SYNC).getCouponState(1L).getCouponCode())
+                .isEqualTo("TEST123");
+    }
+
+    @Test
+    @DisplayName("write-behind - 롤백되면 쓰지 않음")
+    void updateCouponState_DiscardedOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        couponStateService.updateCouponState(coupon);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        couponStateService.flush();
+
+        assertThat(redissonClient.getKeys().countExists("coupon:state:1")).isZero();
+    }
+
+    @Test
+    @DisplayName("sync - 커밋 이후 Redis 쓰기에 실패해도 예외를 전파하지 않음")
+    void updateCouponState_SyncFailureAfterCommitLogged() {
+        RedissonClient failing = spy(redissonClient);
+        doThrow(new IllegalStateException("redis unavailable")).when(failing).getScript(any(Codec.class));
+        CouponStateService syncService = newCouponStateService(failing, CouponStateWriteMode.SYNC);
+
+        TransactionSynchronizationManager.initSynchronization();
+        syncService.updateCouponState(coupon);
+
+        assertThatCode(() -> TransactionSynchronizationManager.getSynchronizations()
+                .forEach(TransactionSynchronization::afterCommit))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("version - flush 중이던 이전 상태가 늦게 써져도 먼저 쓴 새 상태를 덮어쓰지 않음")
+    void updateCouponState_StaleBatchDoesNotOverwrite() {
+        couponStateService.updateCouponState(coupon); // version 0, pending
+
+        // flush 전에 다른 경로(바로 쓰기)로 사용된 상태가 먼저 써짐
+        coupon.use(100L, LocalDateTime.now());
+        newCouponStateService(redissonClient, CouponStateWriteMode.SYNC).updateCouponState(coupon);
+        couponStateService.flush();
+
+        CouponDto.Response stored = newCouponStateService(redissonClient, CouponStateWriteMode.SYNC).getCouponState(1L);
+        assertThat(stored.getStatus()).isEqualTo(Coupon.Status.USED);
+    }
+
+    @Test
+    @DisplayName("version - pending에 합칠 때 늦게 도착한 이전 상태는 버리고 max-pending을 넘어도 pending에 있는 쿠폰은 바로 쓰지 않음")
+    void updateCouponState_MergesPendingByVersion() {
+        ReflectionTestUtils.setField(couponStateService, "maxPending", 1);
+        Coupon stale = Coupon.builder().id(1L).userId(1L).couponPolicy(coupon.getCouponPolicy()).couponCode("TEST123").build();
+        coupon.use(100L, LocalDateTime.now());
+
+        couponStateService.updateCouponState(coupon); // version 1
+        couponStateService.updateCouponState(stale); // version 0
+
+        assertThat(couponStateService.getCouponState(1L).getStatus()).isEqualTo(Coupon.Status.USED);
+        assertThat(redissonClient.getKeys().countExists("coupon:state:1")).isZero();
+        assertThat(meterRegistry.get("coupon.state.pending").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("이전 포맷 - 문자열로 저장된 값은 그대로 읽고 다음 쓰기에서 hash로 바꿈")
+    void getCouponState_ReadsLegacyStringValue() {
+        CouponStateBinaryCodec codec = new CouponStateBinaryCodec();
+        redissonClient.getBucket("coupon:state:1", ByteArrayCodec.INSTANCE).set(codec.encode(CouponDto.Response.from(coupon)));
+        CouponStateService syncService = newCouponStateService(redissonClient, CouponStateWriteMode.SYNC);
+
+        assertThat(syncService.getCouponState(1L).getStatus()).isEqualTo(Coupon.Status.AVAILABLE);
+
+        coupon.use(100L, LocalDateTime.now());
+        syncService.updateCouponState(coupon);
+        assertThat(syncService.getCouponState(1L).getStatus()).isEqualTo(Coupon.Status.USED);
+    }
+
+    private CouponStateService newCouponStateService(RedissonClient client, CouponStateWriteMode writeMode) {
+        return newCouponStateService(client, writeMode, new SimpleMeterRegistry());
+    }
+
+    private CouponStateService newCouponStateService(RedissonClient client, CouponStateWriteMode writeMode,
+                                                     SimpleMeterRegistry registry) {
+        CouponStateService service = new CouponStateService(client, new CouponStateBinaryCodec(), registry);
+        ReflectionTestUtils.setField(service, "writeMode", writeMode);
+        ReflectionTestUtils.setField(service, "ttlSeconds", 600L);
+        ReflectionTestUtils.setField(service, "batchSize", 500);
+        ReflectionTestUtils.setField(service, "maxPending", 100);
+        service.registerMetrics();
+        return service;
+    }
+}
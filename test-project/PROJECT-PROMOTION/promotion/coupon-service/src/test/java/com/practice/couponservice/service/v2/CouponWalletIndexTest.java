@@ -0,0 +1,87 @@
+package com.practice.couponservice.service.v2;
+
+import com.practice.couponservice.dto.v1.CouponDto;
+import com.practice.couponservice.entity.Coupon;
+import com.practice.couponservice.entity.CouponPolicy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CouponWalletIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    private static CouponDto.WalletItem item(long id, CouponPolicy.DiscountType type, int value, int minimumOrderAmount,
+                                             int maximumDiscountAmount, LocalDateTime validUntil) {
+        return new CouponDto.WalletItem(id, "CODE" + id, Coupon.Status.AVAILABLE, type, value, minimumOrderAmount,
+                maximumDiscountAmount, NOW.minusDays(1), validUntil, NOW.minusDays(1));
+    }
+
+    @Test
+    @DisplayName("최적 쿠폰 - 최소 주문 금액, 정률 최대 할인 금액, 만료를 반영해서 할인 금액순으로 정렬")
+    void best_RanksApplicableCoupons() {
+        CouponWalletIndex.Index index = CouponWalletIndex.Index.of(List.of(
+                item(1, CouponPolicy.DiscountType.FIXED_AMOUNT, 3000, 10000, 3000, NOW.plusDays(1)),
+                item(2, CouponPolicy.DiscountType.PERCENTAGE, 10, 0, 5000, NOW.plusDays(1)),   // 20000 * 10% = 2000
+                item(3, CouponPolicy.DiscountType.PERCENTAGE, 50, 0, 4000, NOW.plusDays(1)),   // 10000 -> 최대 4000
+                item(4, CouponPolicy.DiscountType.FIXED_AMOUNT, 9000, 30000, 9000, NOW.plusDays(1)), // 최소 주문 금액 미달
+                item(5, CouponPolicy.DiscountType.FIXED_AMOUNT, 8000, 0, 8000, NOW.minusHours(1))    // 만료
+        ));
+
+        List<CouponDto.BestCoupon> best = index.best(20000, NOW, 10);
+
+        assertThat(best).extracting(CouponDto.BestCoupon::getCouponId).containsExactly(3L, 1L, 2L);
+        assertThat(best).extracting(CouponDto.BestCoupon::getDiscountAmount).containsExactly(4000L, 3000L, 2000L);
+    }
+
+    @Test
+    @DisplayName("최적 쿠폰 - 할인 금액이 같으면 먼저 만료되는 쿠폰 우선, 할인 금액은 주문 금액을 넘지 않음")
+    void best_TieBreaksByExpiry() {
+        CouponWalletIndex.Index index = CouponWalletIndex.Index.of(List.of(
+                item(1, CouponPolicy.DiscountType.FIXED_AMOUNT, 5000, 0, 5000, NOW.plusDays(3)),
+                item(2, CouponPolicy.DiscountType.FIXED_AMOUNT, 5000, 0, 5000, NOW.plusDays(1))
+        ));
+
+        List<CouponDto.BestCoupon> best = index.best(3000, NOW, 1);
+
+        assertThat(best).extracting(CouponDto.BestCoupon::getCouponId).containsExactly(2L);
+        assertThat(best.get(0).getDiscountAmount()).isEqualTo(3000L);
+    }
+
+    @Test
+    @DisplayName("최적 쿠폰 - 중간에 멈춰도 전체를 계산한 결과와 같음")
+    void best_EarlyExitMatchesFullScan() {
+        Random random = new Random(42);
+        List<CouponDto.WalletItem> items = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            CouponPolicy.DiscountType type = random.nextBoolean()
+                    ? CouponPolicy.DiscountType.FIXED_AMOUNT : CouponPolicy.DiscountType.PERCENTAGE;
+            int value = type == CouponPolicy.DiscountType.PERCENTAGE ? 1 + random.nextInt(50) : 100 * (1 + random.nextInt(100));
+            items.add(item(i, type, value, 1000 * random.nextInt(50), 100 * (1 + random.nextInt(100)),
+                    NOW.plusHours(random.nextInt(48) - 6)));
+        }
+        CouponWalletIndex.Index index = CouponWalletIndex.Index.of(items);
+
+        for (long orderAmount : new long[]{5000, 20000, 100000}) {
+            List<Long> expected = items.stream()
+                    .filter(item -> orderAmount >= item.getMinimumOrderAmount() && !NOW.isAfter(item.getValidUntil()))
+                    .map(item -> CouponDto.BestCoupon.of(item, CouponWalletIndex.Index.discount(item, orderAmount)))
+                    .sorted(Comparator.comparingLong(CouponDto.BestCoupon::getDiscountAmount).reversed()
+                            .thenComparing(CouponDto.BestCoupon::getValidUntil))
+                    .limit(10)
+                    .map(CouponDto.BestCoupon::getDiscountAmount)
+                    .toList();
+
+            assertThat(index.best(orderAmount, NOW, 10))
+                    .extracting(CouponDto.BestCoupon::getDiscountAmount)
+                    .containsExactlyElementsOf(expected);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.practice.couponservice.service.v3;
+
+import com.practice.couponservice.dto.v3.CouponDto;
+import com.practice.couponservice.entity.Coupon;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponBatchConsumerTest {
+
+    @InjectMocks
+    private CouponBatchConsumer couponBatchConsumer;
+
+    @Mock
+    private CouponService couponService;
+
+    @Mock
+    private CouponIssueResultService couponIssueResultService;
+
+    private final CouponDto.IssueMessage first = message("request-1", 1L);
+    private final CouponDto.IssueMessage second = message("request-2", 2L);
+
+    @Test
+    @DisplayName("배치 발급 - 커밋된 뒤 결과 전달이 실패해도 메시지 단위로 다시 발급하지 않음")
+    void consume_DoesNotReissueWhenResultDeliveryFails() {
+        when(couponService.issueCoupons(List.of(first, second)))
+                .thenReturn(List.of(coupon(10L, 1L), coupon(11L, 2L)));
+        doThrow(new RuntimeException("redis unavailable")).when(couponIssueResultService).issued(any(), any());
+
+        assertThatThrownBy(() -> couponBatchConsumer.consumeCouponIssueRequests(List.of(first, second)))
+                .hasMessage("redis unavailable");
+
+        verify(couponService, never()).issueCoupon(any());
+        verify(couponIssueResultService, never()).failed(any(), any());
+    }
+
+    @Test
+    @DisplayName("배치 발급 - 배치 저장이 실패하면 메시지 단위로 처리하고, 발급된 쿠폰은 결과 전달이 실패해도 FAILED로 알리지 않음")
+    void consume_FallsBackOnlyWhenBatchFails() {
+        when(couponService.issueCoupons(any())).thenThrow(new RuntimeException("constraint violation"));
+        when(couponService.issueCoupon(first)).thenReturn(coupon(10L, 1L));
+        when(couponService.issueCoupon(second)).thenThrow(new RuntimeException("policy not found"));
+
+        couponBatchConsumer.consumeCouponIssueRequests(List.of(first, second));
+
+        verify(couponIssueResultService).issued(first, 10L);
+        verify(couponIssueResultService).failed(second, "policy not found");
+        verify(couponIssueResultService, never()).failed(eq(first), any());
+    }
+
+    private static CouponDto.IssueMessage message(String requestId, Long userId) {
+        return CouponDto.IssueMessage.builder().policyId(1L).userId(userId).requestId(requestId).build();
+    }
+
+    private static Coupon coupon(Long id, Long userId) {
+        return Coupon.builder().id(id).userId(userId).couponCode("TEST" + id).build();
+    }
+}
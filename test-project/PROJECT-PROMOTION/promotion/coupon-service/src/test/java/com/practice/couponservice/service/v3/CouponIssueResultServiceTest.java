@@ -0,0 +1,109 @@
+package com.practice.couponservice.service.v3;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.practice.couponservice.dto.v3.CouponDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RBucket;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.redisson.client.codec.Codec;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponIssueResultServiceTest {
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RTopic topic;
+
+    @Mock
+    private RBucket<String> resultBucket;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CouponIssueResultService couponIssueResultService;
+    private MessageListener<String> listener;
+
+    private static final String TEST_REQUEST_ID = "request-1";
+    private static final Long TEST_USER_ID = 1L;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(redissonClient.getTopic(eq("coupon:result"), any(Codec.class))).thenReturn(topic);
+        doReturn(resultBucket).when(redissonClient).getBucket(anyString(), any(Codec.class));
+
+        couponIssueResultService = new CouponIssueResultService(redissonClient, objectMapper);
+        ReflectionTestUtils.setField(couponIssueResultService, "sseTimeoutMillis", 30000L);
+        couponIssueResultService.subscribe();
+
+        ArgumentCaptor<MessageListener<String>> captor = ArgumentCaptor.forClass(MessageListener.class);
+        verify(topic).addListener(eq(String.class), captor.capture());
+        listener = captor.getValue();
+    }
+
+    @Test
+    @DisplayName("결과 구독 - 같은 requestId로 두 번 연결하면 두 연결 모두 결과를 받음")
+    void subscribe_DuplicateRequestId() throws Exception {
+        SseEmitter first = couponIssueResultService.subscribe(TEST_REQUEST_ID, TEST_USER_ID);
+        SseEmitter second = couponIssueResultService.subscribe(TEST_REQUEST_ID, TEST_USER_ID);
+        assertOpen(first);
+
+        listener.onMessage("coupon:result", issuedJson(TEST_REQUEST_ID, TEST_USER_ID));
+
+        assertCompleted(first);
+        assertCompleted(second);
+    }
+
+    @Test
+    @DisplayName("결과 구독 - 연결 전에 이미 기록된 결과는 바로 전달")
+    void subscribe_AlreadyFinished() throws Exception {
+        when(resultBucket.get()).thenReturn(issuedJson(TEST_REQUEST_ID, TEST_USER_ID));
+
+        SseEmitter emitter = couponIssueResultService.subscribe(TEST_REQUEST_ID, TEST_USER_ID);
+
+        assertCompleted(emitter);
+    }
+
+    @Test
+    @DisplayName("결과 구독 - 다른 요청의 결과는 전달하지 않음")
+    void subscribe_IgnoresOtherRequest() throws Exception {
+        SseEmitter emitter = couponIssueResultService.subscribe(TEST_REQUEST_ID, TEST_USER_ID);
+
+        listener.onMessage("coupon:result", issuedJson("request-2", TEST_USER_ID));
+
+        assertOpen(emitter);
+    }
+
+    private String issuedJson(String requestId, Long userId) throws Exception {
+        return objectMapper.writeValueAsString(CouponDto.IssueResult.builder()
+                .requestId(requestId)
+                .userId(userId)
+                .status(CouponDto.IssueResult.Status.ISSUED)
+                .couponId(100L)
+                .build());
+    }
+
+    // complete된 emitter는 더 보낼 수 없음
+    private void assertCompleted(SseEmitter emitter) {
+        assertThatThrownBy(() -> emitter.send("ping")).isInstanceOf(IllegalStateException.class);
+    }
+
+    private void assertOpen(SseEmitter emitter) {
+        assertThatCode(() -> emitter.send("ping")).doesNotThrowAnyException();
+    }
+}
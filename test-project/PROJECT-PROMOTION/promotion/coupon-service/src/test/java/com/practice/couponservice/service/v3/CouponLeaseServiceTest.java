@@ -0,0 +1,122 @@
+package com.practice.couponservice.service.v3;
+
+import com.practice.common.support.EmbeddedRedis;
+import com.practice.couponservice.entity.CouponPolicy;
+import com.practice.couponservice.service.CouponRedisKeys;
+import com.practice.couponservice.service.v2.CouponIssueMode;
+import com.practice.couponservice.service.v2.CouponQuantityService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RMap;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.LongCodec;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.codec.CompositeCodec;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 임대/반납/회수 스크립트를 실제 Redis(EmbeddedRedis)에서 실행
+ */
+class CouponLeaseServiceTest {
+
+    private final RedissonClient redissonClient = EmbeddedRedis.redissonClient();
+
+    private CouponLeaseService couponLeaseService;
+    private String instanceId;
+    private static final Long TEST_POLICY_ID = 1L;
+
+    @BeforeEach
+    void setUp() {
+        redissonClient.getKeys().flushall();
+
+        CouponQuantityService couponQuantityService = new CouponQuantityService(redissonClient);
+        ReflectionTestUtils.setField(couponQuantityService, "stripes", 1);
+        ReflectionTestUtils.setField(couponQuantityService, "issueMode", CouponIssueMode.LEASE);
+        couponQuantityService.initialize(CouponPolicy.builder()
+                .id(TEST_POLICY_ID)
+                .name("테스트 쿠폰")
+                .discountType(CouponPolicy.DiscountType.FIXED_AMOUNT)
+                .discountValue(1000)
+                .totalQuantity(100)
+                .startTime(LocalDateTime.now().minusDays(1))
+                .endTime(LocalDateTime.now().plusDays(1))
+                .build());
+
+        couponLeaseService = new CouponLeaseService(couponQuantityService, redissonClient);
+        ReflectionTestUtils.setField(couponLeaseService, "initialBlockSize", 10L);
+        ReflectionTestUtils.setField(couponLeaseService, "leaseTtlMillis", 5000L);
+        ReflectionTestUtils.setField(couponLeaseService, "reclaimAfterMillis", 30000L);
+        instanceId = (String) ReflectionTestUtils.getField(couponLeaseService, "instanceId");
+    }
+
+    @Test
+    @DisplayName("임대 - 블록을 가져오고 원장에는 나눠주기 전에 확정한 만큼 뺀 수량을 기록")
+    void acquire_LeasesBlock() {
+        couponLeaseService.acquire(TEST_POLICY_ID);
+
+        assertThat(quantity()).isEqualTo(90L);
+        // 블록 10개 중 1/4(2개)를 확정
+        assertThat(ledger().get(instanceId)).isEqualTo(8L);
+        assertThat(ledger().get(instanceId + ":expires-at")).isGreaterThan(System.currentTimeMillis());
+    }
+
+    @Test
+    @DisplayName("반납 - 나눠주지 않은 수량을 돌려주고 원장 항목을 지움")
+    void returnAllLeases_GivesBackLeftover() {
+        for (int i = 0; i < 3; i++) {
+            couponLeaseService.acquire(TEST_POLICY_ID);
+        }
+
+        couponLeaseService.returnAllLeases();
+
+        assertThat(quantity()).isEqualTo(97L);
+        assertThat(ledger().isExists()).isFalse();
+    }
+
+    @Test
+    @DisplayName("회수 - 만료된 지 오래된 다른 인스턴스의 미확정 수량만 회수")
+    void reclaimAbandonedLeases_ReclaimsExpiredEntries() {
+        couponLeaseService.acquire(TEST_POLICY_ID);
+        // 비정상 종료된 인스턴스 (1분 전에 만료), 아직 만료 전인 인스턴스
+        ledger().putAll(Map.of(
+                "crashed", 7L, "crashed:expires-at", System.currentTimeMillis() - 60000,
+                "alive", 5L, "alive:expires-at", System.currentTimeMillis() + 5000));
+
+        couponLeaseService.reclaimAbandonedLeases();
+
+        assertThat(quantity()).isEqualTo(97L);
+        assertThat(ledger().readAllMap()).containsOnlyKeys(instanceId, instanceId + ":expires-at", "alive", "alive:expires-at");
+    }
+
+    @Test
+    @DisplayName("회수 - 회수된 lease는 확정한 수량까지만 나눠주고 반납하지 않음")
+    void acquire_StopsUsingReclaimedLease() {
+        couponLeaseService.acquire(TEST_POLICY_ID); // 10개 임대, 2개 확정
+        // 다른 인스턴스가 미확정 수량(8)을 회수
+        ledger().delete();
+        redissonClient.getAtomicLong(CouponRedisKeys.quantity(TEST_POLICY_ID)).addAndGet(8);
+
+        couponLeaseService.acquire(TEST_POLICY_ID); // 확정한 2번째
+        couponLeaseService.acquire(TEST_POLICY_ID); // 확정 실패 -> 새 블록
+        couponLeaseService.returnAllLeases();
+
+        // 나눠준 3개만 빠지고, 회수된 lease의 남은 수량을 두 번 돌려주지 않음
+        assertThat(quantity()).isEqualTo(97L);
+        assertThat(ledger().isExists()).isFalse();
+    }
+
+    private long quantity() {
+        return redissonClient.getAtomicLong(CouponRedisKeys.quantity(TEST_POLICY_ID)).get();
+    }
+
+    private RMap<String, Long> ledger() {
+        return redissonClient.getMap(CouponRedisKeys.lease(TEST_POLICY_ID),
+                new CompositeCodec(StringCodec.INSTANCE, LongCodec.INSTANCE));
+    }
+}
@@ -0,0 +1,63 @@
+package com.practice.couponservice.service.v3;
+
+import com.practice.couponservice.dto.v3.CouponDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.StreamMessageId;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponOutboxRelayTest {
+
+    @InjectMocks
+    private CouponOutboxRelay couponOutboxRelay;
+
+    @Mock
+    private CouponOutbox couponOutbox;
+
+    @Mock
+    private KafkaTemplate<String, CouponDto.IssueMessage> kafkaTemplate;
+
+    private static final StreamMessageId SENT_ID = new StreamMessageId(1, 0);
+    private static final StreamMessageId FAILED_ID = new StreamMessageId(2, 0);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(couponOutboxRelay, "batchSize", 10);
+    }
+
+    @Test
+    @DisplayName("outbox relay - Kafka 전송이 확인된 항목만 ack")
+    @SuppressWarnings("unchecked")
+    void relay_AcknowledgeOnlySent() {
+        Map<StreamMessageId, CouponDto.IssueMessage> messages = new LinkedHashMap<>();
+        messages.put(SENT_ID, CouponDto.IssueMessage.builder().policyId(1L).userId(1L).build());
+        messages.put(FAILED_ID, CouponDto.IssueMessage.builder().policyId(1L).userId(2L).build());
+        when(couponOutbox.readNew(anyString(), eq(10))).thenReturn(messages);
+
+        CompletableFuture<SendResult<String, CouponDto.IssueMessage>> sent = CompletableFuture.completedFuture(null);
+        CompletableFuture<SendResult<String, CouponDto.IssueMessage>> failed =
+                CompletableFuture.failedFuture(new RuntimeException("broker unavailable"));
+        when(kafkaTemplate.send(eq("coupon-issue-requests"), eq("1"), any())).thenReturn(sent, failed);
+
+        couponOutboxRelay.relay();
+
+        verify(kafkaTemplate).flush();
+        verify(couponOutbox).acknowledge(SENT_ID);
+        verify(couponOutbox, times(1)).readNew(anyString(), eq(10)); // 실패가 있으면 다음 주기에 다시 처리
+    }
+}
@@ -0,0 +1,68 @@
+package com.practice.couponservice.service.v3;
+
+import com.practice.couponservice.dto.v3.CouponDto;
+import com.practice.couponservice.entity.Coupon;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponParallelConsumerTest {
+
+    @Mock
+    private CouponService couponService;
+
+    @Mock
+    private CouponIssueResultService couponIssueResultService;
+
+    @Mock
+    private Acknowledgment ack;
+
+    @Test
+    @DisplayName("병렬 컨슈머 - 같은 (policyId, userId)는 순서대로 처리하고 모든 메시지를 처리 후 ack")
+    void consumeCouponIssueRequest_KeepsOrderPerKey() throws Exception {
+        CouponParallelConsumer consumer = new CouponParallelConsumer(couponService, couponIssueResultService, 4);
+        List<String> processed = Collections.synchronizedList(new ArrayList<>());
+        when(couponService.issueCoupon(any())).thenAnswer(invocation -> {
+            CouponDto.IssueMessage message = invocation.getArgument(0);
+            if (message.getRequestId().equals("1-a")) {
+                Thread.sleep(100); // 앞선 메시지가 늦게 끝나도 같은 키의 다음 메시지는 기다려야 함
+            }
+            processed.add(message.getRequestId());
+            return Coupon.builder().build();
+        });
+
+        List<CouponDto.IssueMessage> messages = new ArrayList<>();
+        for (String suffix : List.of("a", "b", "c")) {
+            for (long userId = 1; userId <= 3; userId++) {
+                messages.add(CouponDto.IssueMessage.builder().policyId(1L).userId(userId).requestId(userId + "-" + suffix).build());
+            }
+        }
+        for (int offset = 0; offset < messages.size(); offset++) {
+            consumer.consumeCouponIssueRequest(
+                    new ConsumerRecord<>("coupon-issue-requests", 0, offset, "1", messages.get(offset)), ack);
+        }
+        consumer.shutdown();
+
+        assertThat(processed).hasSize(9);
+        for (long userId = 1; userId <= 3; userId++) {
+            String prefix = userId + "-";
+            assertThat(processed.stream().filter(id -> id.startsWith(prefix)).toList())
+                    .containsExactly(prefix + "a", prefix + "b", prefix + "c");
+        }
+        verify(ack, times(9)).acknowledge();
+        verify(couponIssueResultService, times(9)).issued(any(), any());
+    }
+}
@@ -0,0 +1,216 @@
+package com.practice.couponservice.service.v3;
+
+import com.practice.couponservice.config.UserIdInterceptor;
+import com.practice.couponservice.dto.v3.CouponDto;
+import com.practice.couponservice.entity.Coupon;
+import com.practice.couponservice.entity.CouponPolicy;
+import com.practice.couponservice.exception.CouponAlreadyUsedException;
+import com.practice.couponservice.exception.CouponIssueException;
+import com.practice.couponservice.repository.CouponRepository;
+import com.practice.couponservice.service.v2.CouponIssueMode;
+import com.practice.couponservice.service.v2.CouponPolicyService;
+import com.practice.couponservice.service.v2.CouponQuantityService;
+import com.practice.couponservice.service.v2.CouponSoldOutCache;
+import com.practice.couponservice.service.v2.CouponStateService;
+import com.practice.couponservice.service.v2.CouponWalletIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RedissonClient;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CouponServiceTest {
+
+    @InjectMocks
+    private CouponService couponService;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private CouponRepository couponRepository;
+
+    @Mock
+    private CouponProducer couponProducer;
+
+    @Mock
+    private CouponStateService couponStateService;
+
+    @Mock
+    private CouponPolicyService couponPolicyService;
+
+    @Mock
+    private CouponQuantityService couponQuantityService;
+
+    @Mock
+    private CouponLeaseService couponLeaseService;
+
+    @Mock
+    private CouponWalletIndex couponWalletIndex;
+
+    @Mock
+    private CouponSoldOutCache couponSoldOutCache;
+
+    @Mock
+    private CouponWaitingRoom couponWaitingRoom;
+
+    private MockedStatic<UserIdInterceptor> userIdInterceptor;
+    private CouponPolicy couponPolicy;
+    private CouponDto.IssueRequest request;
+
+    private static final Long TEST_POLICY_ID = 1L;
+    private static final Long TEST_USER_ID = 1L;
+    private static final Long TEST_COUPON_ID = 1L;
+    private static final Long TEST_ORDER_ID = 100L;
+    private static final String TEST_TOKEN = "token";
+    private static final long ADMISSION_EXPIRES_AT = 1_000L;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(couponService, "issueMode", CouponIssueMode.SCRIPT);
+        ReflectionTestUtils.setField(couponService, "waitingRoomEnabled", true);
+        userIdInterceptor = mockStatic(UserIdInterceptor.class);
+        userIdInterceptor.when(UserIdInterceptor::getCurrentUserId).thenReturn(TEST_USER_ID);
+
+        couponPolicy = CouponPolicy.builder()
+                .id(TEST_POLICY_ID)
+                .totalQuantity(100)
+                .startTime(LocalDateTime.now().minusDays(1))
+                .endTime(LocalDateTime.now().plusDays(1))
+                .build();
+        request = CouponDto.IssueRequest.builder()
+                .couponPolicyId(TEST_POLICY_ID)
+                .waitingToken(TEST_TOKEN)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userIdInterceptor.close();
+    }
+
+    @Test
+    @DisplayName("대기열 - 허가를 소모한 뒤 발급 요청이 접수되면 허가를 되돌리지 않음")
+    void requestCouponIssue_ConsumesAdmission() {
+        when(couponWaitingRoom.consume(TEST_POLICY_ID, TEST_USER_ID, TEST_TOKEN)).thenReturn(ADMISSION_EXPIRES_AT);
+        when(couponPolicyService.getCouponPolicy(TEST_POLICY_ID)).thenReturn(couponPolicy);
+
+        String requestId = couponService.requestCouponIssue(request);
+
+        assertThat(requestId).isNotBlank();
+        verify(couponProducer).sendCouponIssueRequest(any());
+        verify(couponWaitingRoom, never()).restore(anyLong(), anyLong(), anyString(), anyLong());
+    }
+
+    @Test
+    @DisplayName("대기열 - 발급 요청 전송에 실패하면 수량과 허가를 모두 되돌림")
+    void requestCouponIssue_RestoresAdmissionOnFailure() {
+        when(couponWaitingRoom.consume(TEST_POLICY_ID, TEST_USER_ID, TEST_TOKEN)).thenReturn(ADMISSION_EXPIRES_AT);
+        when(couponPolicyService.getCouponPolicy(TEST_POLICY_ID)).thenReturn(couponPolicy);
+        doThrow(new RuntimeException("broker unavailable")).when(couponProducer).sendCouponIssueRequest(any());
+
+        assertThatThrownBy(() -> couponService.requestCouponIssue(request))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("broker unavailable");
+
+        verify(couponQuantityService).release(TEST_POLICY_ID, TEST_USER_ID);
+        verify(couponWaitingRoom).restore(TEST_POLICY_ID, TEST_USER_ID, TEST_TOKEN, ADMISSION_EXPIRES_AT);
+    }
+
+    @Test
+    @DisplayName("대기열 - 허가되지 않은 토큰이면 수량을 건드리지 않고 거절")
+    void requestCouponIssue_RejectsWithoutAdmission() {
+        when(couponWaitingRoom.consume(TEST_POLICY_ID, TEST_USER_ID, TEST_TOKEN)).thenReturn(null);
+
+        assertThatThrownBy(() -> couponService.requestCouponIssue(request))
+                .isInstanceOf(CouponIssueException.class);
+
+        verifyNoInteractions(couponQuantityService, couponProducer);
+        verify(couponWaitingRoom, never()).restore(anyLong(), anyLong(), anyString(), anyLong());
+    }
+
+    @Test
+    @DisplayName("쿠폰 사용 - 조회 이후 다른 요청이 먼저 사용해서 UPDATE가 0건이면 이미 사용된 쿠폰")
+    void useCoupon_Fail_ConcurrentlyUsed() {
+        Coupon coupon = coupon();
+        when(couponRepository.findByIdWithPolicy(TEST_COUPON_ID)).thenReturn(Optional.of(coupon));
+        when(couponRepository.use(eq(TEST_COUPON_ID), eq(Coupon.Status.AVAILABLE), eq(TEST_ORDER_ID), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> couponService.useCoupon(TEST_COUPON_ID, TEST_ORDER_ID))
+                .isInstanceOf(CouponAlreadyUsedException.class);
+
+        verifyNoInteractions(couponStateService, couponWalletIndex);
+    }
+
+    @Test
+    @DisplayName("쿠폰 취소 - 조회 이후 다른 요청이 먼저 취소해서 UPDATE가 0건이면 실패")
+    void cancelCoupon_Fail_ConcurrentlyCancelled() {
+        Coupon coupon = coupon();
+        coupon.use(TEST_ORDER_ID, LocalDateTime.now());
+        when(couponRepository.findByIdWithPolicy(TEST_COUPON_ID)).thenReturn(Optional.of(coupon));
+        when(couponRepository.cancel(TEST_COUPON_ID)).thenReturn(0);
+
+        assertThatThrownBy(() -> couponService.cancelCoupon(TEST_COUPON_ID))
+                .isInstanceOf(IllegalStateException.class);
+
+        verifyNoInteractions(couponStateService, couponWalletIndex);
+    }
+
+    @Test
+    @DisplayName("발급 메시지 - 이미 처리한 requestId가 다시 오면(outbox 재전송) 저장하지 않고 먼저 만든 쿠폰을 돌려줌")
+    void issueCoupon_SkipsProcessedRequest() {
+        Coupon issued = coupon();
+        when(couponRepository.findByRequestId("request-1")).thenReturn(Optional.of(issued));
+
+        Coupon coupon = couponService.issueCoupon(message("request-1"));
+
+        assertThat(coupon).isSameAs(issued);
+        verify(couponRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(couponWalletIndex);
+    }
+
+    @Test
+    @DisplayName("배치 발급 - 이미 처리한 requestId와 배치 안에서 중복된 requestId는 새로 저장하지 않음")
+    @SuppressWarnings("unchecked")
+    void issueCoupons_SkipsProcessedAndDuplicateRequests() {
+        Coupon issued = Coupon.builder().id(TEST_COUPON_ID).userId(TEST_USER_ID).couponPolicy(couponPolicy)
+                .couponCode("TEST123").requestId("request-1").build();
+        when(couponRepository.findByRequestIdIn(List.of("request-1", "request-2", "request-2"))).thenReturn(List.of(issued));
+        when(couponPolicyService.getCouponPolicy(TEST_POLICY_ID)).thenReturn(couponPolicy);
+
+        List<Coupon> coupons = couponService.issueCoupons(List.of(message("request-1"), message("request-2"), message("request-2")));
+
+        ArgumentCaptor<List<Coupon>> saved = ArgumentCaptor.forClass(List.class);
+        verify(couponRepository).saveAll(saved.capture());
+        assertThat(saved.getValue()).hasSize(1);
+        assertThat(saved.getValue().get(0).getRequestId()).isEqualTo("request-2");
+        assertThat(coupons).hasSize(3);
+        assertThat(coupons.get(0)).isSameAs(issued);
+        assertThat(coupons.get(1)).isSameAs(saved.getValue().get(0)).isSameAs(coupons.get(2));
+    }
+
+    private CouponDto.IssueMessage message(String requestId) {
+        return CouponDto.IssueMessage.builder().policyId(TEST_POLICY_ID).userId(TEST_USER_ID).requestId(requestId).build();
+    }
+
+    private Coupon coupon() {
+        return Coupon.builder().id(TEST_COUPON_ID).userId(TEST_USER_ID).couponPolicy(couponPolicy).couponCode("TEST123").build();
+    }
+}
@@ -0,0 +1,123 @@
+package com.practice.couponservice.service.v3;
+
+import com.practice.common.support.EmbeddedRedis;
+import com.practice.couponservice.dto.v3.CouponDto;
+import com.practice.couponservice.entity.CouponPolicy;
+import com.practice.couponservice.service.CouponRedisKeys;
+import com.practice.couponservice.service.v2.CouponPolicyService;
+import com.practice.couponservice.service.v2.CouponSoldOutCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 대기열 스크립트를 실제 Redis(EmbeddedRedis)에서 실행
+ */
+class CouponWaitingRoomTest {
+
+    private final RedissonClient redissonClient = EmbeddedRedis.redissonClient();
+
+    private CouponWaitingRoom couponWaitingRoom;
+    private static final Long TEST_POLICY_ID = 1L;
+
+    @BeforeEach
+    void setUp() {
+        redissonClient.getKeys().flushall();
+
+        CouponPolicyService couponPolicyService = mock(CouponPolicyService.class);
+        when(couponPolicyService.getCouponPolicy(TEST_POLICY_ID)).thenReturn(CouponPolicy.builder()
+                .id(TEST_POLICY_ID)
+                .totalQuantity(100)
+                .startTime(LocalDateTime.now().minusMinutes(1))
+                .endTime(LocalDateTime.now().plusDays(1))
+                .build());
+
+        couponWaitingRoom = new CouponWaitingRoom(redissonClient, couponPolicyService,
+                mock(CouponSoldOutCache.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(couponWaitingRoom, "admitRatePerSecond", 1L);
+        ReflectionTestUtils.setField(couponWaitingRoom, "admissionTtlSeconds", 30L);
+    }
+
+    @Test
+    @DisplayName("대기열 입장 - 들어온 순서대로 순번을 받고, 다시 들어오면 기존 토큰과 순번을 그대로 받음")
+    void enter_KeepsOrderAndToken() {
+        CouponDto.WaitingTicket first = couponWaitingRoom.enter(TEST_POLICY_ID, 1L);
+        CouponDto.WaitingTicket second = couponWaitingRoom.enter(TEST_POLICY_ID, 2L);
+        CouponDto.WaitingTicket again = couponWaitingRoom.enter(TEST_POLICY_ID, 1L);
+
+        assertThat(first.getStatus()).isEqualTo(CouponDto.WaitingTicket.Status.WAITING);
+        assertThat(first.getPosition()).isEqualTo(1L);
+        assertThat(second.getPosition()).isEqualTo(2L);
+        assertThat(again.getToken()).isEqualTo(first.getToken());
+        assertThat(again.getPosition()).isEqualTo(1L);
+        assertThat(couponWaitingRoom.getTicket(TEST_POLICY_ID, 3L).getStatus()).isEqualTo(CouponDto.WaitingTicket.Status.NONE);
+    }
+
+    @Test
+    @DisplayName("입장 허가 - 경과 시간만큼 대기열 앞에서부터 허가하고 나머지는 순번이 당겨짐")
+    void admit_AdmitsFromHead() {
+        couponWaitingRoom.enter(TEST_POLICY_ID, 1L);
+        couponWaitingRoom.enter(TEST_POLICY_ID, 2L);
+        lastAdmittedMillisAgo(1500); // 초당 1명 -> 1명 허가
+
+        couponWaitingRoom.admit();
+
+        CouponDto.WaitingTicket first = couponWaitingRoom.getTicket(TEST_POLICY_ID, 1L);
+        CouponDto.WaitingTicket second = couponWaitingRoom.getTicket(TEST_POLICY_ID, 2L);
+        assertThat(first.getStatus()).isEqualTo(CouponDto.WaitingTicket.Status.ADMITTED);
+        assertThat(first.getPosition()).isZero();
+        assertThat(second.getStatus()).isEqualTo(CouponDto.WaitingTicket.Status.WAITING);
+        assertThat(second.getPosition()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("허가 소모 - 허가는 한 번만 소모되고, 되돌리면 같은 토큰으로 다시 소모 가능")
+    void consume_OnceAndRestore() {
+        String token = couponWaitingRoom.enter(TEST_POLICY_ID, 1L).getToken();
+        assertThat(couponWaitingRoom.consume(TEST_POLICY_ID, 1L, token)).isNull(); // 아직 대기 중
+        lastAdmittedMillisAgo(1500);
+        couponWaitingRoom.admit();
+
+        assertThat(couponWaitingRoom.consume(TEST_POLICY_ID, 2L, token)).isNull(); // 다른 유저의 토큰
+        Long expiresAt = couponWaitingRoom.consume(TEST_POLICY_ID, 1L, token);
+        assertThat(expiresAt).isGreaterThan(System.currentTimeMillis());
+        assertThat(couponWaitingRoom.consume(TEST_POLICY_ID, 1L, token)).isNull();
+        assertThat(couponWaitingRoom.getTicket(TEST_POLICY_ID, 1L).getStatus()).isEqualTo(CouponDto.WaitingTicket.Status.NONE);
+
+        couponWaitingRoom.restore(TEST_POLICY_ID, 1L, token, expiresAt);
+
+        assertThat(couponWaitingRoom.getTicket(TEST_POLICY_ID, 1L).getStatus()).isEqualTo(CouponDto.WaitingTicket.Status.ADMITTED);
+        assertThat(couponWaitingRoom.consume(TEST_POLICY_ID, 1L, token)).isEqualTo(expiresAt);
+    }
+
+    @Test
+    @DisplayName("허가 되돌리기 - 그 사이 새 토큰으로 다시 줄을 섰으면 이전 토큰은 되돌리지 않음")
+    void restore_IgnoresReplacedToken() {
+        String token = couponWaitingRoom.enter(TEST_POLICY_ID, 1L).getToken();
+        lastAdmittedMillisAgo(1500);
+        couponWaitingRoom.admit();
+        Long expiresAt = couponWaitingRoom.consume(TEST_POLICY_ID, 1L, token);
+        String newToken = couponWaitingRoom.enter(TEST_POLICY_ID, 1L).getToken();
+
+        couponWaitingRoom.restore(TEST_POLICY_ID, 1L, token, expiresAt);
+
+        assertThat(newToken).isNotEqualTo(token);
+        assertThat(couponWaitingRoom.consume(TEST_POLICY_ID, 1L, token)).isNull();
+        assertThat(couponWaitingRoom.getTicket(TEST_POLICY_ID, 1L).getStatus()).isEqualTo(CouponDto.WaitingTicket.Status.WAITING);
+    }
+
+    private void lastAdmittedMillisAgo(long millis) {
+        redissonClient.getBucket(CouponRedisKeys.lastAdmittedAt(TEST_POLICY_ID), StringCodec.INSTANCE)
+                .set(String.valueOf(System.currentTimeMillis() - millis));
+    }
+}
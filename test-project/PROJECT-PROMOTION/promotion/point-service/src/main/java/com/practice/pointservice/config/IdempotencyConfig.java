@@ -0,0 +1,40 @@
+package com.practice.pointservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.practice.common.idempotency.IdempotencyFilter;
+import com.practice.common.idempotency.IdempotencyInterceptor;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Idempotency-Key 처리 (common 모듈의 IdempotencyInterceptor, 등록은 WebMvcConfig)
+ */
+@Configuration
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyInterceptor idempotencyInterceptor(
+            RedissonClient redissonClient,
+            ObjectMapper objectMapper,
+            @Value("${point.idempotency.ttl-seconds:300}") long ttlSeconds,
+            @Value("${point.idempotency.lock-ttl-seconds:10}") long lockTtlSeconds,
+            @Value("${point.idempotency.retry-after-seconds:1}") long retryAfterSeconds) {
+        return new IdempotencyInterceptor(redissonClient, objectMapper, UserIdInterceptor::getCurrentUserId,
+                new IdempotencyInterceptor.Settings(Duration.ofSeconds(ttlSeconds), Duration.ofSeconds(lockTtlSeconds),
+                        Duration.ofSeconds(retryAfterSeconds)));
+    }
+
+    // 인터셉터를 등록한 경로의 Idempotency-Key 요청만 요청/응답 body를 버퍼링 (multipart 요청 body는 버퍼링하지 않음)
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter() {
+        FilterRegistrationBean<IdempotencyFilter> registration =
+                new FilterRegistrationBean<>(new IdempotencyFilter(WebMvcConfig.POINT_API_PATTERN));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
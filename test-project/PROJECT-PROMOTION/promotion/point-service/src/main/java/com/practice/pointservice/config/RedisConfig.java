@@ -1,20 +1,19 @@
 package com.practice.pointservice.config;
 
-import org.redisson.Redisson;
+import com.practice.common.redis.RedissonClientFactory;
 import org.redisson.api.RedissonClient;
-import org.redisson.config.Config;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
+/**
+ * Redisson 클라이언트 (토폴로지/커넥션 풀은 common 모듈의 RedissonClientFactory, 설정은 spring.data.redis.*, redisson.*)
+ */
 @Configuration
 public class RedisConfig {
 
     @Bean
-    public RedissonClient redissonClient() {
-        Config config = new Config();
-        config.useSingleServer()
-                .setAddress("redis://localhost:6379");
-        return Redisson.create(config);
+    public RedissonClient redissonClient(Environment environment) {
+        return RedissonClientFactory.create(RedissonClientFactory.Settings.from(environment));
     }
-
 }
@@ -1,5 +1,6 @@
 package com.practice.pointservice.config;
 
+import com.practice.common.idempotency.IdempotencyInterceptor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
@@ -9,12 +10,19 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @RequiredArgsConstructor
 public class WebMvcConfig implements WebMvcConfigurer {
 
+    // UserIdInterceptor, IdempotencyInterceptor(와 IdempotencyFilter)를 적용할 경로
+    static final String POINT_API_PATTERN = "/api/**/points/**";
+
     private final UserIdInterceptor userIdInterceptor;
+    private final IdempotencyInterceptor idempotencyInterceptor;
 
     @Override
     public void addInterceptors(InterceptorRegistry registry){
         registry.addInterceptor(userIdInterceptor)
-                .addPathPatterns("/api/**/points/**");
+                .addPathPatterns(POINT_API_PATTERN);
+        // 유저 ID가 필요하므로 UserIdInterceptor 다음에 실행
+        registry.addInterceptor(idempotencyInterceptor)
+                .addPathPatterns(POINT_API_PATTERN);
     }
 
 }
@@ -19,7 +19,8 @@ import java.time.LocalDateTime;
 public class Point {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "points_seq")
+    @SequenceGenerator(name = "points_seq", sequenceName = "points_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -19,7 +19,8 @@ import java.time.LocalDateTime;
 public class PointBalance {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "point_balances_seq")
+    @SequenceGenerator(name = "point_balances_seq", sequenceName = "point_balances_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -0,0 +1,97 @@
+package com.practice.pointservice.controller.v2;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.practice.common.idempotency.IdempotencyFilter;
+import com.practice.common.idempotency.IdempotencyInterceptor;
+import com.practice.common.support.EmbeddedRedis;
+import com.practice.pointservice.config.UserIdInterceptor;
+import com.practice.pointservice.entity.Point;
+import com.practice.pointservice.entity.PointType;
+import com.practice.pointservice.service.v2.PointRedisService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 적립 요청의 Idempotency-Key 처리 (필터/인터셉터/컨트롤러를 실제 Redis(EmbeddedRedis)와 함께 실행)
+ */
+class PointControllerIdempotencyTest {
+
+    private final RedissonClient redissonClient = EmbeddedRedis.redissonClient();
+
+    private PointRedisService pointRedisService;
+    private MockMvc mockMvc;
+
+    private static final String EARN_BODY = "{\"amount\":1000,\"description\":\"적립\"}";
+
+    @BeforeEach
+    void setUp() {
+        redissonClient.getKeys().flushall();
+
+        pointRedisService = mock(PointRedisService.class);
+        IdempotencyInterceptor idempotencyInterceptor = new IdempotencyInterceptor(redissonClient, new ObjectMapper(),
+                UserIdInterceptor::getCurrentUserId,
+                new IdempotencyInterceptor.Settings(Duration.ofSeconds(300), Duration.ofSeconds(10), Duration.ofSeconds(1)));
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new PointController(pointRedisService, null))
+                .addFilters(new IdempotencyFilter("/api/**/points/**"))
+                .addInterceptors(new UserIdInterceptor(), idempotencyInterceptor)
+                .build();
+    }
+
+    @Test
+    @DisplayName("포인트 적립 - 같은 Idempotency-Key로 다시 보내면 적립하지 않고 처음 응답을 그대로 돌려줌")
+    void earnPoints_DuplicateReplayed() throws Exception {
+        Point point = Point.builder().userId(1L).amount(1000L).type(PointType.EARNED).description("적립").balanceSnapshot(1000L).build();
+        ReflectionTestUtils.setField(point, "id", 10L);
+        when(pointRedisService.earnPoints(1L, 1000L, "적립")).thenReturn(point);
+
+        MvcResult first = mockMvc.perform(earn("earn-1", EARN_BODY))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andReturn();
+        MvcResult retry = mockMvc.perform(earn("earn-1", EARN_BODY))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andReturn();
+
+        verify(pointRedisService, times(1)).earnPoints(anyLong(), anyLong(), anyString());
+        assertThat(retry.getResponse().getContentAsString()).isEqualTo(first.getResponse().getContentAsString());
+    }
+
+    @Test
+    @DisplayName("포인트 적립 - 같은 Idempotency-Key로 다른 금액을 보내면 적립하지 않고 422")
+    void earnPoints_DifferentPayloadRejected() throws Exception {
+        Point point = Point.builder().userId(1L).amount(1000L).type(PointType.EARNED).description("적립").balanceSnapshot(1000L).build();
+        when(pointRedisService.earnPoints(1L, 1000L, "적립")).thenReturn(point);
+
+        mockMvc.perform(earn("earn-1", EARN_BODY)).andExpect(status().isCreated());
+        mockMvc.perform(earn("earn-1", "{\"amount\":5000,\"description\":\"적립\"}"))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(pointRedisService, times(1)).earnPoints(anyLong(), anyLong(), anyString());
+    }
+
+    private RequestBuilder earn(String idempotencyKey, String body) {
+        return post("/api/v2/points/earn")
+                .header("X-USER-ID", "1")
+                .header(IdempotencyInterceptor.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+    }
+}
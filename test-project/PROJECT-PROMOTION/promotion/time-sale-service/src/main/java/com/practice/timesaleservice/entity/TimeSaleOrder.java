@@ -18,7 +18,9 @@ import java.time.LocalDateTime;
 @EntityListeners(AuditingEntityListener.class)
 public class TimeSaleOrder {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Kafka 컨슈머 저장 경로에서도 insert를 배치로 묶을 수 있도록 시퀀스 사용
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "time_sale_orders_seq")
+    @SequenceGenerator(name = "time_sale_orders_seq", sequenceName = "time_sale_orders_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)